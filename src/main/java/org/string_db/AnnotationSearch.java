@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+/**
+ * Free-text search over protein annotations, served from memory.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface AnnotationSearch {
+
+    /**
+     * @param speciesId must not be null
+     * @return annotation index of all {@code speciesId} proteins, built once and shared between callers
+     */
+    AnnotationSearchIndex getAnnotationIndex(Integer speciesId);
+
+    /**
+     * @param speciesId must not be null
+     * @param query     free text, all tokens must match, the last one as a prefix
+     * @param k         max number of hits
+     * @return best hits first
+     */
+    AnnotationSearchIndex.Hits search(Integer speciesId, String query, int k);
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Free-text index over the annotations of one species' proteins, a replacement for the Postgres-only
+ * {@code items.proteins.annotation_word_vectors} that works the same against any database (and offline).
+ * <p/>
+ * Annotations are split into lower-cased letter/digit tokens. Every protein is a document with a dense
+ * index (in protein_id order), all distinct terms are sorted and concatenated into one {@code char[]}
+ * (like {@link ProteinNameIndex}) and the postings of the term with rank {@code r} are stored in an
+ * {@link IntAdjacency} under key {@code r}. A posting packs the document and the term's frequency in it
+ * into one int: {@code document << TF_BITS | min(tf, MAX_TF)}, so postings stay sorted by document.
+ * <p/>
+ * A query matches the proteins whose annotation contains all of its tokens (AND), the last token
+ * matches as a prefix so partial input can be searched while it is typed. Hits are ranked with BM25
+ * and only the best {@code k} are kept in a bounded heap.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class AnnotationSearchIndex {
+    static final int TF_BITS = 4;
+    static final int MAX_TF = (1 << TF_BITS) - 1;
+    /**
+     * BM25 parameters, the usual defaults
+     */
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Integer speciesId;
+    private final char[] chars;
+    /**
+     * term with rank {@code r} is {@code chars[termOffsets[r] .. termOffsets[r + 1] - 1]}
+     */
+    private final int[] termOffsets;
+    /**
+     * {term rank -> packed (document, tf)}, every rank is a key so rank == key index
+     */
+    private final IntAdjacency postings;
+    /**
+     * document -> protein_id, ascending
+     */
+    private final int[] proteinIds;
+    /**
+     * document -> number of tokens
+     */
+    private final int[] documentLengths;
+    private final float averageLength;
+
+    private AnnotationSearchIndex(Integer speciesId, char[] chars, int[] termOffsets, IntAdjacency postings,
+                                  int[] proteinIds, int[] documentLengths) {
+        this.speciesId = speciesId;
+        this.chars = chars;
+        this.termOffsets = termOffsets;
+        this.postings = postings;
+        this.proteinIds = proteinIds;
+        this.documentLengths = documentLengths;
+        long tokens = 0;
+        for (int length : documentLengths) tokens += length;
+        this.averageLength = documentLengths.length == 0 ? 1f : Math.max(1f, (float) tokens / documentLengths.length);
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    /**
+     * @return number of distinct terms
+     */
+    public int termCount() {
+        return termOffsets.length - 1;
+    }
+
+    /**
+     * @return number of indexed proteins
+     */
+    public int documentCount() {
+        return proteinIds.length;
+    }
+
+    /**
+     * @param term (case-insensitive)
+     * @return number of proteins whose annotation contains the {@code term}
+     */
+    public int documentFrequency(String term) {
+        final String query = ProteinNameIndex.lowerCase(term);
+        final int rank = lowerBound(query, false);
+        if (rank < termCount() && compare(rank, query, false) == 0) return postings.degree(rank);
+        return 0;
+    }
+
+    /**
+     * @param query free text, ie "homoserine kin"
+     * @param k     max number of hits
+     * @return best hits first, empty if the query has no tokens or some token matches nothing
+     */
+    public Hits search(String query, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k: " + k);
+        }
+        final List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || k == 0) return Hits.EMPTY;
+        //term rank range of each token: exact match, the last one as a prefix
+        final int[] from = new int[tokens.size()];
+        final int[] to = new int[tokens.size()];
+        for (int t = 0; t < tokens.size(); t++) {
+            final boolean prefix = t == tokens.size() - 1;
+            from[t] = lowerBound(tokens.get(t), false);
+            to[t] = prefix ? lowerBound(tokens.get(t), true)
+                    : (from[t] < termCount() && compare(from[t], tokens.get(t), false) == 0 ? from[t] + 1 : from[t]);
+            if (from[t] == to[t]) return Hits.EMPTY;
+        }
+        //documents matching the first t tokens have matched[d] == t
+        final int[] matched = new int[proteinIds.length];
+        final float[] scores = new float[proteinIds.length];
+        for (int t = 0; t < tokens.size(); t++) {
+            for (int rank = from[t]; rank < to[t]; rank++) {
+                final float idf = idf(postings.degree(rank));
+                for (int p = postings.start(rank); p < postings.end(rank); p++) {
+                    final int posting = postings.member(p);
+                    final int d = posting >>> TF_BITS;
+                    if (matched[d] == t) {
+                        matched[d] = t + 1;
+                    } else if (matched[d] != t + 1) {
+                        continue;
+                    }
+                    //also a document already matched by another expansion of the same (prefix) token
+                    scores[d] += idf * termScore(posting & MAX_TF, documentLengths[d]);
+                }
+            }
+        }
+        final Heap heap = new Heap(Math.min(k, proteinIds.length));
+        for (int d = 0; d < proteinIds.length; d++) {
+            if (matched[d] == tokens.size()) heap.offer(scores[d], proteinIds[d]);
+        }
+        return heap.drain();
+    }
+
+    /**
+     * @param prefix (case-insensitive)
+     * @param limit  max number of terms to return
+     * @return terms starting with {@code prefix}, most frequent first
+     */
+    public List<String> completions(String prefix, int limit) {
+        final String query = ProteinNameIndex.lowerCase(prefix);
+        final int from = lowerBound(query, false);
+        final int to = lowerBound(query, true);
+        final Heap heap = new Heap(Math.max(0, Math.min(limit, to - from)));
+        for (int rank = from; rank < to; rank++) {
+            //tie-break in alphabetical order, the heap prefers lower "ids"
+            heap.offer(postings.degree(rank), rank);
+        }
+        final Hits best = heap.drain();
+        final List<String> terms = new ArrayList<>(best.size());
+        for (int i = 0; i < best.size(); i++) {
+            final int rank = best.proteinId(i);
+            terms.add(new String(chars, termOffsets[rank], termOffsets[rank + 1] - termOffsets[rank]));
+        }
+        return terms;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (proteinIds.length - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private float termScore(int tf, int documentLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * documentLength / averageLength));
+    }
+
+    /**
+     * @param afterPrefix if true, skip all terms starting with {@code query} as well
+     * @return first rank whose term isn't ordered before {@code query}
+     */
+    private int lowerBound(CharSequence query, boolean afterPrefix) {
+        int lo = 0;
+        int hi = termCount();
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int cmp = compare(mid, query, afterPrefix);
+            if (cmp < 0 || (afterPrefix && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param query    already lower-cased
+     * @param asPrefix if true, a term starting with {@code query} compares as equal
+     */
+    private int compare(int rank, CharSequence query, boolean asPrefix) {
+        final int from = termOffsets[rank];
+        final int length = termOffsets[rank + 1] - from;
+        final int n = Math.min(length, query.length());
+        for (int i = 0; i < n; i++) {
+            final char c = chars[from + i];
+            final char q = query.charAt(i);
+            if (c != q) return c - q;
+        }
+        if (asPrefix && length >= query.length()) return 0;
+        return length - query.length();
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        return 2L * chars.length + 4L * (termOffsets.length + proteinIds.length + documentLengths.length)
+                + postings.memoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotationSearchIndex{" +
+                "speciesId=" + speciesId +
+                ", proteins=" + proteinIds.length +
+                ", terms=" + termCount() +
+                ", postings=" + postings.memberCount() +
+                '}';
+    }
+
+    /**
+     * @return lower-cased runs of letters and digits, in order (with duplicates)
+     */
+    static List<String> tokenize(String text) {
+        final List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                tokens.add(ProteinNameIndex.lowerCase(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static Builder builder(Integer speciesId) {
+        return new Builder(speciesId);
+    }
+
+    /**
+     * Ranked hits of one query.
+     */
+    public static final class Hits {
+        static final Hits EMPTY = new Hits(new int[0], new float[0]);
+
+        private final int[] proteinIds;
+        private final float[] scores;
+
+        Hits(int[] proteinIds, float[] scores) {
+            this.proteinIds = proteinIds;
+            this.scores = scores;
+        }
+
+        public int size() {
+            return proteinIds.length;
+        }
+
+        /**
+         * @param rank 0 for the best hit
+         */
+        public int proteinId(int rank) {
+            return proteinIds[rank];
+        }
+
+        public float score(int rank) {
+            return scores[rank];
+        }
+
+        public int[] getProteinIds() {
+            return proteinIds.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Hits{" +
+                    "proteinIds=" + Arrays.toString(proteinIds) +
+                    '}';
+        }
+    }
+
+    /**
+     * Min-heap of the {@code capacity} best (score, id) pairs packed into longs:
+     * non-negative float bits order like the floats, ties prefer the lower id.
+     */
+    private static final class Heap {
+        private final long[] entries;
+        private int size;
+
+        Heap(int capacity) {
+            entries = new long[capacity];
+        }
+
+        void offer(float score, int id) {
+            final long entry = ((long) Float.floatToIntBits(score) << 32) | (Integer.MAX_VALUE - id);
+            if (size < entries.length) {
+                int i = size++;
+                while (i > 0 && entries[(i - 1) >>> 1] > entry) {
+                    entries[i] = entries[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                entries[i] = entry;
+            } else if (size > 0 && entry > entries[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && entries[child + 1] < entries[child]) child++;
+                    if (entries[child] >= entry) break;
+                    entries[i] = entries[child];
+                    i = child;
+                }
+                entries[i] = entry;
+            }
+        }
+
+        Hits drain() {
+            final long[] sorted = Arrays.copyOf(entries, size);
+            Arrays.sort(sorted);
+            final int[] ids = new int[size];
+            final float[] scores = new float[size];
+            for (int i = 0; i < size; i++) {
+                final long entry = sorted[size - 1 - i];
+                scores[i] = Float.intBitsToFloat((int) (entry >>> 32));
+                ids[i] = Integer.MAX_VALUE - (int) entry;
+            }
+            return new Hits(ids, scores);
+        }
+    }
+
+    /**
+     * Accepts (protein_id, text) pairs in any order, a protein can be added more than once
+     * (ie annotation and preferred name), all its text is then indexed as one document.
+     * <p/>
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Integer speciesId;
+        private final Map<String, Integer> terms = new HashMap<>();
+        /**
+         * (protein_id << 32 | term index) for every token
+         */
+        private long[] tokens = new long[4096];
+        private int size;
+
+        Builder(Integer speciesId) {
+            this.speciesId = speciesId;
+        }
+
+        public Builder add(int proteinId, String text) {
+            for (String token : tokenize(text)) {
+                Integer index = terms.get(token);
+                if (index == null) {
+                    index = terms.size();
+                    terms.put(token, index);
+                }
+                if (size == tokens.length) {
+                    tokens = Arrays.copyOf(tokens, size + (size >> 1));
+                }
+                tokens[size++] = ((long) proteinId << 32) | index;
+            }
+            return this;
+        }
+
+        public AnnotationSearchIndex build() {
+            final String[] sorted = terms.keySet().toArray(new String[terms.size()]);
+            Arrays.sort(sorted);
+            final int[] rankOf = new int[sorted.length];
+            final int[] termOffsets = new int[sorted.length + 1];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                rankOf[terms.get(sorted[rank])] = rank;
+                termOffsets[rank + 1] = termOffsets[rank] + sorted[rank].length();
+            }
+            final char[] chars = new char[termOffsets[sorted.length]];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                sorted[rank].getChars(0, sorted[rank].length(), chars, termOffsets[rank]);
+            }
+            //grouped by protein, then term: runs of equal entries are the term frequencies
+            Arrays.sort(tokens, 0, size);
+            int documents = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || (tokens[i] >>> 32) != (tokens[i - 1] >>> 32)) documents++;
+            }
+            final int[] proteinIds = new int[documents];
+            final int[] lengths = new int[documents];
+            final IntAdjacency.Builder postings = new IntAdjacency.Builder(size);
+            int d = -1;
+            for (int i = 0; i < size; ) {
+                final int proteinId = (int) (tokens[i] >>> 32);
+                if (d < 0 || proteinIds[d] != proteinId) {
+                    proteinIds[++d] = proteinId;
+                }
+                int j = i + 1;
+                while (j < size && tokens[j] == tokens[i]) j++;
+                lengths[d] += j - i;
+                postings.add(rankOf[(int) tokens[i]], (d << TF_BITS) | Math.min(j - i, MAX_TF));
+                i = j;
+            }
+            return new AnnotationSearchIndex(speciesId, chars, termOffsets, postings.build(), proteinIds, lengths);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Annotation categories of one species, each with its proteins as an {@link IntBitmap}, ie
+ * functional categories (funccat_id -> proteins) or MeSH terms (mesh_id -> proteins).
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class AnnotationSets {
+    private final Integer speciesId;
+    /**
+     * sorted
+     */
+    private final String[] ids;
+    private final IntBitmap[] proteins;
+
+    /**
+     * @param speciesId
+     * @param sets      {category id -> proteins}
+     */
+    public AnnotationSets(Integer speciesId, Map<String, IntBitmap> sets) {
+        this.speciesId = speciesId;
+        this.ids = sets.keySet().toArray(new String[sets.size()]);
+        Arrays.sort(ids);
+        this.proteins = new IntBitmap[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            proteins[i] = sets.get(ids[i]);
+        }
+    }
+
+    private AnnotationSets(Integer speciesId, String[] ids, IntBitmap[] proteins) {
+        this.speciesId = speciesId;
+        this.ids = ids;
+        this.proteins = proteins;
+    }
+
+    /**
+     * @return MeSH terms as categories, with the mesh_id as category id
+     */
+    public static AnnotationSets of(MeshTermIndex index) {
+        final int[] meshIds = index.getMeshIds();
+        final String[] ids = new String[meshIds.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.valueOf(meshIds[i]);
+        }
+        //sort as strings, keep proteins aligned
+        final Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return ids[a].compareTo(ids[b]);
+            }
+        });
+        final String[] sortedIds = new String[ids.length];
+        final IntBitmap[] proteins = new IntBitmap[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = ids[order[i]];
+            proteins[i] = index.proteins(meshIds[order[i]]);
+        }
+        return new AnnotationSets(index.getSpeciesId(), sortedIds, proteins);
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    /**
+     * @return number of categories
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    public String id(int index) {
+        return ids[index];
+    }
+
+    public IntBitmap proteins(int index) {
+        return proteins[index];
+    }
+
+    /**
+     * @return index of the category, negative if there's no such category
+     */
+    public int indexOf(String id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * @return proteins of the category, empty if there's no such category
+     */
+    public IntBitmap proteins(String id) {
+        final int index = indexOf(id);
+        return index < 0 ? IntBitmap.empty() : proteins[index];
+    }
+
+    /**
+     * @return proteins annotated with at least one category
+     */
+    public IntBitmap annotatedProteins() {
+        return IntBitmap.or(Arrays.asList(proteins));
+    }
+
+    @Override
+    public String toString() {
+        return "AnnotationSets{" +
+                "speciesId=" + speciesId +
+                ", categories=" + ids.length +
+                '}';
+    }
+}
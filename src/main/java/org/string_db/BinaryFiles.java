@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Plumbing shared by the binary file formats ({@link NetworkFile}, {@link SequenceIndexFile},
+ * {@link ExternalIdIndexFile}). Every format starts with a big-endian {@code int magic, int version}.
+ * <p/>
+ * {@link #write} writes to {@code <file>.tmp} and renames it over {@code file} once the body is
+ * complete, so readers never see a partial file; a failed write deletes the temporary file.
+ * Readers check the magic and the version with {@link #header} and, once the header tells the
+ * section sizes, the exact file size with {@link #checkSize}.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+final class BinaryFiles {
+    /**
+     * upper bound of the header sizes, headers are mapped in one go
+     */
+    private static final int MAX_HEADER_BYTES = 1024;
+
+    private BinaryFiles() {
+    }
+
+    /**
+     * Writes everything after the magic and the version.
+     */
+    interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * @param file replaced if it exists
+     */
+    static void write(File file, int magic, int version, Body body) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        boolean written = false;
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                body.write(out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+        } finally {
+            if (!written) Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    /**
+     * @param kind     of the file, for error messages, ie "a network"
+     * @param minBytes size of the fixed part of the header, including the magic and the version
+     * @return the header, positioned after the version
+     * @throws IOException if the file is too short, or has another magic or version
+     */
+    static ByteBuffer header(FileChannel channel, File file, String kind, int magic, int version, int minBytes) throws IOException {
+        if (channel.size() < minBytes) {
+            throw new IOException("not " + kind + " file: " + file);
+        }
+        final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), MAX_HEADER_BYTES));
+        if (header.getInt() != magic) {
+            throw new IOException("not " + kind + " file: " + file);
+        }
+        final int actual = header.getInt();
+        if (actual != version) {
+            throw new IOException("unsupported version " + actual + " of " + kind + " file: " + file);
+        }
+        return header;
+    }
+
+    /**
+     * @throws IOException unless the file is exactly {@code expected} bytes long
+     */
+    static void checkSize(FileChannel channel, File file, String kind, long expected) throws IOException {
+        if (expected != channel.size()) {
+            throw new IOException("corrupt " + kind + " file, expected " + expected + " bytes, got " + channel.size() + ": " + file);
+        }
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) out.writeInt(value);
+    }
+
+    /**
+     * Copies the next {@code count} ints to the heap and advances the buffer past them.
+     */
+    static int[] readInts(ByteBuffer buffer, int count) {
+        final int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        //through Buffer: built on JDK 9+, ByteBuffer.position(int) would link to a method Java 7/8 don't have
+        ((Buffer) buffer).position(buffer.position() + 4 * count);
+        return values;
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+
+/**
+ * {@link NetworkGraph} with compressed neighbour lists, for keeping several large species in memory.
+ * <p/>
+ * The links of every node are encoded into one {@code byte[]}, back to back, each link as:
+ * <pre>
+ * varint  neighbour index: absolute for the first link of a node, gap to the previous neighbour after that
+ * byte    combined score code
+ * varint  mask of the channels with evidence (bit i = i-th channel of the graph)
+ * byte[]  score code of every channel in the mask
+ * </pre>
+ * Score codes are lossless: the 255 most frequent values of a channel (and of the combined score) get
+ * one-byte codes through a per-channel codebook, code {@code 0xFF} is followed by the raw value in two bytes.
+ * Links typically take 6-8 bytes instead of 6 + 2 per channel in {@link CsrNetworkGraph}.
+ * <p/>
+ * Nodes are decoded sequentially by the {@link Cursor}, which only touches its own fields, so iteration
+ * doesn't allocate. There is no random access to a single link; use {@link CsrNetworkGraph} for algorithms
+ * that need it.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class CompressedNetworkGraph implements NetworkGraph {
+    static final int ESCAPE = 0xFF;
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+
+    private final Integer speciesId;
+    private final int[] proteinIds;
+    /**
+     * number of links before node {@code n}
+     */
+    private final int[] edgeOffsets;
+    /**
+     * position of the first link of node {@code n} in {@link #data}
+     */
+    private final int[] byteOffsets;
+    private final byte[] data;
+    /**
+     * graph channel index -> EvidenceType ordinal
+     */
+    private final int[] channelOrdinals;
+    /**
+     * code -> score, [0] for combined scores, [c + 1] for graph channel c
+     */
+    private final short[][] codebooks;
+    /**
+     * indexed by ordinal, true if the graph has the channel
+     */
+    private final boolean[] hasChannel;
+
+    private CompressedNetworkGraph(Integer speciesId, int[] proteinIds, int[] edgeOffsets, int[] byteOffsets, byte[] data,
+                                   int[] channelOrdinals, short[][] codebooks) {
+        this.speciesId = speciesId;
+        this.proteinIds = proteinIds;
+        this.edgeOffsets = edgeOffsets;
+        this.byteOffsets = byteOffsets;
+        this.data = data;
+        this.channelOrdinals = channelOrdinals;
+        this.codebooks = codebooks;
+        this.hasChannel = new boolean[TYPES.length];
+        for (int ordinal : channelOrdinals) {
+            hasChannel[ordinal] = true;
+        }
+    }
+
+    @Override
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    @Override
+    public int nodeCount() {
+        return proteinIds.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeOffsets[proteinIds.length];
+    }
+
+    @Override
+    public int proteinId(int node) {
+        return proteinIds[node];
+    }
+
+    @Override
+    public int nodeOf(int proteinId) {
+        final int node = Arrays.binarySearch(proteinIds, proteinId);
+        return node < 0 ? -1 : node;
+    }
+
+    @Override
+    public int degree(int node) {
+        return edgeOffsets[node + 1] - edgeOffsets[node];
+    }
+
+    @Override
+    public boolean hasChannel(EvidenceType type) {
+        return hasChannel[type.ordinal()];
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new CompressedCursor();
+    }
+
+    @Override
+    public int[] neighbours(int node, int minCombinedScore) {
+        final int[] result = new int[degree(node)];
+        int count = 0;
+        final Cursor cursor = cursor().reset(node, minCombinedScore);
+        while (cursor.next()) {
+            result[count++] = cursor.node();
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 4L * (proteinIds.length + edgeOffsets.length + byteOffsets.length) + data.length;
+        for (short[] codebook : codebooks) {
+            bytes += 2L * codebook.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedNetworkGraph{" +
+                "speciesId=" + speciesId +
+                ", nodes=" + proteinIds.length +
+                ", edges=" + edgeCount() +
+                ", bytes=" + data.length +
+                '}';
+    }
+
+    private final class CompressedCursor implements Cursor {
+        /**
+         * indexed by ordinal
+         */
+        private final short[] scores = new short[TYPES.length];
+        private int position;
+        private int remaining;
+        private int min;
+        private int node;
+        private int combined;
+        /**
+         * graph channels of the current link
+         */
+        private int channels;
+
+        @Override
+        public Cursor reset(int node, int minCombinedScore) {
+            position = byteOffsets[node];
+            remaining = degree(node);
+            min = minCombinedScore;
+            this.node = 0;
+            clearScores();
+            return this;
+        }
+
+        @Override
+        public boolean next() {
+            while (remaining > 0) {
+                remaining--;
+                node += readVarint();
+                combined = readScore(codebooks[0]);
+                clearScores();
+                channels = readVarint();
+                for (int bits = channels; bits != 0; bits &= bits - 1) {
+                    final int c = Integer.numberOfTrailingZeros(bits);
+                    scores[channelOrdinals[c]] = (short) readScore(codebooks[c + 1]);
+                }
+                if (combined >= min) return true;
+            }
+            return false;
+        }
+
+        private void clearScores() {
+            for (int bits = channels; bits != 0; bits &= bits - 1) {
+                scores[channelOrdinals[Integer.numberOfTrailingZeros(bits)]] = 0;
+            }
+            channels = 0;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private int readScore(short[] codebook) {
+            final int code = data[position++] & 0xFF;
+            if (code != ESCAPE) return codebook[code];
+            final int score = ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+            position += 2;
+            return score;
+        }
+
+        @Override
+        public int node() {
+            return node;
+        }
+
+        @Override
+        public int combinedScore() {
+            return combined;
+        }
+
+        @Override
+        public int score(EvidenceType type) {
+            return scores[type.ordinal()];
+        }
+    }
+
+    /**
+     * @return compressed copy of the {@code graph}
+     */
+    public static CompressedNetworkGraph encode(CsrNetworkGraph graph) {
+        final int nodes = graph.nodeCount();
+        final int edges = (int) graph.edgeCount();
+        int channelCount = 0;
+        final int[] ordinals = new int[TYPES.length];
+        for (EvidenceType type : TYPES) {
+            if (graph.hasChannel(type)) ordinals[channelCount++] = type.ordinal();
+        }
+        final int[] channelOrdinals = Arrays.copyOf(ordinals, channelCount);
+
+        //codebooks from value frequencies; [0] is the combined score
+        final int[][] frequencies = new int[channelCount + 1][1001];
+        for (int e = 0; e < edges; e++) {
+            frequencies[0][graph.combinedScore(e)]++;
+            for (int c = 0; c < channelCount; c++) {
+                final int score = graph.score(e, TYPES[channelOrdinals[c]]);
+                if (score > 0) frequencies[c + 1][score]++;
+            }
+        }
+        final short[][] codebooks = new short[channelCount + 1][];
+        final int[][] codes = new int[channelCount + 1][];
+        for (int c = 0; c <= channelCount; c++) {
+            codebooks[c] = codebook(frequencies[c]);
+            codes[c] = new int[1001];
+            Arrays.fill(codes[c], ESCAPE);
+            for (int code = 0; code < codebooks[c].length; code++) {
+                codes[c][codebooks[c][code]] = code;
+            }
+        }
+
+        final Output out = new Output(Math.max(16, edges * 6));
+        final int[] edgeOffsets = new int[nodes + 1];
+        final int[] byteOffsets = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            byteOffsets[n] = out.size;
+            edgeOffsets[n + 1] = graph.edgeEnd(n);
+            int previous = 0;
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                out.writeVarint(graph.target(e) - previous);
+                previous = graph.target(e);
+                out.writeScore(codes[0], graph.combinedScore(e));
+                int mask = 0;
+                for (int c = 0; c < channelCount; c++) {
+                    if (graph.score(e, TYPES[channelOrdinals[c]]) > 0) mask |= 1 << c;
+                }
+                out.writeVarint(mask);
+                for (int bits = mask; bits != 0; bits &= bits - 1) {
+                    final int c = Integer.numberOfTrailingZeros(bits);
+                    out.writeScore(codes[c + 1], graph.score(e, TYPES[channelOrdinals[c]]));
+                }
+            }
+        }
+        byteOffsets[nodes] = out.size;
+        final int[] proteinIds = new int[nodes];
+        for (int n = 0; n < nodes; n++) {
+            proteinIds[n] = graph.proteinId(n);
+        }
+        return new CompressedNetworkGraph(graph.getSpeciesId(), proteinIds, edgeOffsets, byteOffsets,
+                Arrays.copyOf(out.bytes, out.size), channelOrdinals, codebooks);
+    }
+
+    /**
+     * @return up to 255 most frequent scores, most frequent first
+     */
+    private static short[] codebook(int[] frequencies) {
+        final long[] ranked = new long[frequencies.length];
+        int n = 0;
+        for (int score = 0; score < frequencies.length; score++) {
+            if (frequencies[score] > 0) ranked[n++] = ((long) frequencies[score] << 32) | score;
+        }
+        Arrays.sort(ranked, 0, n);
+        final short[] codebook = new short[Math.min(n, ESCAPE)];
+        for (int code = 0; code < codebook.length; code++) {
+            codebook[code] = (short) ranked[n - 1 - code];
+        }
+        return codebook;
+    }
+
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(size + extra, size + (size >> 1)));
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeScore(int[] codes, int score) {
+            ensure(3);
+            final int code = codes[score];
+            bytes[size++] = (byte) code;
+            if (code == ESCAPE) {
+                bytes[size++] = (byte) (score >>> 8);
+                bytes[size++] = (byte) score;
+            }
+        }
+    }
+}
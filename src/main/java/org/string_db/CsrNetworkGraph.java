@@ -0,0 +1,408 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * {@link NetworkGraph} stored as CSR (compressed sparse row) arrays: the neighbours of node {@code n}
+ * are {@code neighbours[offsets[n] .. offsets[n + 1] - 1]}, sorted, and every score channel is a
+ * {@code short[]} parallel to {@code neighbours} (missing if no link has evidence in the channel).
+ * <p/>
+ * Besides the {@link NetworkGraph.Cursor} API, links can be addressed directly by their position
+ * ({@link #edgeStart(int)} .. {@link #edgeEnd(int)}), which is what the algorithms specific to this
+ * layout use.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class CsrNetworkGraph implements NetworkGraph {
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+    static final int CHANNELS = TYPES.length;
+
+    private final Integer speciesId;
+    /**
+     * node -> protein_id, sorted
+     */
+    private final int[] proteinIds;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final short[] combinedScores;
+    /**
+     * indexed by {@link EvidenceType#ordinal()}, null for channels without any evidence
+     */
+    private final short[][] channelScores;
+
+    CsrNetworkGraph(Integer speciesId, int[] proteinIds, int[] offsets, int[] neighbours, short[] combinedScores,
+                    short[][] channelScores) {
+        this.speciesId = speciesId;
+        this.proteinIds = proteinIds;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.combinedScores = combinedScores;
+        this.channelScores = channelScores;
+    }
+
+    @Override
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    @Override
+    public int nodeCount() {
+        return proteinIds.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return neighbours.length;
+    }
+
+    @Override
+    public int proteinId(int node) {
+        return proteinIds[node];
+    }
+
+    @Override
+    public int nodeOf(int proteinId) {
+        final int node = Arrays.binarySearch(proteinIds, proteinId);
+        return node < 0 ? -1 : node;
+    }
+
+    @Override
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    @Override
+    public boolean hasChannel(EvidenceType type) {
+        return channelScores[type.ordinal()] != null;
+    }
+
+    /**
+     * @return position of the first link of the node
+     */
+    public int edgeStart(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * @return position after the last link of the node
+     */
+    public int edgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * @return neighbour node of the link at {@code edge}
+     */
+    public int target(int edge) {
+        return neighbours[edge];
+    }
+
+    public int combinedScore(int edge) {
+        return combinedScores[edge];
+    }
+
+    /**
+     * @return score of the link in this channel, 0 if none
+     */
+    public int score(int edge, EvidenceType type) {
+        final short[] scores = channelScores[type.ordinal()];
+        return scores == null ? 0 : scores[edge];
+    }
+
+    /**
+     * @return position of the link from {@code node} to {@code neighbour} or -1 if they aren't linked
+     */
+    public int findEdge(int node, int neighbour) {
+        final int edge = Arrays.binarySearch(neighbours, offsets[node], offsets[node + 1], neighbour);
+        return edge < 0 ? -1 : edge;
+    }
+
+    /**
+     * Subgraph induced by {@code nodes}: the nodes and all the links between them with a combined score
+     * of at least {@code minCombinedScore}, with all their channel scores. Nodes left without any
+     * such link are dropped.
+     *
+     * @param nodes            node indices of this graph
+     * @param minCombinedScore
+     * @return a new graph, node indices aren't preserved (use {@link #proteinId(int)})
+     */
+    public CsrNetworkGraph induce(BitSet nodes, int minCombinedScore) {
+        final int[] selected = new int[nodes.cardinality()];
+        int k = 0;
+        for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+            selected[k++] = node;
+        }
+        //links kept, per selected node; only nodes with links make it into the subgraph
+        final int[] kept = new int[selected.length];
+        int linkCount = 0;
+        int nodeCount = 0;
+        for (int i = 0; i < selected.length; i++) {
+            for (int e = offsets[selected[i]]; e < offsets[selected[i] + 1]; e++) {
+                if (combinedScores[e] >= minCombinedScore && nodes.get(neighbours[e])) kept[i]++;
+            }
+            linkCount += kept[i];
+            if (kept[i] > 0) nodeCount++;
+        }
+        final int[] subProteinIds = new int[nodeCount];
+        final int[] subOffsets = new int[nodeCount + 1];
+        final int[] subNeighbours = new int[linkCount];
+        final short[] subCombined = new short[linkCount];
+        final short[][] subChannels = new short[CHANNELS][];
+        for (int c = 0; c < CHANNELS; c++) {
+            if (channelScores[c] != null) subChannels[c] = new short[linkCount];
+        }
+        //node -> subgraph node, monotonic so the neighbours stay sorted
+        final int[] connected = new int[nodeCount];
+        for (int i = 0, n = 0; i < selected.length; i++) {
+            if (kept[i] > 0) {
+                connected[n] = selected[i];
+                subProteinIds[n++] = proteinIds[selected[i]];
+            }
+        }
+        int l = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = offsets[connected[n]]; e < offsets[connected[n] + 1]; e++) {
+                if (combinedScores[e] < minCombinedScore || !nodes.get(neighbours[e])) continue;
+                subNeighbours[l] = Arrays.binarySearch(connected, neighbours[e]);
+                subCombined[l] = combinedScores[e];
+                for (int c = 0; c < CHANNELS; c++) {
+                    if (subChannels[c] != null) subChannels[c][l] = channelScores[c][e];
+                }
+                l++;
+            }
+            subOffsets[n + 1] = l;
+        }
+        return new CsrNetworkGraph(speciesId, subProteinIds, subOffsets, subNeighbours, subCombined, subChannels);
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new CsrCursor();
+    }
+
+    @Override
+    public int[] neighbours(int node, int minCombinedScore) {
+        int count = 0;
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            if (combinedScores[e] >= minCombinedScore) count++;
+        }
+        final int[] result = new int[count];
+        count = 0;
+        for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+            if (combinedScores[e] >= minCombinedScore) result[count++] = neighbours[e];
+        }
+        return result;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 4L * (proteinIds.length + offsets.length + neighbours.length) + 2L * combinedScores.length;
+        for (short[] scores : channelScores) {
+            if (scores != null) bytes += 2L * scores.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "CsrNetworkGraph{" +
+                "speciesId=" + speciesId +
+                ", nodes=" + proteinIds.length +
+                ", edges=" + neighbours.length +
+                '}';
+    }
+
+    private final class CsrCursor implements Cursor {
+        private int edge;
+        private int end;
+        private int min;
+
+        @Override
+        public Cursor reset(int node, int minCombinedScore) {
+            edge = offsets[node] - 1;
+            end = offsets[node + 1];
+            min = minCombinedScore;
+            return this;
+        }
+
+        @Override
+        public boolean next() {
+            while (++edge < end) {
+                if (combinedScores[edge] >= min) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int node() {
+            return neighbours[edge];
+        }
+
+        @Override
+        public int combinedScore() {
+            return combinedScores[edge];
+        }
+
+        @Override
+        public int score(EvidenceType type) {
+            return CsrNetworkGraph.this.score(edge, type);
+        }
+    }
+
+    public static Builder builder(Integer speciesId) {
+        return new Builder(speciesId);
+    }
+
+    /**
+     * Collects links in any order; the channel arrays are only allocated once a link with
+     * evidence in the channel is added.
+     * <p/>
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Integer speciesId;
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private short[] combined = new short[1024];
+        private final short[][] channels = new short[CHANNELS][];
+        private int size;
+
+        Builder(Integer speciesId) {
+            this.speciesId = speciesId;
+        }
+
+        /**
+         * add a (directed) link, its channel scores are set with {@link #score(EvidenceType, int)}
+         */
+        public Builder add(int proteinA, int proteinB, int combinedScore) {
+            checkScore(combinedScore);
+            if (size == sources.length) {
+                final int capacity = size + (size >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                combined = Arrays.copyOf(combined, capacity);
+                for (int c = 0; c < CHANNELS; c++) {
+                    if (channels[c] != null) channels[c] = Arrays.copyOf(channels[c], capacity);
+                }
+            }
+            sources[size] = proteinA;
+            targets[size] = proteinB;
+            combined[size] = (short) combinedScore;
+            size++;
+            return this;
+        }
+
+        /**
+         * add a (directed) link with all the channel scores of {@code scores}
+         */
+        public Builder add(StringDbScores scores, int combinedScore) {
+            add(scores.getProteinA(), scores.getProteinB(), combinedScore);
+            for (EvidenceType type : EvidenceType.values()) {
+                final Integer score = scores.get(type);
+                if (score != null) score(type, score);
+            }
+            return this;
+        }
+
+        /**
+         * add a (directed) link with all the channel scores of {@code scores}
+         */
+        public Builder add(int proteinA, int proteinB, int combinedScore, PackedScores scores) {
+            add(proteinA, proteinB, combinedScore);
+            for (int bits = scores.getPresenceMask(); bits != 0; bits &= bits - 1) {
+                final EvidenceType type = TYPES[Integer.numberOfTrailingZeros(bits)];
+                score(type, scores.get(type));
+            }
+            return this;
+        }
+
+        /**
+         * set the score of the last added link
+         */
+        public Builder score(EvidenceType type, int score) {
+            checkScore(score);
+            if (size == 0) {
+                throw new IllegalStateException("no link added yet");
+            }
+            if (score == 0) return this;
+            final int c = type.ordinal();
+            if (channels[c] == null) channels[c] = new short[sources.length];
+            channels[c][size - 1] = (short) score;
+            return this;
+        }
+
+        private static void checkScore(int score) {
+            if (score < 0 || score > 1000) {
+                throw new IllegalArgumentException("invalid score value: " + score);
+            }
+        }
+
+        public CsrNetworkGraph build() {
+            final int[] ids = new int[2 * size];
+            System.arraycopy(sources, 0, ids, 0, size);
+            System.arraycopy(targets, 0, ids, size, size);
+            Arrays.sort(ids);
+            int n = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (n == 0 || ids[i] != ids[n - 1]) ids[n++] = ids[i];
+            }
+            final int[] proteinIds = Arrays.copyOf(ids, n);
+
+            final int[] offsets = new int[n + 1];
+            final int[] sourceNodes = new int[size];
+            for (int e = 0; e < size; e++) {
+                sourceNodes[e] = Arrays.binarySearch(proteinIds, sources[e]);
+                offsets[sourceNodes[e] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            //bucket by source node, then sort each bucket by target node
+            final int[] fill = Arrays.copyOf(offsets, n);
+            final long[] order = new long[size];
+            for (int e = 0; e < size; e++) {
+                final long target = Arrays.binarySearch(proteinIds, targets[e]);
+                order[fill[sourceNodes[e]]++] = (target << 32) | e;
+            }
+            for (int i = 0; i < n; i++) {
+                Arrays.sort(order, offsets[i], offsets[i + 1]);
+            }
+            final int[] neighbours = new int[size];
+            final short[] combinedScores = new short[size];
+            final short[][] channelScores = new short[CHANNELS][];
+            for (int c = 0; c < CHANNELS; c++) {
+                if (channels[c] != null) channelScores[c] = new short[size];
+            }
+            for (int i = 0; i < size; i++) {
+                final int e = (int) order[i];
+                neighbours[i] = (int) (order[i] >>> 32);
+                combinedScores[i] = combined[e];
+                for (int c = 0; c < CHANNELS; c++) {
+                    if (channels[c] != null) channelScores[c][i] = channels[c][e];
+                }
+            }
+            return new CsrNetworkGraph(speciesId, proteinIds, offsets, neighbours, combinedScores, channelScores);
+        }
+    }
+}
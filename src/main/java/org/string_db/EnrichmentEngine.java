@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Over-representation analysis of a protein set against the {@link AnnotationSets} of its species.
+ * <p/>
+ * For every category with at least one protein of the query set the engine computes the one-sided
+ * hypergeometric p-value {@code P(X >= hits)} of drawing that many category proteins from the background,
+ * then corrects the p-values of all tested categories with Benjamini-Hochberg. Category sizes and
+ * {@code ln(i!)} for {@code i <= background size} are computed once per engine, a query costs one bitmap
+ * intersection count and a short sum per category. Categories are tested in parallel in batches of
+ * {@link #BATCH_SIZE}.
+ * <p/>
+ * The class is immutable => @ThreadSafe, one instance per (species, annotation source) can be shared.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class EnrichmentEngine {
+    static final int BATCH_SIZE = 256;
+
+    private final AnnotationSets sets;
+    private final IntBitmap background;
+    /**
+     * category proteins within the background
+     */
+    private final IntBitmap[] members;
+    /**
+     * {@code logFactorials[i] = ln(i!)}
+     */
+    private final double[] logFactorials;
+
+    /**
+     * Use all annotated proteins as background.
+     */
+    public EnrichmentEngine(AnnotationSets sets) {
+        this(sets, sets.annotatedProteins());
+    }
+
+    /**
+     * @param background ie all proteins of the species, categories are restricted to it
+     */
+    public EnrichmentEngine(AnnotationSets sets, IntBitmap background) {
+        this.sets = sets;
+        this.background = background;
+        this.members = new IntBitmap[sets.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = sets.proteins(i).and(background);
+        }
+        this.logFactorials = new double[background.cardinality() + 1];
+        for (int i = 2; i < logFactorials.length; i++) {
+            logFactorials[i] = logFactorials[i - 1] + Math.log(i);
+        }
+    }
+
+    public AnnotationSets getAnnotationSets() {
+        return sets;
+    }
+
+    public IntBitmap getBackground() {
+        return background;
+    }
+
+    /**
+     * @param query    protein_ids, proteins outside of the background are ignored
+     * @param maxFdr   only categories with an FDR up to this are returned, 1 for all tested ones
+     * @param pool     tests the categories, owned by the caller
+     * @return enriched categories, most significant first
+     */
+    public List<Enrichment> enrich(IntBitmap query, double maxFdr, ForkJoinPool pool) {
+        final IntBitmap drawn = query.and(background);
+        final int[] hits = new int[members.length];
+        final double[] pValues = new double[members.length];
+        final Batch all = new Batch(drawn, hits, pValues, 0, members.length);
+        if (members.length <= BATCH_SIZE) {
+            all.compute();
+        } else {
+            pool.invoke(all);
+        }
+        int tested = 0;
+        for (int hit : hits) {
+            if (hit > 0) tested++;
+        }
+        final Integer[] order = new Integer[tested];
+        int n = 0;
+        for (int i = 0; i < hits.length; i++) {
+            if (hits[i] > 0) order[n++] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                final int byP = Double.compare(pValues[a], pValues[b]);
+                return byP != 0 ? byP : sets.id(a).compareTo(sets.id(b));
+            }
+        });
+        //Benjamini-Hochberg, step-up from the largest p-value
+        final double[] fdr = new double[tested];
+        double min = 1;
+        for (int rank = tested - 1; rank >= 0; rank--) {
+            min = Math.min(min, pValues[order[rank]] * tested / (rank + 1));
+            fdr[rank] = min;
+        }
+        final List<Enrichment> result = new ArrayList<>();
+        final int drawnCount = drawn.cardinality();
+        final int backgroundCount = background.cardinality();
+        for (int rank = 0; rank < tested && fdr[rank] <= maxFdr; rank++) {
+            final int i = order[rank];
+            result.add(new Enrichment(sets.id(i), members[i].cardinality(), hits[i],
+                    (double) drawnCount * members[i].cardinality() / backgroundCount, pValues[i], fdr[rank]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return proteins of the {@code query} annotated with the category
+     */
+    public IntBitmap hits(String categoryId, IntBitmap query) {
+        final int index = sets.indexOf(categoryId);
+        return index < 0 ? IntBitmap.empty() : members[index].and(query);
+    }
+
+    /**
+     * One-sided hypergeometric test.
+     *
+     * @param hits     drawn category proteins
+     * @param category category proteins in the background
+     * @param drawn    size of the query set (within the background)
+     * @return {@code P(X >= hits)}
+     */
+    double pValue(int hits, int category, int drawn) {
+        if (hits <= 0) return 1;
+        final int total = logFactorials.length - 1;
+        final int last = Math.min(category, drawn);
+        final int mode = (int) ((drawn + 1L) * (category + 1L) / (total + 2L));
+        final double logDenominator = logChoose(total, drawn);
+        double p = 0;
+        for (int x = Math.max(hits, drawn - (total - category)); x <= last; x++) {
+            final double term = Math.exp(logChoose(category, x) + logChoose(total - category, drawn - x) - logDenominator);
+            p += term;
+            if (x > mode && term < p * 1e-16) break;
+        }
+        return Math.min(p, 1);
+    }
+
+    private double logChoose(int n, int k) {
+        return logFactorials[n] - logFactorials[k] - logFactorials[n - k];
+    }
+
+    private final class Batch extends RecursiveAction {
+        private final IntBitmap drawn;
+        private final int[] hits;
+        private final double[] pValues;
+        private final int from;
+        private final int to;
+
+        Batch(IntBitmap drawn, int[] hits, double[] pValues, int from, int to) {
+            this.drawn = drawn;
+            this.hits = hits;
+            this.pValues = pValues;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Batch(drawn, hits, pValues, from, mid), new Batch(drawn, hits, pValues, mid, to));
+                return;
+            }
+            final int drawnCount = drawn.cardinality();
+            for (int i = from; i < to; i++) {
+                hits[i] = members[i].andCardinality(drawn);
+                pValues[i] = pValue(hits[i], members[i].cardinality(), drawnCount);
+            }
+        }
+    }
+
+    /**
+     * Result for one category.
+     */
+    public static final class Enrichment {
+        private final String categoryId;
+        private final int categorySize;
+        private final int hits;
+        private final double expected;
+        private final double pValue;
+        private final double fdr;
+
+        Enrichment(String categoryId, int categorySize, int hits, double expected, double pValue, double fdr) {
+            this.categoryId = categoryId;
+            this.categorySize = categorySize;
+            this.hits = hits;
+            this.expected = expected;
+            this.pValue = pValue;
+            this.fdr = fdr;
+        }
+
+        public String getCategoryId() {
+            return categoryId;
+        }
+
+        /**
+         * @return category proteins in the background
+         */
+        public int getCategorySize() {
+            return categorySize;
+        }
+
+        /**
+         * @return query proteins in the category
+         */
+        public int getHits() {
+            return hits;
+        }
+
+        /**
+         * @return hits expected by chance
+         */
+        public double getExpected() {
+            return expected;
+        }
+
+        public double getPValue() {
+            return pValue;
+        }
+
+        /**
+         * @return Benjamini-Hochberg adjusted p-value
+         */
+        public double getFdr() {
+            return fdr;
+        }
+
+        @Override
+        public String toString() {
+            return "Enrichment{" +
+                    "categoryId='" + categoryId + '\'' +
+                    ", categorySize=" + categorySize +
+                    ", hits=" + hits +
+                    ", expected=" + expected +
+                    ", pValue=" + pValue +
+                    ", fdr=" + fdr +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Map;
+
+/**
+ * Decodes the {@code evidence_scores} column of {@code network.node_node_links} ({@code int[][]} of
+ * {@code {score_id, score}} pairs) into a {@link PackedScores}.
+ * <p/>
+ * Score type names from {@code network.score_types_user_friendly} are resolved to {@link EvidenceType}s
+ * once, into a table indexed by score_id. The column can be decoded from the raw bytes the PostgreSQL
+ * driver returns for it ({@code ResultSet.getBytes}), in the text ({@code {{7,53},{9,327}}}) or the binary
+ * array format, without creating any {@code String} or {@code Integer}. Flattened arrays
+ * ({@code {7,53,9,327}}) are accepted as well.
+ * <p/>
+ * Validation is the same as in {@link StringDbScores#StringDbScores(Integer, Integer, Map, Integer[][])}:
+ * unknown score ids and scores out of 0..1000 are rejected with an {@code IllegalArgumentException}.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class EvidenceScoresDecoder {
+    /**
+     * score_id -> type, null for unknown ids
+     */
+    private final EvidenceType[] types;
+    /**
+     * score_id -> type name, only used for error messages of ids with a name that isn't an EvidenceType
+     */
+    private final String[] names;
+    private final Map<Integer, String> scoreTypes;
+
+    /**
+     * @param scoreTypes network.score_types_user_friendly table map
+     */
+    public EvidenceScoresDecoder(Map<Integer, String> scoreTypes) {
+        int maxId = -1;
+        for (Integer id : scoreTypes.keySet()) {
+            if (id < 0) {
+                throw new IllegalArgumentException("negative score id: " + id);
+            }
+            maxId = Math.max(maxId, id);
+        }
+        this.types = new EvidenceType[maxId + 1];
+        this.names = new String[maxId + 1];
+        for (Map.Entry<Integer, String> type : scoreTypes.entrySet()) {
+            names[type.getKey()] = type.getValue();
+            try {
+                types[type.getKey()] = EvidenceType.valueOf(type.getValue().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                //fails only if such a score shows up
+            }
+        }
+        this.scoreTypes = scoreTypes;
+    }
+
+    /**
+     * @return type of the score id
+     * @throws IllegalArgumentException if the id is unknown
+     */
+    public EvidenceType typeOf(int scoreId) {
+        if (scoreId < 0 || scoreId >= types.length || names[scoreId] == null) {
+            throw new IllegalArgumentException("no such score: " + scoreId + ", only allowed: " + scoreTypes);
+        }
+        final EvidenceType type = types[scoreId];
+        if (type == null) {
+            throw new IllegalArgumentException("no evidence type for score: " + scoreId + " (" + names[scoreId] + ")");
+        }
+        return type;
+    }
+
+    /**
+     * @param column raw column value, text or binary PostgreSQL array format, null for no scores
+     * @param into   cleared first
+     * @return {@code into}
+     */
+    public PackedScores decode(byte[] column, PackedScores into) {
+        into.clear();
+        if (column == null || column.length == 0) return into;
+        if (column[0] == '{') {
+            decodeText(column, into);
+        } else {
+            decodeBinary(column, into);
+        }
+        return into;
+    }
+
+    /**
+     * @param column text array, ie {@code {{7,53},{9,327}}}
+     */
+    public PackedScores decode(CharSequence column, PackedScores into) {
+        into.clear();
+        if (column == null) return into;
+        int value = 0;
+        boolean inNumber = false;
+        int scoreId = -1;
+        for (int i = 0; i < column.length(); i++) {
+            final char c = column.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inNumber = true;
+            } else {
+                checkSeparator(c);
+                if (inNumber) {
+                    scoreId = pair(scoreId, value, into);
+                    value = 0;
+                    inNumber = false;
+                }
+            }
+        }
+        if (inNumber) scoreId = pair(scoreId, value, into);
+        checkComplete(scoreId);
+        return into;
+    }
+
+    /**
+     * For drivers that don't expose the raw bytes: {@code Integer[][]} (or flattened {@code Integer[]}) of
+     * {@code java.sql.Array.getArray()}.
+     */
+    public PackedScores decode(Object[] array, PackedScores into) {
+        into.clear();
+        if (array == null) return into;
+        int scoreId = -1;
+        for (Object element : array) {
+            if (element instanceof Object[]) {
+                for (Object value : (Object[]) element) {
+                    scoreId = pair(scoreId, intValue(value), into);
+                }
+            } else {
+                scoreId = pair(scoreId, intValue(element), into);
+            }
+        }
+        checkComplete(scoreId);
+        return into;
+    }
+
+    private void decodeText(byte[] column, PackedScores into) {
+        int value = 0;
+        boolean inNumber = false;
+        int scoreId = -1;
+        for (byte b : column) {
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                inNumber = true;
+            } else {
+                checkSeparator((char) b);
+                if (inNumber) {
+                    scoreId = pair(scoreId, value, into);
+                    value = 0;
+                    inNumber = false;
+                }
+            }
+        }
+        if (inNumber) scoreId = pair(scoreId, value, into);
+        checkComplete(scoreId);
+    }
+
+    /**
+     * PostgreSQL binary array: ndim, has-nulls flag, element oid, (size, lower bound) per dimension,
+     * then (length, big-endian value) per element
+     */
+    private void decodeBinary(byte[] column, PackedScores into) {
+        final int dimensions = readInt(column, 0);
+        if (dimensions == 0) return;
+        int elements = 1;
+        for (int d = 0; d < dimensions; d++) {
+            elements *= readInt(column, 12 + 8 * d);
+        }
+        int position = 12 + 8 * dimensions;
+        int scoreId = -1;
+        for (int e = 0; e < elements; e++) {
+            final int length = readInt(column, position);
+            position += 4;
+            if (length < 0) {
+                throw new IllegalArgumentException("null element in evidence_scores");
+            }
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value = (value << 8) | (column[position + i] & 0xff);
+            }
+            //sign extend 2 and 4 byte values
+            if (length < 8) value = (value << (64 - 8 * length)) >> (64 - 8 * length);
+            position += length;
+            scoreId = pair(scoreId, (int) value, into);
+        }
+        checkComplete(scoreId);
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        if (position + 4 > bytes.length) {
+            throw new IllegalArgumentException("truncated evidence_scores array");
+        }
+        return ((bytes[position] & 0xff) << 24) | ((bytes[position + 1] & 0xff) << 16)
+                | ((bytes[position + 2] & 0xff) << 8) | (bytes[position + 3] & 0xff);
+    }
+
+    /**
+     * @param scoreId -1 if {@code value} is a score_id, the pending score_id otherwise
+     * @return the new pending score_id
+     */
+    private int pair(int scoreId, int value, PackedScores into) {
+        if (scoreId < 0) {
+            typeOf(value);
+            return value;
+        }
+        into.set(types[scoreId], value);
+        return -1;
+    }
+
+    private static void checkSeparator(char c) {
+        if (c == '{' || c == '}' || c == ',' || c == ' ') return;
+        if (c == '-') {
+            throw new IllegalArgumentException("invalid score value: negative");
+        }
+        throw new IllegalArgumentException("unexpected '" + c + "' in evidence_scores");
+    }
+
+    private static void checkComplete(int scoreId) {
+        if (scoreId >= 0) {
+            throw new IllegalArgumentException("incomplete (score_id, score) pair in evidence_scores");
+        }
+    }
+
+    private static int intValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null element in evidence_scores");
+        }
+        return ((Number) value).intValue();
+    }
+}
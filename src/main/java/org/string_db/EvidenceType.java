@@ -18,7 +18,9 @@
 
 package org.string_db;
 
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
@@ -45,20 +47,83 @@ public enum EvidenceType {
      */
     COMBINED_TRANSFERRED;
 
-    final static Set<EvidenceType> TRANSFERRED = new HashSet<EvidenceType>();
+    final static Set<EvidenceType> TRANSFERRED;
+
+    /**
+     * all transferred evidence types, including {@link #COMBINED_TRANSFERRED}
+     */
+    public static final int TRANSFERRED_MASK;
+    /**
+     * channels with evidence from the species itself
+     */
+    public static final int DIRECT_MASK;
+    /**
+     * channels combined into {@link #COMBINED_TRANSFERRED}, see {@link StringDbScores#getTransferredScore()}
+     */
+    public static final int COMBINED_TRANSFERRED_MASK;
+    /**
+     * all channels stored in the {@code evidence_scores} column (everything but {@link #COMBINED_TRANSFERRED})
+     */
+    public static final int CHANNEL_MASK;
 
     static {
+        final EnumSet<EvidenceType> transferred = EnumSet.noneOf(EvidenceType.class);
         for (EvidenceType evidenceType : EvidenceType.values()) {
             if (evidenceType.isTransferred())
-                TRANSFERRED.add(evidenceType);
+                transferred.add(evidenceType);
         }
+        TRANSFERRED = Collections.unmodifiableSet(transferred);
+        TRANSFERRED_MASK = mask(transferred);
+        CHANNEL_MASK = mask(EnumSet.complementOf(EnumSet.of(COMBINED_TRANSFERRED)));
+        DIRECT_MASK = CHANNEL_MASK & ~TRANSFERRED_MASK;
+        COMBINED_TRANSFERRED_MASK = mask(EnumSet.of(COEXPRESSION_TRANSFERRED, DATABASE_TRANSFERRED,
+                EXPERIMENTAL_TRANSFERRED, TEXTMINING_TRANSFERRED));
     }
 
+    private final boolean transferred = name().endsWith("_TRANSFERRED");
+    private final int mask = 1 << ordinal();
+
     /**
      * @return true if {@code this} is a transferred evidence type
      */
     public boolean isTransferred() {
-        return this.name().endsWith("_TRANSFERRED");
+        return transferred;
+    }
+
+    /**
+     * @return single bit identifying this type in a channel mask
+     */
+    public int mask() {
+        return mask;
+    }
+
+    /**
+     * @return true if the channel mask includes {@code this}
+     */
+    public boolean in(int channelMask) {
+        return (channelMask & mask) != 0;
+    }
+
+    /**
+     * @return channel mask with all the {@code types}
+     */
+    public static int mask(Collection<EvidenceType> types) {
+        int mask = 0;
+        for (EvidenceType type : types) {
+            mask |= type.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * @return types in the channel mask
+     */
+    public static EnumSet<EvidenceType> fromMask(int channelMask) {
+        final EnumSet<EvidenceType> types = EnumSet.noneOf(EvidenceType.class);
+        for (EvidenceType type : values()) {
+            if (type.in(channelMask)) types.add(type);
+        }
+        return types;
     }
 
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+
+/**
+ * Immutable {protein_external_id -> protein_id} map built on a minimal perfect hash function.
+ * <p/>
+ * Keys are hashed once (64 bits) and spread over buckets of about {@link #BUCKET_SIZE} keys. Every
+ * bucket gets a pilot, the first value that sends all its keys to free slots of a table with exactly
+ * one slot per key ("hash and displace"). Looking up a key takes one hash, one pilot and one slot;
+ * the pilots cost {@code 4 / BUCKET_SIZE} bytes per key.
+ * <p/>
+ * A perfect hash sends unknown keys to some slot as well, so every slot keeps its key for verification:
+ * the (ASCII) keys are stored one byte per char in one {@code byte[]}, in slot order. The key offset
+ * and protein_id of a slot sit next to each other in one {@code int[]}, so a lookup touches three
+ * arrays: pilots, slots and keys.
+ * <p/>
+ * The class is immutable => @ThreadSafe. See {@link ExternalIdIndexFile} to persist it.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class ExternalIdIndex {
+    /**
+     * average number of keys per bucket
+     */
+    static final int BUCKET_SIZE = 3;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    final long seed;
+    final int[] pilots;
+    final byte[] keys;
+    /**
+     * key of slot {@code s} is {@code keys[slots[2s] .. slots[2s + 2] - 1]},
+     * its protein_id is {@code slots[2s + 1]}; the last element is {@code keys.length}
+     */
+    final int[] slots;
+
+    ExternalIdIndex(long seed, int[] pilots, byte[] keys, int[] slots) {
+        if (slots.length % 2 != 1 || slots[slots.length - 1] != keys.length) {
+            throw new IllegalArgumentException("slots don't match the keys");
+        }
+        if (pilots.length == 0) {
+            throw new IllegalArgumentException("no buckets");
+        }
+        this.seed = seed;
+        this.pilots = pilots;
+        this.keys = keys;
+        this.slots = slots;
+    }
+
+    /**
+     * @return number of external ids
+     */
+    public int size() {
+        return slots.length >> 1;
+    }
+
+    /**
+     * @param externalId ie "9606.ENSP00000269305" (case-sensitive)
+     * @return protein_id, or -1 if the id isn't in the index
+     */
+    public int proteinId(CharSequence externalId) {
+        if (slots.length == 1) return -1;
+        final int length = externalId.length();
+        final long hash = hash(externalId, seed);
+        final int slot = 2 * slot(hash, pilots[bucket(hash, pilots.length)], slots.length >> 1);
+        final int from = slots[slot];
+        if (slots[slot + 2] - from != length) return -1;
+        for (int i = 0; i < length; i++) {
+            if (externalId.charAt(i) != keys[from + i]) return -1;
+        }
+        return slots[slot + 1];
+    }
+
+    /**
+     * @return protein_id, or -1 if the id isn't in the index
+     */
+    public int proteinId(ProteinExternalId externalId) {
+        return proteinId(externalId.toString());
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        return keys.length + 4L * (pilots.length + slots.length);
+    }
+
+    @Override
+    public String toString() {
+        return "ExternalIdIndex{" +
+                "keys=" + size() +
+                ", buckets=" + pilots.length +
+                '}';
+    }
+
+    /**
+     * Chars are packed four at a time into a long and folded in with a multiply (so the chain of
+     * dependent multiplies is a quarter of the length), finished with the MurmurHash3 mixer.
+     */
+    static long hash(CharSequence key, long seed) {
+        final int length = key.length();
+        long h = seed ^ (length * GOLDEN);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            final long word = key.charAt(i) | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32 | (long) key.charAt(i + 3) << 48;
+            h = (h ^ word) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        for (; i < length; i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static int bucket(long hash, int buckets) {
+        return (int) (((hash >>> 32) * buckets) >>> 32);
+    }
+
+    static int slot(long hash, int pilot, int slots) {
+        return (int) (((mix(hash ^ (pilot * GOLDEN)) & 0xffffffffL) * slots) >>> 32);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private String[] externalIds = new String[1024];
+        private int[] proteinIds = new int[1024];
+        private int size;
+
+        Builder() {
+        }
+
+        /**
+         * @param externalId ASCII
+         * @param proteinId
+         */
+        public Builder add(String externalId, int proteinId) {
+            for (int i = 0; i < externalId.length(); i++) {
+                if (externalId.charAt(i) > 127) {
+                    throw new IllegalArgumentException("not an ASCII id: " + externalId);
+                }
+            }
+            if (size == externalIds.length) {
+                externalIds = Arrays.copyOf(externalIds, size + (size >> 1));
+                proteinIds = Arrays.copyOf(proteinIds, size + (size >> 1));
+            }
+            externalIds[size] = externalId;
+            proteinIds[size] = proteinId;
+            size++;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if an external id was added twice
+         */
+        public ExternalIdIndex build() {
+            final int buckets = Math.max(1, (size + BUCKET_SIZE - 1) / BUCKET_SIZE);
+            for (long seed = 0; ; seed++) {
+                final ExternalIdIndex index = tryBuild(seed, buckets);
+                if (index != null) return index;
+            }
+        }
+
+        /**
+         * @return null if two different keys have the same 64-bit hash, another seed will separate them
+         */
+        private ExternalIdIndex tryBuild(long seed, int buckets) {
+            final long[] hashes = new long[size];
+            //keys grouped by bucket (counting sort)
+            final int[] bucketOffsets = new int[buckets + 1];
+            for (int i = 0; i < size; i++) {
+                hashes[i] = hash(externalIds[i], seed);
+                bucketOffsets[bucket(hashes[i], buckets) + 1]++;
+            }
+            int maxBucketSize = 0;
+            for (int b = 0; b < buckets; b++) {
+                maxBucketSize = Math.max(maxBucketSize, bucketOffsets[b + 1]);
+                bucketOffsets[b + 1] += bucketOffsets[b];
+            }
+            final int[] fill = Arrays.copyOf(bucketOffsets, buckets);
+            final int[] keysByBucket = new int[size];
+            for (int i = 0; i < size; i++) {
+                keysByBucket[fill[bucket(hashes[i], buckets)]++] = i;
+            }
+            //largest buckets first, while most slots are still free
+            final int[] sizeOffsets = new int[maxBucketSize + 2];
+            for (int b = 0; b < buckets; b++) {
+                sizeOffsets[maxBucketSize - (bucketOffsets[b + 1] - bucketOffsets[b]) + 1]++;
+            }
+            for (int s = 0; s <= maxBucketSize; s++) {
+                sizeOffsets[s + 1] += sizeOffsets[s];
+            }
+            final int[] order = new int[buckets];
+            for (int b = 0; b < buckets; b++) {
+                order[sizeOffsets[maxBucketSize - (bucketOffsets[b + 1] - bucketOffsets[b])]++] = b;
+            }
+
+            final int[] pilots = new int[buckets];
+            final int[] keyOfSlot = new int[size];
+            Arrays.fill(keyOfSlot, -1);
+            final int[] bucketSlots = new int[maxBucketSize];
+            for (int b : order) {
+                final int from = bucketOffsets[b];
+                final int to = bucketOffsets[b + 1];
+                if (to == from) break;
+                for (int i = from; i < to; i++) {
+                    for (int j = from; j < i; j++) {
+                        if (hashes[keysByBucket[i]] != hashes[keysByBucket[j]]) continue;
+                        final String id = externalIds[keysByBucket[i]];
+                        if (id.equals(externalIds[keysByBucket[j]])) {
+                            throw new IllegalArgumentException("duplicate external id: " + id);
+                        }
+                        return null;
+                    }
+                }
+                int pilot = 0;
+                while (!place(hashes, keysByBucket, from, to, pilot, keyOfSlot, bucketSlots)) pilot++;
+                pilots[b] = pilot;
+            }
+
+            final int[] slots = new int[2 * size + 1];
+            for (int s = 0; s < size; s++) {
+                slots[2 * s + 1] = proteinIds[keyOfSlot[s]];
+                slots[2 * s + 2] = slots[2 * s] + externalIds[keyOfSlot[s]].length();
+            }
+            final byte[] keys = new byte[slots[2 * size]];
+            for (int s = 0; s < size; s++) {
+                final String id = externalIds[keyOfSlot[s]];
+                for (int c = 0; c < id.length(); c++) {
+                    keys[slots[2 * s] + c] = (byte) id.charAt(c);
+                }
+            }
+            return new ExternalIdIndex(seed, pilots, keys, slots);
+        }
+
+        /**
+         * @return true if the {@code pilot} sends all keys of the bucket to distinct free slots, which are then taken
+         */
+        private boolean place(long[] hashes, int[] keysByBucket, int from, int to, int pilot, int[] keyOfSlot, int[] bucketSlots) {
+            for (int i = from; i < to; i++) {
+                final int slot = slot(hashes[keysByBucket[i]], pilot, size);
+                if (keyOfSlot[slot] >= 0) return false;
+                for (int j = 0; j < i - from; j++) {
+                    if (bucketSlots[j] == slot) return false;
+                }
+                bucketSlots[i - from] = slot;
+            }
+            for (int i = from; i < to; i++) {
+                keyOfSlot[bucketSlots[i - from]] = keysByBucket[i];
+            }
+            return true;
+        }
+    }
+}
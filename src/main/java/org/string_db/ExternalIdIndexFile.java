@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary file of an {@link ExternalIdIndex}, reading it back doesn't rebuild the hash function:
+ * <pre>
+ * ExternalIdIndexFile.write(proteinRepository.loadExternalIdIndex(9606), new File("9606.ids"));
+ * ExternalIdIndex index = ExternalIdIndexFile.read(new File("9606.ids"));
+ * </pre>
+ * Layout (big-endian), version 1:
+ * <pre>
+ * int   magic 'STRX', int version
+ * long  seed, int keys (N), int buckets (M), int key bytes (B)
+ * int[M]     pilots
+ * int[2N + 1] slots: (key offset, protein_id) per slot, then the number of key bytes
+ * byte[B]    keys, in slot order
+ * </pre>
+ * The hash function is part of the format, a change to it needs a new version.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class ExternalIdIndexFile {
+    static final int MAGIC = 0x53545258;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+    private static final String KIND = "an external id index";
+
+    private ExternalIdIndexFile() {
+    }
+
+    /**
+     * @param index
+     * @param file  replaced if it exists
+     */
+    public static void write(final ExternalIdIndex index, File file) throws IOException {
+        BinaryFiles.write(file, MAGIC, VERSION, new BinaryFiles.Body() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                out.writeLong(index.seed);
+                out.writeInt(index.size());
+                out.writeInt(index.pilots.length);
+                out.writeInt(index.keys.length);
+                BinaryFiles.writeInts(out, index.pilots);
+                BinaryFiles.writeInts(out, index.slots);
+                out.write(index.keys);
+            }
+        });
+    }
+
+    /**
+     * @throws IOException if the file isn't an external id index file of a supported version
+     */
+    public static ExternalIdIndex read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer header = BinaryFiles.header(channel, file, KIND, MAGIC, VERSION, HEADER_BYTES);
+            final long seed = header.getLong();
+            final int keys = header.getInt();
+            final int buckets = header.getInt();
+            final int keyBytes = header.getInt();
+            final long expected = HEADER_BYTES + 4L * (buckets + 2L * keys + 1) + keyBytes;
+            BinaryFiles.checkSize(channel, file, KIND, expected);
+            final ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, expected - HEADER_BYTES);
+            final int[] pilots = BinaryFiles.readInts(body, buckets);
+            final int[] slots = BinaryFiles.readInts(body, 2 * keys + 1);
+            final byte[] keyChars = new byte[keyBytes];
+            body.get(keyChars);
+            return new ExternalIdIndex(seed, pilots, keyChars, slots);
+        }
+    }
+}
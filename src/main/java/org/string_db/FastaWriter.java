@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes protein sequences as FASTA records:
+ * <pre>
+ * &gt;511145.b0002 thrA; fused aspartokinase I and homoserine dehydrogenase I
+ * MRVLKFGGTSVANAERFLRVADILESNARQGQVATVLSAPAKITNHLVAMIEKTISGQDALPNISDAERIFAELLTGLAAA
+ * ...
+ * </pre>
+ * Headers are formatted into the same {@code StringBuilder}, sequences are copied line by line
+ * through the same {@code char[]}, so memory use doesn't depend on the number of records.
+ * Line breaks and tabs in names and annotations are written as spaces. The writer should be buffered.
+ * <p/>
+ * Not thread-safe, use one writer per output.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class FastaWriter {
+    public static final int DEFAULT_LINE_WIDTH = 60;
+
+    private final Writer out;
+    private final int lineWidth;
+    private final StringBuilder header = new StringBuilder(512);
+    private char[] chars = new char[512];
+    private long records;
+    private long residues;
+
+    /**
+     * @param out should be buffered
+     */
+    public FastaWriter(Writer out) {
+        this(out, DEFAULT_LINE_WIDTH);
+    }
+
+    /**
+     * @param out       should be buffered
+     * @param lineWidth residues per sequence line
+     */
+    public FastaWriter(Writer out, int lineWidth) {
+        if (lineWidth < 1) {
+            throw new IllegalArgumentException("line width must be positive: " + lineWidth);
+        }
+        this.out = out;
+        this.lineWidth = lineWidth;
+        if (chars.length <= lineWidth) chars = new char[lineWidth + 1];
+    }
+
+    /**
+     * @param externalId    first word of the header, must not be null
+     * @param preferredName optional
+     * @param annotation    optional
+     * @param sequence      written {@code lineWidth} residues per line
+     */
+    public void write(String externalId, String preferredName, String annotation, String sequence) throws IOException {
+        header.setLength(0);
+        header.append('>');
+        text(externalId);
+        if (preferredName != null || annotation != null) header.append(' ');
+        if (preferredName != null) text(preferredName);
+        if (preferredName != null && annotation != null) header.append("; ");
+        if (annotation != null) text(annotation);
+        header.append('\n');
+        final int length = header.length();
+        if (chars.length < length) chars = new char[Math.max(length, chars.length << 1)];
+        header.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+
+        for (int from = 0; from < sequence.length(); from += lineWidth) {
+            final int n = Math.min(lineWidth, sequence.length() - from);
+            sequence.getChars(from, from + n, chars, 0);
+            chars[n] = '\n';
+            out.write(chars, 0, n + 1);
+        }
+        records++;
+        residues += sequence.length();
+    }
+
+    /**
+     * @return number of records written so far
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return number of residues written so far
+     */
+    public long getResidues() {
+        return residues;
+    }
+
+    private void text(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            header.append(c == '\n' || c == '\r' || c == '\t' ? ' ' : c);
+        }
+    }
+}
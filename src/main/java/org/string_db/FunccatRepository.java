@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Map;
+
+/**
+ * Functional categories ({@code items.funccats}) of orthologous groups ({@code items.orthgroups_funccats}),
+ * and through them of proteins ({@code items.proteins_orthgroups}).
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface FunccatRepository {
+
+    /**
+     * @return {funccat_id -> funccat_description} of all categories
+     */
+    Map<String, String> loadFunccatDescriptions();
+
+    /**
+     * @param speciesId must not be null
+     * @return funccat_id -> proteins of all {@code speciesId} proteins in orthgroups with a category
+     */
+    AnnotationSets loadFunccatProteins(Integer speciesId);
+}
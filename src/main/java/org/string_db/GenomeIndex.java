@@ -0,0 +1,388 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gene coordinates of one species ({@code items.runs} + {@code items.runs_genes_proteins}),
+ * indexed for neighbourhood queries.
+ * <p/>
+ * Every (gene, protein) row is one record. Records are grouped by contig and sorted by
+ * their start position, all fields are kept in parallel primitive arrays. Next to the
+ * end positions there is a running maximum of the ends within each contig, so the records
+ * overlapping a range are found with a binary search on the starts and a backwards scan
+ * that stops as soon as no earlier record can reach the range. The record holding the running
+ * maximum is kept as well, so the nearest record to a position is found with one binary search.
+ * <p/>
+ * Positions are inclusive; genes on the reverse strand are stored with start <= end.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class GenomeIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final Integer speciesId;
+    /**
+     * sorted
+     */
+    private final String[] contigIds;
+    /**
+     * records of contig {@code c} are {@code contigOffsets[c] .. contigOffsets[c + 1] - 1}
+     */
+    private final int[] contigOffsets;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;
+    /**
+     * record holding {@code maxEnds[r]}, the last one if there are several
+     */
+    private final int[] maxEndRecords;
+    private final int[] geneIds;
+    private final int[] proteinIds;
+    /**
+     * gene_id -> record indices
+     */
+    private final IntAdjacency geneRecords;
+    /**
+     * protein_id -> record indices
+     */
+    private final IntAdjacency proteinRecords;
+
+    private GenomeIndex(Integer speciesId, String[] contigIds, int[] contigOffsets, int[] starts, int[] ends,
+                        int[] geneIds, int[] proteinIds) {
+        this.speciesId = speciesId;
+        this.contigIds = contigIds;
+        this.contigOffsets = contigOffsets;
+        this.starts = starts;
+        this.ends = ends;
+        this.geneIds = geneIds;
+        this.proteinIds = proteinIds;
+        this.maxEnds = new int[ends.length];
+        this.maxEndRecords = new int[ends.length];
+        final IntAdjacency.Builder genes = new IntAdjacency.Builder(starts.length);
+        final IntAdjacency.Builder proteins = new IntAdjacency.Builder(starts.length);
+        for (int c = 0; c < contigIds.length; c++) {
+            int max = Integer.MIN_VALUE;
+            int maxRecord = -1;
+            for (int r = contigOffsets[c]; r < contigOffsets[c + 1]; r++) {
+                if (ends[r] >= max) {
+                    max = ends[r];
+                    maxRecord = r;
+                }
+                maxEnds[r] = max;
+                maxEndRecords[r] = maxRecord;
+                genes.add(geneIds[r], r);
+                proteins.add(proteinIds[r], r);
+            }
+        }
+        this.geneRecords = genes.build();
+        this.proteinRecords = proteins.build();
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    public int contigCount() {
+        return contigIds.length;
+    }
+
+    public String contigId(int contig) {
+        return contigIds[contig];
+    }
+
+    /**
+     * @return index of the contig or a negative value if the species has no such contig
+     */
+    public int contigIndex(String contigId) {
+        return Arrays.binarySearch(contigIds, contigId);
+    }
+
+    /**
+     * @return number of (gene, protein) records
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    public int start(int record) {
+        return starts[record];
+    }
+
+    public int end(int record) {
+        return ends[record];
+    }
+
+    public int geneId(int record) {
+        return geneIds[record];
+    }
+
+    public int proteinId(int record) {
+        return proteinIds[record];
+    }
+
+    /**
+     * @return contig index of the {@code record}
+     */
+    public int contigOf(int record) {
+        //every contig has at least one record so the offsets are strictly increasing
+        final int c = Arrays.binarySearch(contigOffsets, record);
+        return c >= 0 ? c : -c - 2;
+    }
+
+    /**
+     * @return record indices of the gene, empty if the gene isn't in the index
+     */
+    public int[] recordsOfGene(int geneId) {
+        return geneRecords.membersOf(geneId);
+    }
+
+    /**
+     * @return record indices of the protein, empty if the protein isn't in the index
+     */
+    public int[] recordsOfProtein(int proteinId) {
+        return proteinRecords.membersOf(proteinId);
+    }
+
+    /**
+     * @param contig contig index
+     * @param from   first position (inclusive)
+     * @param to     last position (inclusive)
+     * @return indices of the records overlapping {@code [from, to]}, in ascending order
+     */
+    public int[] recordsInRange(int contig, int from, int to) {
+        if (contig < 0 || from > to) return EMPTY;
+        final int first = contigOffsets[contig];
+        final int last = upperBound(first, contigOffsets[contig + 1], to) - 1;
+        int count = 0;
+        int i = last;
+        for (; i >= first && maxEnds[i] >= from; i--) {
+            if (ends[i] >= from) count++;
+        }
+        final int[] result = new int[count];
+        for (int r = last; r > i; r--) {
+            if (ends[r] >= from) result[--count] = r;
+        }
+        return result;
+    }
+
+    /**
+     * @return protein_ids of the records overlapping {@code [from, to]} on the contig
+     */
+    public int[] proteinsInRange(String contigId, int from, int to) {
+        return proteinsOf(recordsInRange(contigIndex(contigId), from, to), -1);
+    }
+
+    /**
+     * Proteins of all genes that lie within {@code distance} bp of the gene on the same contig.
+     *
+     * @param geneId
+     * @param distance in bp, 0 for overlapping genes only
+     * @return protein_ids, without the proteins of {@code geneId} itself
+     */
+    public int[] proteinsNearGene(int geneId, int distance) {
+        final int index = geneRecords.indexOf(geneId);
+        if (index < 0) return EMPTY;
+        return proteinsNear(geneRecords.member(geneRecords.start(index)), distance, geneId);
+    }
+
+    /**
+     * Same as {@link #proteinsNearGene(int, int)}, for the gene of the {@code proteinId}.
+     */
+    public int[] proteinsNearProtein(int proteinId, int distance) {
+        final int index = proteinRecords.indexOf(proteinId);
+        if (index < 0) return EMPTY;
+        final int record = proteinRecords.member(proteinRecords.start(index));
+        return proteinsNear(record, distance, geneIds[record]);
+    }
+
+    private int[] proteinsNear(int record, int distance, int excludedGeneId) {
+        final long from = (long) starts[record] - distance;
+        final long to = (long) ends[record] + distance;
+        final int[] records = recordsInRange(contigOf(record),
+                (int) Math.max(from, Integer.MIN_VALUE), (int) Math.min(to, Integer.MAX_VALUE));
+        return proteinsOf(records, excludedGeneId);
+    }
+
+    private int[] proteinsOf(int[] records, int excludedGeneId) {
+        final int[] result = new int[records.length];
+        int n = 0;
+        for (int record : records) {
+            if (geneIds[record] != excludedGeneId) {
+                result[n++] = proteinIds[record];
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * @param contig   contig index
+     * @param position on the contig
+     * @return index of the record closest to {@code position} (0 bp if it overlaps it),
+     * or -1 if the contig has no records
+     */
+    public int nearestRecord(int contig, int position) {
+        if (contig < 0) return -1;
+        final int first = contigOffsets[contig];
+        final int end = contigOffsets[contig + 1];
+        if (first == end) return -1;
+        final int right = upperBound(first, end, position);
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        if (right > first) {
+            //the record reaching furthest to the right among those starting at or before position
+            best = maxEndRecords[right - 1];
+            bestDistance = Math.max(0L, (long) position - maxEnds[right - 1]);
+        }
+        if (right < end && (long) starts[right] - position < bestDistance) {
+            best = right;
+        }
+        return best;
+    }
+
+    /**
+     * @return first record index in {@code [from, to)} with start > position, {@code to} if none
+     */
+    private int upperBound(int from, int to, int position) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        return 4L * ((long) contigOffsets.length + starts.length + ends.length + maxEnds.length
+                + maxEndRecords.length + geneIds.length + proteinIds.length)
+                + geneRecords.memoryBytes() + proteinRecords.memoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "GenomeIndex{" +
+                "speciesId=" + speciesId +
+                ", contigs=" + contigIds.length +
+                ", records=" + starts.length +
+                '}';
+    }
+
+    public static Builder builder(Integer speciesId) {
+        return new Builder(speciesId);
+    }
+
+    /**
+     * Accepts records in any order, though loading them sorted by contig and start is cheapest.
+     * <p/>
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Integer speciesId;
+        private final Map<String, Integer> contigs = new HashMap<>();
+        private int[] contigOfRecord = new int[1024];
+        private int[] starts = new int[1024];
+        private int[] ends = new int[1024];
+        private int[] geneIds = new int[1024];
+        private int[] proteinIds = new int[1024];
+        private int size;
+        private String lastContig;
+        private int lastContigIndex;
+
+        Builder(Integer speciesId) {
+            this.speciesId = speciesId;
+        }
+
+        public Builder add(String contigId, int geneId, int proteinId, int start, int end) {
+            if (size == starts.length) {
+                final int capacity = size + (size >> 1);
+                contigOfRecord = Arrays.copyOf(contigOfRecord, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                geneIds = Arrays.copyOf(geneIds, capacity);
+                proteinIds = Arrays.copyOf(proteinIds, capacity);
+            }
+            if (!contigId.equals(lastContig)) {
+                Integer index = contigs.get(contigId);
+                if (index == null) {
+                    index = contigs.size();
+                    contigs.put(contigId, index);
+                }
+                lastContig = contigId;
+                lastContigIndex = index;
+            }
+            contigOfRecord[size] = lastContigIndex;
+            starts[size] = Math.min(start, end);
+            ends[size] = Math.max(start, end);
+            geneIds[size] = geneId;
+            proteinIds[size] = proteinId;
+            size++;
+            return this;
+        }
+
+        public GenomeIndex build() {
+            final String[] contigIds = contigs.keySet().toArray(new String[contigs.size()]);
+            Arrays.sort(contigIds);
+            final int[] rank = new int[contigIds.length];
+            for (int c = 0; c < contigIds.length; c++) {
+                rank[contigs.get(contigIds[c])] = c;
+            }
+            //counting sort by contig, then sort each contig by start
+            final int[] offsets = new int[contigIds.length + 1];
+            for (int r = 0; r < size; r++) {
+                offsets[rank[contigOfRecord[r]] + 1]++;
+            }
+            for (int c = 0; c < contigIds.length; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+            final int[] fill = Arrays.copyOf(offsets, contigIds.length);
+            final long[] order = new long[size];
+            for (int r = 0; r < size; r++) {
+                order[fill[rank[contigOfRecord[r]]]++] = ((long) starts[r] << 32) | r;
+            }
+            for (int c = 0; c < contigIds.length; c++) {
+                Arrays.sort(order, offsets[c], offsets[c + 1]);
+            }
+            final int[] sortedStarts = new int[size];
+            final int[] sortedEnds = new int[size];
+            final int[] sortedGenes = new int[size];
+            final int[] sortedProteins = new int[size];
+            for (int i = 0; i < size; i++) {
+                final int r = (int) order[i];
+                sortedStarts[i] = starts[r];
+                sortedEnds[i] = ends[r];
+                sortedGenes[i] = geneIds[r];
+                sortedProteins[i] = proteinIds[r];
+            }
+            return new GenomeIndex(speciesId, contigIds, offsets, sortedStarts, sortedEnds, sortedGenes, sortedProteins);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@code key -> int[] members} multimap stored in CSR (compressed sparse row) form:
+ * sorted {@link #key(int) keys}, one {@code offsets} array and one array with the members
+ * of all keys stored back to back. Members of the key at {@code index} are found at positions
+ * {@code start(index) .. end(index) - 1}, sorted and without duplicates.
+ * <p/>
+ * Walking the structure doesn't allocate, there are no per-member objects, ie:
+ * <pre>
+ * int i = adjacency.indexOf(proteinId);
+ * for (int p = adjacency.start(i); p < adjacency.end(i); p++) {
+ *     int orthgroupId = adjacency.member(p);
+ * }
+ * </pre>
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class IntAdjacency {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] keys;
+    private final int[] offsets;
+    private final int[] members;
+
+    IntAdjacency(int[] keys, int[] offsets, int[] members) {
+        if (offsets.length != keys.length + 1) {
+            throw new IllegalArgumentException("expected " + (keys.length + 1) + " offsets, got: " + offsets.length);
+        }
+        this.keys = keys;
+        this.offsets = offsets;
+        this.members = members;
+    }
+
+    /**
+     * @return number of keys
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return total number of (key, member) pairs
+     */
+    public int memberCount() {
+        return members.length;
+    }
+
+    public int key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param key
+     * @return index of the {@code key} or a negative value if there is no such key
+     */
+    public int indexOf(int key) {
+        return Arrays.binarySearch(keys, key);
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @param index key index
+     * @return position of the first member of the key at {@code index}
+     */
+    public int start(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * @param index key index
+     * @return position after the last member of the key at {@code index}
+     */
+    public int end(int index) {
+        return offsets[index + 1];
+    }
+
+    public int degree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * @param position between {@code start(index)} and {@code end(index)} of some key
+     */
+    public int member(int position) {
+        return members[position];
+    }
+
+    /**
+     * @param key
+     * @return a copy of the members of {@code key}, empty if there is no such key
+     */
+    public int[] membersOf(int key) {
+        final int index = indexOf(key);
+        if (index < 0) return EMPTY;
+        return Arrays.copyOfRange(members, offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * @return true if {@code member} belongs to {@code key}
+     */
+    public boolean contains(int key, int member) {
+        final int index = indexOf(key);
+        if (index < 0) return false;
+        return Arrays.binarySearch(members, offsets[index], offsets[index + 1], member) >= 0;
+    }
+
+    /**
+     * @return {member -> keys} adjacency, ie orthgroup -> proteins for protein -> orthgroups
+     */
+    public IntAdjacency invert() {
+        final Builder builder = new Builder(members.length);
+        for (int i = 0; i < keys.length; i++) {
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                builder.add(members[p], keys[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return approximate heap size of the arrays, in bytes
+     */
+    public long memoryBytes() {
+        return 4L * (keys.length + offsets.length + members.length);
+    }
+
+    @Override
+    public String toString() {
+        return "IntAdjacency{" +
+                "keys=" + keys.length +
+                ", members=" + members.length +
+                '}';
+    }
+
+    /**
+     * Concatenate adjacencies over disjoint, increasing key ranges (ie built from partitions of one scan)
+     * without sorting again.
+     *
+     * @param parts every part's keys must be greater than all keys of the previous parts
+     * @throws IllegalArgumentException if the parts' keys overlap or aren't in order
+     */
+    public static IntAdjacency concat(List<IntAdjacency> parts) {
+        int keyCount = 0;
+        int memberCount = 0;
+        for (IntAdjacency part : parts) {
+            keyCount += part.keys.length;
+            memberCount += part.members.length;
+        }
+        final int[] keys = new int[keyCount];
+        final int[] offsets = new int[keyCount + 1];
+        final int[] members = new int[memberCount];
+        int k = 0;
+        int m = 0;
+        for (IntAdjacency part : parts) {
+            if (part.keys.length == 0) continue;
+            if (k > 0 && part.keys[0] <= keys[k - 1]) {
+                throw new IllegalArgumentException("key " + part.keys[0] + " not after " + keys[k - 1]);
+            }
+            System.arraycopy(part.keys, 0, keys, k, part.keys.length);
+            for (int i = 0; i < part.keys.length; i++) {
+                offsets[k + i] = m + part.offsets[i];
+            }
+            System.arraycopy(part.members, 0, members, m, part.members.length);
+            k += part.keys.length;
+            m += part.members.length;
+        }
+        offsets[keyCount] = memberCount;
+        return new IntAdjacency(keys, offsets, members);
+    }
+
+    public static Builder builder() {
+        return new Builder(1024);
+    }
+
+    /**
+     * Collects (key, member) pairs in any order, duplicates are dropped by {@link #build()}.
+     * Keys and members are expected to be non-negative database ids.
+     * Pairs are packed into a single {@code long[]} so no boxing happens while loading.
+     * <p/>
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private long[] pairs;
+        private int size;
+
+        Builder(int initialCapacity) {
+            pairs = new long[Math.max(initialCapacity, 16)];
+        }
+
+        public Builder add(int key, int member) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size + (size >> 1));
+            }
+            pairs[size++] = ((long) key << 32) | (member & 0xffffffffL);
+            return this;
+        }
+
+        public IntAdjacency build() {
+            Arrays.sort(pairs, 0, size);
+            int distinctPairs = 0;
+            int distinctKeys = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinctPairs > 0 && pairs[i] == pairs[distinctPairs - 1]) continue;
+                if (distinctPairs == 0 || (int) (pairs[i] >>> 32) != (int) (pairs[distinctPairs - 1] >>> 32)) {
+                    distinctKeys++;
+                }
+                pairs[distinctPairs++] = pairs[i];
+            }
+            final int[] keys = new int[distinctKeys];
+            final int[] offsets = new int[distinctKeys + 1];
+            final int[] members = new int[distinctPairs];
+            int k = -1;
+            for (int i = 0; i < distinctPairs; i++) {
+                final int key = (int) (pairs[i] >>> 32);
+                if (k < 0 || keys[k] != key) {
+                    keys[++k] = key;
+                    offsets[k] = i;
+                }
+                members[i] = (int) pairs[i];
+            }
+            offsets[distinctKeys] = distinctPairs;
+            return new IntAdjacency(keys, offsets, members);
+        }
+    }
+}
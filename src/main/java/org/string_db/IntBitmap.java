@@ -0,0 +1,493 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A compressed set of non-negative ints (protein_ids), organized like a Roaring bitmap: values are
+ * grouped by their upper 16 bits and the lower 16 bits of every group are kept in a container that is
+ * either a sorted {@code char[]} (up to {@value #ARRAY_MAX} values) or a 65536-bit {@code long[]} bitset.
+ * <p/>
+ * Set operations work container by container, ie intersecting two arrays is a merge, two bitsets are
+ * ANDed word by word, so intersecting the protein sets of two annotation terms takes microseconds.
+ * {@link #andCardinality(IntBitmap)} counts without building the intersection.
+ * <p/>
+ * The class is immutable => @ThreadSafe. Results of set operations share unchanged containers with
+ * their operands.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class IntBitmap {
+    /**
+     * containers with more values than this are bitsets
+     */
+    static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1024;
+    private static final IntBitmap EMPTY = new IntBitmap(new char[0], new Container[0]);
+
+    /**
+     * upper 16 bits of the containers' values, sorted
+     */
+    private final char[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private IntBitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        int n = 0;
+        for (Container c : containers) {
+            n += c.cardinality;
+        }
+        this.cardinality = n;
+    }
+
+    public static IntBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param values in any order, duplicates are dropped
+     * @throws IllegalArgumentException if there's a negative value
+     */
+    public static IntBitmap of(int... values) {
+        final int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[i] != sorted[n - 1]) sorted[n++] = sorted[i];
+        }
+        return ofSorted(sorted, 0, n);
+    }
+
+    /**
+     * @param values {@code values[from .. to - 1]} must be sorted and distinct
+     * @throws IllegalArgumentException if there's a negative value
+     */
+    public static IntBitmap ofSorted(int[] values, int from, int to) {
+        if (from == to) return EMPTY;
+        if (values[from] < 0) {
+            throw new IllegalArgumentException("negative value: " + values[from]);
+        }
+        final List<Container> containers = new ArrayList<>();
+        final char[] keys = new char[(values[to - 1] >>> 16) - (values[from] >>> 16) + 1];
+        int n = 0;
+        int start = from;
+        while (start < to) {
+            final int high = values[start] >>> 16;
+            int end = start;
+            while (end < to && values[end] >>> 16 == high) end++;
+            final char[] low = new char[end - start];
+            for (int i = start; i < end; i++) {
+                low[i - start] = (char) values[i];
+            }
+            keys[n++] = (char) high;
+            containers.add(Container.ofArray(low, low.length));
+            start = end;
+        }
+        return new IntBitmap(Arrays.copyOf(keys, n), containers.toArray(new Container[n]));
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        final int index = Arrays.binarySearch(keys, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * @return values, sorted
+     */
+    public int[] toArray() {
+        final int[] values = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            n = containers[i].copyTo(keys[i] << 16, values, n);
+        }
+        return values;
+    }
+
+    public IntBitmap and(IntBitmap other) {
+        final int capacity = Math.min(keys.length, other.keys.length);
+        final char[] k = new char[capacity];
+        final Container[] c = new Container[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                final Container r = Container.and(containers[i], other.containers[j]);
+                if (r != null) {
+                    k[n] = keys[i];
+                    c[n++] = r;
+                }
+                i++;
+                j++;
+            }
+        }
+        return n == 0 ? EMPTY : new IntBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+    }
+
+    /**
+     * @return size of the intersection, without building it
+     */
+    public int andCardinality(IntBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += Container.andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    public IntBitmap or(IntBitmap other) {
+        final int capacity = keys.length + other.keys.length;
+        final char[] k = new char[capacity];
+        final Container[] c = new Container[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                k[n] = keys[i];
+                c[n++] = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                k[n] = other.keys[j];
+                c[n++] = other.containers[j++];
+            } else {
+                k[n] = keys[i];
+                c[n++] = Container.or(containers[i++], other.containers[j++]);
+            }
+        }
+        return new IntBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+    }
+
+    /**
+     * @return values of this bitmap that aren't in {@code other}
+     */
+    public IntBitmap andNot(IntBitmap other) {
+        final char[] k = new char[keys.length];
+        final Container[] c = new Container[keys.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i]) j++;
+            final Container r = j < other.keys.length && other.keys[j] == keys[i]
+                    ? Container.andNot(containers[i], other.containers[j]) : containers[i];
+            if (r != null) {
+                k[n] = keys[i];
+                c[n++] = r;
+            }
+        }
+        return n == 0 ? EMPTY : new IntBitmap(Arrays.copyOf(k, n), Arrays.copyOf(c, n));
+    }
+
+    /**
+     * Intersect all bitmaps, starting with the smallest ones so intermediate results stay small.
+     */
+    public static IntBitmap and(List<IntBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) return EMPTY;
+        final List<IntBitmap> bySize = new ArrayList<>(bitmaps);
+        Collections.sort(bySize, new Comparator<IntBitmap>() {
+            @Override
+            public int compare(IntBitmap a, IntBitmap b) {
+                return Integer.compare(a.cardinality, b.cardinality);
+            }
+        });
+        IntBitmap result = bySize.get(0);
+        for (int i = 1; i < bySize.size() && !result.isEmpty(); i++) {
+            result = result.and(bySize.get(i));
+        }
+        return result;
+    }
+
+    public static IntBitmap or(List<IntBitmap> bitmaps) {
+        IntBitmap result = EMPTY;
+        for (IntBitmap bitmap : bitmaps) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        long bytes = 2L * keys.length + 4L * containers.length;
+        for (Container c : containers) {
+            bytes += 16 + (c.array != null ? 2L * c.array.length : 8L * BITSET_WORDS);
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntBitmap)) return false;
+        final IntBitmap that = (IntBitmap) o;
+        return cardinality == that.cardinality && andCardinality(that) == cardinality;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "IntBitmap{" +
+                "cardinality=" + cardinality +
+                ", containers=" + containers.length +
+                '}';
+    }
+
+    /**
+     * Lower 16 bits of the values sharing the same upper 16 bits, never empty.
+     */
+    private static final class Container {
+        /**
+         * sorted values, null for a bitset container
+         */
+        final char[] array;
+        /**
+         * {@value #BITSET_WORDS} words, null for an array container
+         */
+        final long[] bits;
+        final int cardinality;
+
+        private Container(char[] array, long[] bits, int cardinality) {
+            this.array = array;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * @return container of the first {@code n} values, null if {@code n == 0}
+         */
+        static Container ofArray(char[] values, int n) {
+            if (n == 0) return null;
+            if (n <= ARRAY_MAX) {
+                return new Container(n == values.length ? values : Arrays.copyOf(values, n), null, n);
+            }
+            final long[] bits = new long[BITSET_WORDS];
+            for (int i = 0; i < n; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new Container(null, bits, n);
+        }
+
+        /**
+         * @return container of the set bits, an array container if there are few of them, null if none
+         */
+        static Container ofBits(long[] bits) {
+            int n = 0;
+            for (long word : bits) {
+                n += Long.bitCount(word);
+            }
+            if (n == 0) return null;
+            if (n > ARRAY_MAX) return new Container(null, bits, n);
+            final char[] values = new char[n];
+            int v = 0;
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    values[v++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new Container(values, null, n);
+        }
+
+        boolean contains(char low) {
+            if (array != null) return Arrays.binarySearch(array, low) >= 0;
+            return (bits[low >>> 6] & (1L << low)) != 0;
+        }
+
+        int copyTo(int high, int[] out, int n) {
+            if (array != null) {
+                for (char low : array) {
+                    out[n++] = high | low;
+                }
+                return n;
+            }
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    out[n++] = high | (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return n;
+        }
+
+        static Container and(Container a, Container b) {
+            if (a.array != null && b.array != null) {
+                final char[] r = new char[Math.min(a.cardinality, b.cardinality)];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < a.array.length && j < b.array.length) {
+                    if (a.array[i] < b.array[j]) {
+                        i++;
+                    } else if (a.array[i] > b.array[j]) {
+                        j++;
+                    } else {
+                        r[n++] = a.array[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return ofArray(r, n);
+            }
+            if (a.array != null || b.array != null) {
+                final Container array = a.array != null ? a : b;
+                final Container bitset = a.array != null ? b : a;
+                final char[] r = new char[array.cardinality];
+                int n = 0;
+                for (char low : array.array) {
+                    if (bitset.contains(low)) r[n++] = low;
+                }
+                return ofArray(r, n);
+            }
+            final long[] r = new long[BITSET_WORDS];
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                r[w] = a.bits[w] & b.bits[w];
+            }
+            return ofBits(r);
+        }
+
+        static int andCardinality(Container a, Container b) {
+            int n = 0;
+            if (a.array != null && b.array != null) {
+                int i = 0;
+                int j = 0;
+                while (i < a.array.length && j < b.array.length) {
+                    if (a.array[i] < b.array[j]) {
+                        i++;
+                    } else if (a.array[i] > b.array[j]) {
+                        j++;
+                    } else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else if (a.array != null || b.array != null) {
+                final Container array = a.array != null ? a : b;
+                final Container bitset = a.array != null ? b : a;
+                for (char low : array.array) {
+                    if (bitset.contains(low)) n++;
+                }
+            } else {
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    n += Long.bitCount(a.bits[w] & b.bits[w]);
+                }
+            }
+            return n;
+        }
+
+        static Container or(Container a, Container b) {
+            if (a.array != null && b.array != null) {
+                final char[] r = new char[a.cardinality + b.cardinality];
+                int n = 0;
+                int i = 0;
+                int j = 0;
+                while (i < a.array.length || j < b.array.length) {
+                    if (j == b.array.length || (i < a.array.length && a.array[i] < b.array[j])) {
+                        r[n++] = a.array[i++];
+                    } else if (i == a.array.length || a.array[i] > b.array[j]) {
+                        r[n++] = b.array[j++];
+                    } else {
+                        r[n++] = a.array[i++];
+                        j++;
+                    }
+                }
+                return ofArray(r, n);
+            }
+            if (a.array != null || b.array != null) {
+                final Container array = a.array != null ? a : b;
+                final Container bitset = a.array != null ? b : a;
+                final long[] r = bitset.bits.clone();
+                int n = bitset.cardinality;
+                for (char low : array.array) {
+                    final long mask = 1L << low;
+                    if ((r[low >>> 6] & mask) == 0) {
+                        r[low >>> 6] |= mask;
+                        n++;
+                    }
+                }
+                return new Container(null, r, n);
+            }
+            final long[] r = new long[BITSET_WORDS];
+            int n = 0;
+            for (int w = 0; w < BITSET_WORDS; w++) {
+                r[w] = a.bits[w] | b.bits[w];
+                n += Long.bitCount(r[w]);
+            }
+            return new Container(null, r, n);
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a.array != null) {
+                final char[] r = new char[a.cardinality];
+                int n = 0;
+                for (char low : a.array) {
+                    if (!b.contains(low)) r[n++] = low;
+                }
+                return ofArray(r, n);
+            }
+            final long[] r = a.bits.clone();
+            if (b.array != null) {
+                for (char low : b.array) {
+                    r[low >>> 6] &= ~(1L << low);
+                }
+            } else {
+                for (int w = 0; w < BITSET_WORDS; w++) {
+                    r[w] &= ~b.bits[w];
+                }
+            }
+            return ofBits(r);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * {@link NetworkGraph} read straight from a memory-mapped {@link NetworkFile}, same layout as
+ * {@link CsrNetworkGraph} but the arrays live in the OS page cache, not on the heap.
+ * <p/>
+ * The buffers are only read with absolute gets => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class MappedNetworkGraph implements NetworkGraph {
+    private final Integer speciesId;
+    private final IntBuffer proteinIds;
+    private final IntBuffer offsets;
+    private final IntBuffer neighbours;
+    private final ShortBuffer combinedScores;
+    /**
+     * indexed by {@link EvidenceType#ordinal()}, null for channels without any evidence
+     */
+    private final ShortBuffer[] channelScores;
+    private final long fileBytes;
+
+    MappedNetworkGraph(Integer speciesId, IntBuffer proteinIds, IntBuffer offsets, IntBuffer neighbours,
+                       ShortBuffer combinedScores, ShortBuffer[] channelScores, long fileBytes) {
+        this.speciesId = speciesId;
+        this.proteinIds = proteinIds;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.combinedScores = combinedScores;
+        this.channelScores = channelScores;
+        this.fileBytes = fileBytes;
+    }
+
+    @Override
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    @Override
+    public int nodeCount() {
+        return proteinIds.limit();
+    }
+
+    @Override
+    public long edgeCount() {
+        return neighbours.limit();
+    }
+
+    @Override
+    public int proteinId(int node) {
+        return proteinIds.get(node);
+    }
+
+    @Override
+    public int nodeOf(int proteinId) {
+        int lo = 0;
+        int hi = proteinIds.limit() - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int id = proteinIds.get(mid);
+            if (id < proteinId) {
+                lo = mid + 1;
+            } else if (id > proteinId) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int degree(int node) {
+        return offsets.get(node + 1) - offsets.get(node);
+    }
+
+    @Override
+    public boolean hasChannel(EvidenceType type) {
+        return channelScores[type.ordinal()] != null;
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new MappedCursor();
+    }
+
+    @Override
+    public int[] neighbours(int node, int minCombinedScore) {
+        final int start = offsets.get(node);
+        final int end = offsets.get(node + 1);
+        int count = 0;
+        for (int e = start; e < end; e++) {
+            if (combinedScores.get(e) >= minCombinedScore) count++;
+        }
+        final int[] result = new int[count];
+        count = 0;
+        for (int e = start; e < end; e++) {
+            if (combinedScores.get(e) >= minCombinedScore) result[count++] = neighbours.get(e);
+        }
+        return result;
+    }
+
+    /**
+     * @return 0, everything is mapped, see {@link #fileBytes()}
+     */
+    @Override
+    public long memoryBytes() {
+        return 0;
+    }
+
+    /**
+     * @return size of the mapped file
+     */
+    public long fileBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedNetworkGraph{" +
+                "speciesId=" + speciesId +
+                ", nodes=" + nodeCount() +
+                ", edges=" + edgeCount() +
+                '}';
+    }
+
+    private final class MappedCursor implements Cursor {
+        private int edge;
+        private int end;
+        private int min;
+
+        @Override
+        public Cursor reset(int node, int minCombinedScore) {
+            edge = offsets.get(node) - 1;
+            end = offsets.get(node + 1);
+            min = minCombinedScore;
+            return this;
+        }
+
+        @Override
+        public boolean next() {
+            while (++edge < end) {
+                if (combinedScores.get(edge) >= min) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int node() {
+            return neighbours.get(edge);
+        }
+
+        @Override
+        public int combinedScore() {
+            return combinedScores.get(edge);
+        }
+
+        @Override
+        public int score(EvidenceType type) {
+            final ShortBuffer scores = channelScores[type.ordinal()];
+            return scores == null ? 0 : scores.get(edge);
+        }
+    }
+}
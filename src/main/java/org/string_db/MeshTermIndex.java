@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MeSH term -> proteins memberships of one species ({@code items.proteins_meshterms}), every term's
+ * proteins kept as an {@link IntBitmap}, ie:
+ * <pre>
+ * IntBitmap both = index.shared(meshIdX, meshIdY);
+ * int count = index.countShared(meshIdX, meshIdY);
+ * </pre>
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class MeshTermIndex {
+    private final Integer speciesId;
+    /**
+     * sorted
+     */
+    private final int[] meshIds;
+    private final IntBitmap[] proteins;
+
+    /**
+     * @param speciesId
+     * @param memberships {mesh_id -> protein_ids} adjacency
+     */
+    public MeshTermIndex(Integer speciesId, IntAdjacency memberships) {
+        this.speciesId = speciesId;
+        this.meshIds = new int[memberships.size()];
+        this.proteins = new IntBitmap[memberships.size()];
+        final int[] members = new int[memberships.memberCount()];
+        for (int p = 0; p < members.length; p++) {
+            members[p] = memberships.member(p);
+        }
+        for (int i = 0; i < meshIds.length; i++) {
+            meshIds[i] = memberships.key(i);
+            proteins[i] = IntBitmap.ofSorted(members, memberships.start(i), memberships.end(i));
+        }
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    /**
+     * @return number of terms with at least one protein of the species
+     */
+    public int termCount() {
+        return meshIds.length;
+    }
+
+    /**
+     * @return mesh_ids of all terms, sorted
+     */
+    public int[] getMeshIds() {
+        return meshIds.clone();
+    }
+
+    /**
+     * @return proteins annotated with the term, empty if there are none
+     */
+    public IntBitmap proteins(int meshId) {
+        final int index = Arrays.binarySearch(meshIds, meshId);
+        return index < 0 ? IntBitmap.empty() : proteins[index];
+    }
+
+    /**
+     * @return proteins annotated with all the terms
+     */
+    public IntBitmap shared(int... meshIds) {
+        final List<IntBitmap> bitmaps = new ArrayList<>(meshIds.length);
+        for (int meshId : meshIds) {
+            bitmaps.add(proteins(meshId));
+        }
+        return IntBitmap.and(bitmaps);
+    }
+
+    /**
+     * @return proteins annotated with any of the terms
+     */
+    public IntBitmap any(int... meshIds) {
+        final List<IntBitmap> bitmaps = new ArrayList<>(meshIds.length);
+        for (int meshId : meshIds) {
+            bitmaps.add(proteins(meshId));
+        }
+        return IntBitmap.or(bitmaps);
+    }
+
+    /**
+     * @return number of proteins annotated with both terms
+     */
+    public int countShared(int meshIdA, int meshIdB) {
+        return proteins(meshIdA).andCardinality(proteins(meshIdB));
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        long bytes = 8L * meshIds.length;
+        for (IntBitmap bitmap : proteins) {
+            bytes += bitmap.memoryBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MeshTermIndex{" +
+                "speciesId=" + speciesId +
+                ", terms=" + meshIds.length +
+                '}';
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes STRING links as PSI-MITAB 2.5 (15 columns) or 2.7 (42 columns) lines.
+ * <p/>
+ * Proteins are identified by their {@link ProteinExternalId} ({@code string:9606.ENSP...}), with the
+ * {@link UniprotAC} as alternative id and the preferred name as alias, all taken from maps preloaded
+ * for the whole species. The confidence column holds the combined score, every channel score and,
+ * for links with transferred evidence, {@link StringDbScores#getTransferredScore()} as
+ * {@code combined_transferred}.
+ * <p/>
+ * Every line is formatted into the same {@code StringBuilder} and handed to the writer through
+ * the same {@code char[]}, so no strings are created per link. The writer should be buffered.
+ * <p/>
+ * Not thread-safe, use one writer per output.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ * @see <a href="https://psicquic.github.io/MITAB27Format.html">MITAB 2.7 format</a>
+ */
+public class MitabWriter {
+
+    public enum Format {
+        MITAB25(15), MITAB27(42);
+
+        final int columns;
+
+        Format(int columns) {
+            this.columns = columns;
+        }
+    }
+
+    private static final String INTERACTION_TYPE = "psi-mi:\"MI:0914\"(association)";
+    private static final String SOURCE_DATABASE = "psi-mi:\"MI:1014\"(string)";
+    private static final String PROTEIN_TYPE = "psi-mi:\"MI:0326\"(protein)";
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+
+    private final Writer out;
+    private final Format format;
+    private final Integer speciesId;
+    private final Map<Integer, ProteinExternalId> externalIds;
+    private final Map<Integer, UniprotAC> uniprotIds;
+    private final Map<Integer, String> preferredNames;
+    private final StringBuilder line = new StringBuilder(512);
+    private char[] chars = new char[512];
+    private long lines;
+
+    /**
+     * @param out            should be buffered
+     * @param format
+     * @param speciesId      NCBI taxonomy id of all the proteins
+     * @param externalIds    {protein_id -> external id}, links with unknown proteins are rejected
+     * @param uniprotIds     {protein_id -> UniProt AC}, optional per protein
+     * @param preferredNames {protein_id -> preferred name}, optional per protein
+     */
+    public MitabWriter(Writer out, Format format, Integer speciesId, Map<Integer, ProteinExternalId> externalIds,
+                       Map<Integer, UniprotAC> uniprotIds, Map<Integer, String> preferredNames) {
+        this.out = out;
+        this.format = format;
+        this.speciesId = speciesId;
+        this.externalIds = externalIds;
+        this.uniprotIds = uniprotIds;
+        this.preferredNames = preferredNames;
+    }
+
+    /**
+     * @param scores        channel scores of the link
+     * @param combinedScore combined_score of the link
+     */
+    public void write(StringDbScores scores, int combinedScore) throws IOException {
+        line.setLength(0);
+        identifier(scores.getProteinA());
+        tab();
+        identifier(scores.getProteinB());
+        tab();
+        alternativeId(scores.getProteinA());
+        tab();
+        alternativeId(scores.getProteinB());
+        tab();
+        alias(scores.getProteinA());
+        tab();
+        alias(scores.getProteinB());
+        line.append("\t-\t-\t-\t");
+        line.append("taxid:").append(speciesId.intValue()).append('\t');
+        line.append("taxid:").append(speciesId.intValue()).append('\t');
+        line.append(INTERACTION_TYPE).append('\t');
+        line.append(SOURCE_DATABASE).append("\t-\t");
+        confidence(scores, combinedScore);
+        if (format == Format.MITAB27) {
+            //complex expansion, biological and experimental roles
+            line.append("\t-\t-\t-\t-\t-\t");
+            line.append(PROTEIN_TYPE).append('\t').append(PROTEIN_TYPE);
+            //xrefs, annotations, host organism, parameters, dates, checksums
+            line.append("\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-\t-");
+            //not a negative interaction, no features, stoichiometry, identification methods
+            line.append("\tfalse\t-\t-\t-\t-\t-\t-");
+        }
+        line.append('\n');
+        flushLine();
+        lines++;
+    }
+
+    /**
+     * @return number of lines written so far
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    private void flushLine() throws IOException {
+        final int length = line.length();
+        if (chars.length < length) chars = new char[Math.max(length, chars.length << 1)];
+        line.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+
+    private void tab() {
+        line.append('\t');
+    }
+
+    private void identifier(Integer proteinId) {
+        final ProteinExternalId externalId = externalIds.get(proteinId);
+        if (externalId == null) {
+            throw new IllegalArgumentException("no external id for protein: " + proteinId);
+        }
+        line.append("string:");
+        quoted(externalId.toString());
+    }
+
+    private void alternativeId(Integer proteinId) {
+        final UniprotAC ac = uniprotIds.get(proteinId);
+        if (ac == null) {
+            line.append('-');
+        } else {
+            line.append("uniprotkb:").append(ac.toString());
+        }
+    }
+
+    private void alias(Integer proteinId) {
+        final String name = preferredNames.get(proteinId);
+        if (name == null) {
+            line.append('-');
+        } else {
+            line.append("string:");
+            quoted(name);
+            line.append("(preferred name)");
+        }
+    }
+
+    private void confidence(StringDbScores scores, int combinedScore) {
+        line.append("score:");
+        probability(combinedScore);
+        //COMBINED_TRANSFERRED isn't stored, it's computed
+        final int present = scores.getPresenceMask() & EvidenceType.CHANNEL_MASK;
+        for (int bits = present; bits != 0; bits &= bits - 1) {
+            final EvidenceType type = TYPES[Integer.numberOfTrailingZeros(bits)];
+            line.append('|');
+            lowerCase(type.name());
+            line.append(':');
+            probability(scores.get(type));
+        }
+        if (scores.hasTransferred()) {
+            line.append("|combined_transferred:");
+            probability(scores.getTransferredScore());
+        }
+    }
+
+    /**
+     * score 0..1000 as 0.000..1.000
+     */
+    private void probability(int score) {
+        line.append((char) ('0' + score / 1000)).append('.');
+        line.append((char) ('0' + score / 100 % 10));
+        line.append((char) ('0' + score / 10 % 10));
+        line.append((char) ('0' + score % 10));
+    }
+
+    private void lowerCase(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            line.append(Character.toLowerCase(name.charAt(i)));
+        }
+    }
+
+    /**
+     * values with MITAB separators have to be put in double quotes
+     */
+    private void quoted(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            final char c = value.charAt(i);
+            quote = c == '|' || c == '\t' || c == ':' || c == '(' || c == ')' || c == '"';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"') line.append('\\');
+            line.append(c == '\t' ? ' ' : c);
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary network file, so a species network has to be read from the database only once:
+ * <pre>
+ * NetworkFile.write(networkRepository.loadNetwork(9606), new File("9606.network"));
+ * NetworkGraph graph = NetworkFile.open(new File("9606.network"));
+ * </pre>
+ * Layout (big-endian), version 1:
+ * <pre>
+ * int   magic 'STRN', int version
+ * int   species_id, int nodes (N), int links (E)
+ * int   channels (C), C x (byte name length, ASCII {@link EvidenceType} name)
+ * padding to a multiple of 4
+ * int[N]     protein_ids, sorted
+ * int[N + 1] CSR offsets
+ * int[E]     neighbour node indices
+ * short[E]   combined scores
+ * C x short[E] channel scores, in the order of the channel table
+ * </pre>
+ * The reader maps the sections read-only, the graph reads straight from the mapped pages (no heap copy),
+ * so any number of processes opening the same file share one copy in the OS page cache.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class NetworkFile {
+    static final int MAGIC = 0x5354524E;
+    static final int VERSION = 1;
+    private static final String KIND = "a network";
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+
+    private NetworkFile() {
+    }
+
+    /**
+     * @param graph any implementation, ie as loaded by {@link NetworkRepository#loadNetwork} (compressed or not)
+     *              or a mapped one
+     * @param file  replaced if it exists
+     */
+    public static void write(final NetworkGraph graph, File file) throws IOException {
+        BinaryFiles.write(file, MAGIC, VERSION, new BinaryFiles.Body() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                int channels = 0;
+                for (EvidenceType type : TYPES) {
+                    if (graph.hasChannel(type)) channels++;
+                }
+                out.writeInt(graph.getSpeciesId());
+                out.writeInt(graph.nodeCount());
+                out.writeInt((int) graph.edgeCount());
+                out.writeInt(channels);
+                for (EvidenceType type : TYPES) {
+                    if (!graph.hasChannel(type)) continue;
+                    final byte[] name = type.name().getBytes(StandardCharsets.US_ASCII);
+                    out.writeByte(name.length);
+                    out.write(name);
+                }
+                while (out.size() % 4 != 0) out.writeByte(0);
+
+                final int nodes = graph.nodeCount();
+                for (int n = 0; n < nodes; n++) out.writeInt(graph.proteinId(n));
+                int offset = 0;
+                for (int n = 0; n < nodes; n++) {
+                    out.writeInt(offset);
+                    offset += graph.degree(n);
+                }
+                out.writeInt(offset);
+                //one pass over the edges per section, the graph is never copied
+                final NetworkGraph.Cursor cursor = graph.cursor();
+                for (int n = 0; n < nodes; n++) {
+                    for (cursor.reset(n, 0); cursor.next(); ) out.writeInt(cursor.node());
+                }
+                for (int n = 0; n < nodes; n++) {
+                    for (cursor.reset(n, 0); cursor.next(); ) out.writeShort(cursor.combinedScore());
+                }
+                for (EvidenceType type : TYPES) {
+                    if (!graph.hasChannel(type)) continue;
+                    for (int n = 0; n < nodes; n++) {
+                        for (cursor.reset(n, 0); cursor.next(); ) out.writeShort(cursor.score(type));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return read-only graph backed by the mapped file
+     * @throws IOException if the file isn't a network file of a supported version
+     */
+    public static MappedNetworkGraph open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer header = BinaryFiles.header(channel, file, KIND, MAGIC, VERSION, 24);
+            final int speciesId = header.getInt();
+            final int nodes = header.getInt();
+            final int edges = header.getInt();
+            final int channels = header.getInt();
+            final EvidenceType[] types = new EvidenceType[channels];
+            for (int c = 0; c < channels; c++) {
+                final byte[] name = new byte[header.get()];
+                header.get(name);
+                types[c] = EvidenceType.valueOf(new String(name, StandardCharsets.US_ASCII));
+            }
+            long position = (header.position() + 3) & ~3L;
+
+            final IntBuffer proteinIds = map(channel, position, 4L * nodes).asIntBuffer();
+            position += 4L * nodes;
+            final IntBuffer offsets = map(channel, position, 4L * (nodes + 1)).asIntBuffer();
+            position += 4L * (nodes + 1);
+            final IntBuffer neighbours = map(channel, position, 4L * edges).asIntBuffer();
+            position += 4L * edges;
+            final ShortBuffer combined = map(channel, position, 2L * edges).asShortBuffer();
+            position += 2L * edges;
+            final ShortBuffer[] scores = new ShortBuffer[TYPES.length];
+            for (EvidenceType type : types) {
+                scores[type.ordinal()] = map(channel, position, 2L * edges).asShortBuffer();
+                position += 2L * edges;
+            }
+            BinaryFiles.checkSize(channel, file, KIND, position);
+            //mappings stay valid after the channel is closed
+            return new MappedNetworkGraph(speciesId, proteinIds, offsets, neighbours, combined, scores, position);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (position + size > channel.size()) {
+            throw new IOException("truncated network file");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+/**
+ * In-memory protein interaction network of one species, built from {@code network.node_node_links}.
+ * <p/>
+ * Proteins are remapped to dense node indices {@code 0 .. nodeCount() - 1} (in protein_id order),
+ * all queries work on node indices. Links are directed the way they are stored in the database,
+ * which keeps both directions of every interaction, so {@link #degree(int)} is the number of
+ * interaction partners.
+ * <p/>
+ * Neighbours are visited through a reusable {@link Cursor}, so walking the network doesn't allocate
+ * any per-link objects. Scores are 0..1000, 0 meaning the channel has no evidence for the link.
+ * <p/>
+ * Implementations are immutable => @ThreadSafe, cursors aren't.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface NetworkGraph {
+
+    Integer getSpeciesId();
+
+    int nodeCount();
+
+    /**
+     * @return number of (directed) links
+     */
+    long edgeCount();
+
+    /**
+     * @param node index
+     * @return protein_id of the node
+     */
+    int proteinId(int node);
+
+    /**
+     * @param proteinId
+     * @return node index or -1 if the protein has no links
+     */
+    int nodeOf(int proteinId);
+
+    /**
+     * @return number of neighbours of the node
+     */
+    int degree(int node);
+
+    /**
+     * @return true if the network holds scores for this channel
+     */
+    boolean hasChannel(EvidenceType type);
+
+    /**
+     * @return a new cursor, to be {@link Cursor#reset(int, int) reset} to a node before use
+     */
+    Cursor cursor();
+
+    /**
+     * @param node             index
+     * @param minCombinedScore neighbours linked with a lower combined score are skipped
+     * @return indices of the neighbours, in ascending order
+     */
+    int[] neighbours(int node, int minCombinedScore);
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    long memoryBytes();
+
+    /**
+     * Iterates over the neighbours of one node, in ascending node order:
+     * <pre>
+     * NetworkGraph.Cursor cursor = graph.cursor();
+     * for (cursor.reset(node, 700); cursor.next(); ) {
+     *     int neighbour = cursor.node();
+     *     int experimental = cursor.score(EvidenceType.EXPERIMENTAL);
+     * }
+     * </pre>
+     * Not thread-safe, use one cursor per thread.
+     */
+    interface Cursor {
+        /**
+         * position the cursor before the first neighbour of {@code node}
+         *
+         * @param minCombinedScore neighbours linked with a lower combined score are skipped
+         * @return this
+         */
+        Cursor reset(int node, int minCombinedScore);
+
+        /**
+         * @return false if there are no more neighbours
+         */
+        boolean next();
+
+        /**
+         * @return index of the current neighbour
+         */
+        int node();
+
+        /**
+         * @return combined score of the current link
+         */
+        int combinedScore();
+
+        /**
+         * @return score of the current link in this channel, 0 if none
+         */
+        int score(EvidenceType type);
+    }
+}
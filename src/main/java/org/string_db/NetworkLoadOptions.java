@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * What part of a species network to load from {@code network.node_node_links}:
+ * <ul>
+ * <li>a minimum combined score, pushed down into the SQL {@code WHERE} clause</li>
+ * <li>minimum scores of individual channels; channel scores only exist inside the {@code evidence_scores}
+ * array, so these are checked right after decoding the array, before anything is allocated for the link</li>
+ * <li>the channels to keep, scores of other channels are dropped while loading</li>
+ * <li>whether to keep the network as a {@link CompressedNetworkGraph}</li>
+ * </ul>
+ * A link is loaded only if it passes all the thresholds.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class NetworkLoadOptions {
+    /**
+     * all links with all channels
+     */
+    public static final NetworkLoadOptions ALL = builder().build();
+
+    private final int minCombinedScore;
+    /**
+     * indexed by {@link EvidenceType#ordinal()}
+     */
+    private final short[] minChannelScores;
+    /**
+     * channels with a threshold
+     */
+    private final int thresholdMask;
+    private final int channelMask;
+    private final boolean compressed;
+
+    private NetworkLoadOptions(int minCombinedScore, short[] minChannelScores, int thresholdMask, int channelMask,
+                               boolean compressed) {
+        this.minCombinedScore = minCombinedScore;
+        this.minChannelScores = minChannelScores;
+        this.thresholdMask = thresholdMask;
+        this.channelMask = channelMask;
+        this.compressed = compressed;
+    }
+
+    public int getMinCombinedScore() {
+        return minCombinedScore;
+    }
+
+    /**
+     * @return 0 if the channel has no threshold
+     */
+    public int getMinScore(EvidenceType type) {
+        return minChannelScores[type.ordinal()];
+    }
+
+    /**
+     * @return {@link EvidenceType#mask()} bits of the channels to keep
+     */
+    public int getChannelMask() {
+        return channelMask;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * @return true if some channel has a threshold, ie links have to be checked after decoding
+     */
+    public boolean hasChannelThresholds() {
+        return thresholdMask != 0;
+    }
+
+    /**
+     * @return true if the link passes all the channel thresholds
+     */
+    public boolean accepts(PackedScores scores) {
+        if ((scores.getPresenceMask() & thresholdMask) != thresholdMask) return false;
+        for (int bits = thresholdMask; bits != 0; bits &= bits - 1) {
+            final int ordinal = Integer.numberOfTrailingZeros(bits);
+            if (scores.get(ordinal) < minChannelScores[ordinal]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkLoadOptions{" +
+                "minCombinedScore=" + minCombinedScore +
+                ", thresholds=" + Arrays.toString(minChannelScores) +
+                ", channels=" + EvidenceType.fromMask(channelMask) +
+                ", compressed=" + compressed +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private int minCombinedScore;
+        private final short[] minChannelScores = new short[EvidenceType.values().length];
+        private int thresholdMask;
+        private int channelMask = EvidenceType.CHANNEL_MASK;
+        private boolean compressed;
+
+        Builder() {
+        }
+
+        /**
+         * @param score ie 400 for medium, 700 for high confidence
+         */
+        public Builder minCombinedScore(int score) {
+            checkScore(score);
+            this.minCombinedScore = score;
+            return this;
+        }
+
+        /**
+         * @param score links with a lower score in the channel (or no evidence at all) are skipped, 0 removes the threshold
+         */
+        public Builder minScore(EvidenceType type, int score) {
+            checkScore(score);
+            if (type == EvidenceType.COMBINED_TRANSFERRED) {
+                throw new IllegalArgumentException(type + " isn't a channel");
+            }
+            minChannelScores[type.ordinal()] = (short) score;
+            if (score > 0) {
+                thresholdMask |= type.mask();
+            } else {
+                thresholdMask &= ~type.mask();
+            }
+            return this;
+        }
+
+        /**
+         * @param channels keep only the scores of these channels
+         */
+        public Builder channels(Set<EvidenceType> channels) {
+            this.channelMask = EvidenceType.mask(channels) & EvidenceType.CHANNEL_MASK;
+            return this;
+        }
+
+        /**
+         * @param compressed load the network into a {@link CompressedNetworkGraph}
+         */
+        public Builder compressed(boolean compressed) {
+            this.compressed = compressed;
+            return this;
+        }
+
+        private static void checkScore(int score) {
+            if (score < 0 || score > 1000) {
+                throw new IllegalArgumentException("invalid score value: " + score);
+            }
+        }
+
+        public NetworkLoadOptions build() {
+            return new NetworkLoadOptions(minCombinedScore, minChannelScores.clone(), thresholdMask, channelMask, compressed);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protein links from {@code network.node_node_links}.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface NetworkRepository {
+
+    /**
+     * @return {score_id -> score type} map of the {@code network.score_types_user_friendly} table
+     */
+    Map<Integer, String> loadScoreTypes();
+
+    /**
+     * load all links between {@code speciesId} proteins
+     *
+     * @param speciesId must not be null
+     * @return network with all evidence channels
+     */
+    NetworkGraph loadNetwork(Integer speciesId);
+
+    /**
+     * load the links between {@code speciesId} proteins that pass the thresholds of {@code options}
+     *
+     * @param speciesId must not be null
+     * @param options   ie {@code NetworkLoadOptions.builder().minCombinedScore(700).build()}
+     * @return network with the channels selected by {@code options}
+     */
+    NetworkGraph loadNetwork(Integer speciesId, NetworkLoadOptions options);
+
+    /**
+     * Stream all links between {@code speciesId} proteins (through a DB cursor), without keeping them in memory.
+     *
+     * @param speciesId must not be null
+     * @param handler   called for every link, on the calling thread
+     */
+    void streamLinks(Integer speciesId, LinkHandler handler);
+
+    /**
+     * Same as {@link #streamLinks(Integer, LinkHandler)}, only the links passing the thresholds of {@code options}
+     * are handed over, with the channels selected by {@code options}.
+     */
+    void streamLinks(Integer speciesId, NetworkLoadOptions options, LinkHandler handler);
+
+    /**
+     * Callback for {@link #streamLinks(Integer, LinkHandler)}.
+     */
+    interface LinkHandler {
+        void link(StringDbScores scores, int combinedScore);
+    }
+
+    /**
+     * SQL side of a top-K query: the links of the protein with the highest (stored) combined scores,
+     * to be re-ranked over a subset of channels with {@link TopPartners#topK(int, Iterable, int)}.
+     * The result is partial if the channel subset ranks some link outside of these {@code limit} higher.
+     *
+     * @param proteinId
+     * @param limit     max number of links
+     * @return links with {@code proteinId} as protein A, highest combined score first
+     */
+    List<StringDbScores> loadTopPartners(Integer proteinId, int limit);
+
+    /**
+     * Scores of the {@code (proteinsA[i], proteinsB[i])} pairs, in one query.
+     *
+     * @param proteinsA
+     * @param proteinsB same length as {@code proteinsA}
+     * @return scores of every pair, pairs without a link are marked as missing
+     */
+    PairScores loadPairScores(int[] proteinsA, int[] proteinsB);
+}
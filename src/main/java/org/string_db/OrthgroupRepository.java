@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Orthologous groups from {@code items.orthgroups} and {@code items.proteins_orthgroups}.
+ * <p/>
+ * Memberships are returned as {@link IntAdjacency} so that walking from the proteins of
+ * one species to their orthologs in other species doesn't allocate per-member objects.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface OrthgroupRepository {
+
+    /**
+     * @param speciesId must not be null
+     * @return {protein_id -> orthgroup_ids} adjacency of all {@code speciesId} proteins
+     */
+    IntAdjacency loadProteinOrthgroups(Integer speciesId);
+
+    /**
+     * load members (from all species) of every orthgroup that has at least one
+     * {@code speciesId} protein
+     *
+     * @param speciesId must not be null
+     * @return {orthgroup_id -> protein_ids} adjacency
+     */
+    IntAdjacency loadOrthgroupMembers(Integer speciesId);
+
+    /**
+     * load members (from all species) of these orthgroups
+     *
+     * @param orthgroupIds
+     * @return {orthgroup_id -> protein_ids} adjacency
+     */
+    IntAdjacency loadOrthgroupMembers(Collection<Integer> orthgroupIds);
+
+    /**
+     * @param orthgroupIds
+     * @return {orthgroup_id -> species_ids} adjacency from {@code items.orthgroups_species}
+     */
+    IntAdjacency loadOrthgroupSpecies(Collection<Integer> orthgroupIds);
+
+    /**
+     * @param speciesId must not be null
+     * @return {orthgroup_id -> orthgroup_external_id} map of all orthgroups with {@code speciesId} proteins
+     */
+    Map<Integer, String> loadOrthgroupExternalIds(Integer speciesId);
+}
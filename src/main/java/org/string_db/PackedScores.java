@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+/**
+ * Mutable, reusable holder for the channel scores of one link: one {@code short} per
+ * {@link EvidenceType} plus the {@link EvidenceType#mask() mask} of the channels with a score
+ * greater than 0. Filled by {@link EvidenceScoresDecoder} so decoding a row of
+ * {@code network.node_node_links} doesn't allocate anything.
+ * <p/>
+ * Not thread-safe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class PackedScores {
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+
+    private final short[] scores = new short[TYPES.length];
+    private int presenceMask;
+
+    /**
+     * remove all scores
+     */
+    public PackedScores clear() {
+        for (int bits = presenceMask; bits != 0; bits &= bits - 1) {
+            scores[Integer.numberOfTrailingZeros(bits)] = 0;
+        }
+        presenceMask = 0;
+        return this;
+    }
+
+    /**
+     * @param score 0..1000, 0 removes the channel
+     */
+    public PackedScores set(EvidenceType type, int score) {
+        if (score < 0 || score > 1000) {
+            throw new IllegalArgumentException("invalid score value: " + score);
+        }
+        scores[type.ordinal()] = (short) score;
+        if (score > 0) {
+            presenceMask |= type.mask();
+        } else {
+            presenceMask &= ~type.mask();
+        }
+        return this;
+    }
+
+    /**
+     * @return score of the channel, 0 if none
+     */
+    public int get(EvidenceType type) {
+        return scores[type.ordinal()];
+    }
+
+    int get(int ordinal) {
+        return scores[ordinal];
+    }
+
+    /**
+     * remove the scores of all channels not in {@code channelMask}
+     */
+    public PackedScores retain(int channelMask) {
+        for (int bits = presenceMask & ~channelMask; bits != 0; bits &= bits - 1) {
+            scores[Integer.numberOfTrailingZeros(bits)] = 0;
+        }
+        presenceMask &= channelMask;
+        return this;
+    }
+
+    /**
+     * @return {@link EvidenceType#mask()} bits of the channels with a score greater than 0
+     */
+    public int getPresenceMask() {
+        return presenceMask;
+    }
+
+    public boolean hasAny(int channelMask) {
+        return (presenceMask & channelMask) != 0;
+    }
+
+    /**
+     * @return an immutable copy, channels with score 0 are left out
+     */
+    public StringDbScores toScores(Integer proteinA, Integer proteinB) {
+        final StringDbScores.Builder builder = StringDbScores.builder(proteinA, proteinB);
+        for (int bits = presenceMask; bits != 0; bits &= bits - 1) {
+            final int ordinal = Integer.numberOfTrailingZeros(bits);
+            builder.with(TYPES[ordinal], (int) scores[ordinal]);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PackedScores{");
+        for (int bits = presenceMask; bits != 0; bits &= bits - 1) {
+            final int ordinal = Integer.numberOfTrailingZeros(bits);
+            if (sb.length() > 13) sb.append(", ");
+            sb.append(TYPES[ordinal]).append('=').append(scores[ordinal]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.BitSet;
+
+/**
+ * Scores of an explicit list of protein pairs, ie from a hit list: pair {@code i} is
+ * {@code (proteinA(i), proteinB(i))}. Pairs that aren't linked are marked in the {@link #getMissing() missing}
+ * bitmap, their scores are all 0.
+ * <p/>
+ * Scores are stored in parallel {@code short[]}s, one per channel that any of the pairs has evidence in.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class PairScores {
+    private static final EvidenceType[] TYPES = EvidenceType.values();
+
+    private final int[] proteinsA;
+    private final int[] proteinsB;
+    private final short[] combinedScores;
+    /**
+     * indexed by {@link EvidenceType#ordinal()}, null if no pair has evidence in the channel
+     */
+    private final short[][] channelScores;
+    private final BitSet missing;
+
+    private PairScores(int[] proteinsA, int[] proteinsB, short[] combinedScores, short[][] channelScores, BitSet missing) {
+        this.proteinsA = proteinsA;
+        this.proteinsB = proteinsB;
+        this.combinedScores = combinedScores;
+        this.channelScores = channelScores;
+        this.missing = missing;
+    }
+
+    public int size() {
+        return proteinsA.length;
+    }
+
+    public int proteinA(int pair) {
+        return proteinsA[pair];
+    }
+
+    public int proteinB(int pair) {
+        return proteinsB[pair];
+    }
+
+    /**
+     * @return true if the proteins of the pair aren't linked
+     */
+    public boolean isMissing(int pair) {
+        return missing.get(pair);
+    }
+
+    /**
+     * @return a copy of the bitmap of the pairs that aren't linked
+     */
+    public BitSet getMissing() {
+        return (BitSet) missing.clone();
+    }
+
+    /**
+     * @return combined score of the pair, 0 if missing
+     */
+    public int combinedScore(int pair) {
+        return combinedScores[pair];
+    }
+
+    /**
+     * @return score of the pair in this channel, 0 if none
+     */
+    public int score(int pair, EvidenceType type) {
+        final short[] scores = channelScores[type.ordinal()];
+        return scores == null ? 0 : scores[pair];
+    }
+
+    /**
+     * @param into cleared first
+     * @return {@code into} with the channel scores of the pair
+     */
+    public PackedScores scores(int pair, PackedScores into) {
+        into.clear();
+        for (int c = 0; c < TYPES.length; c++) {
+            if (channelScores[c] != null && channelScores[c][pair] > 0) into.set(TYPES[c], channelScores[c][pair]);
+        }
+        return into;
+    }
+
+    /**
+     * @throws IllegalStateException if the pair is missing
+     */
+    public StringDbScores toScores(int pair) {
+        if (missing.get(pair)) {
+            throw new IllegalStateException("no link between " + proteinsA[pair] + " and " + proteinsB[pair]);
+        }
+        return scores(pair, new PackedScores()).toScores(proteinsA[pair], proteinsB[pair]);
+    }
+
+    @Override
+    public String toString() {
+        return "PairScores{" +
+                "pairs=" + proteinsA.length +
+                ", missing=" + missing.cardinality() +
+                '}';
+    }
+
+    /**
+     * In-memory lookup, one binary search per pair.
+     */
+    public static PairScores lookup(CsrNetworkGraph graph, int[] proteinsA, int[] proteinsB) {
+        final Builder builder = builder(proteinsA, proteinsB);
+        for (int i = 0; i < proteinsA.length; i++) {
+            final int a = graph.nodeOf(proteinsA[i]);
+            final int b = graph.nodeOf(proteinsB[i]);
+            if (a < 0 || b < 0) continue;
+            final int edge = graph.findEdge(a, b);
+            if (edge < 0) continue;
+            builder.combinedScore(i, graph.combinedScore(edge));
+            for (EvidenceType type : TYPES) {
+                if (graph.hasChannel(type)) builder.score(i, type, graph.score(edge, type));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param proteinsA first protein of every pair
+     * @param proteinsB second protein of every pair, same length as {@code proteinsA}
+     * @return builder with all pairs missing
+     */
+    public static Builder builder(int[] proteinsA, int[] proteinsB) {
+        return new Builder(proteinsA, proteinsB);
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final int[] proteinsA;
+        private final int[] proteinsB;
+        private final short[] combinedScores;
+        private final short[][] channelScores = new short[TYPES.length][];
+        private final BitSet missing;
+
+        Builder(int[] proteinsA, int[] proteinsB) {
+            if (proteinsA.length != proteinsB.length) {
+                throw new IllegalArgumentException("got " + proteinsA.length + " A and " + proteinsB.length + " B proteins");
+            }
+            this.proteinsA = proteinsA.clone();
+            this.proteinsB = proteinsB.clone();
+            this.combinedScores = new short[proteinsA.length];
+            this.missing = new BitSet(proteinsA.length);
+            missing.set(0, proteinsA.length);
+        }
+
+        /**
+         * mark the pair as found
+         */
+        public Builder combinedScore(int pair, int score) {
+            checkScore(score);
+            combinedScores[pair] = (short) score;
+            missing.clear(pair);
+            return this;
+        }
+
+        public Builder score(int pair, EvidenceType type, int score) {
+            checkScore(score);
+            if (score == 0) return this;
+            final int c = type.ordinal();
+            if (channelScores[c] == null) channelScores[c] = new short[proteinsA.length];
+            channelScores[c][pair] = (short) score;
+            return this;
+        }
+
+        /**
+         * mark the pair as found, with all the channel scores
+         */
+        public Builder scores(int pair, int combinedScore, PackedScores scores) {
+            combinedScore(pair, combinedScore);
+            for (int bits = scores.getPresenceMask(); bits != 0; bits &= bits - 1) {
+                final EvidenceType type = TYPES[Integer.numberOfTrailingZeros(bits)];
+                score(pair, type, scores.get(type));
+            }
+            return this;
+        }
+
+        private static void checkScore(int score) {
+            if (score < 0 || score > 1000) {
+                throw new IllegalArgumentException("invalid score value: " + score);
+            }
+        }
+
+        public PairScores build() {
+            return new PairScores(proteinsA, proteinsB, combinedScores, channelScores, missing);
+        }
+    }
+}
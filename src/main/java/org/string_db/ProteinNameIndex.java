@@ -0,0 +1,273 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Case-insensitive inverted index {protein name -> protein_ids} of one species.
+ * <p/>
+ * All distinct (lower-cased) names are sorted and concatenated into one {@code char[]},
+ * the protein_ids of the name with rank {@code r} are stored in an {@link IntAdjacency}
+ * under key {@code r}. Lookups are binary searches that lower-case the query char by char,
+ * so resolving a name doesn't allocate anything except for the result.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class ProteinNameIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final Integer speciesId;
+    private final char[] chars;
+    /**
+     * name with rank {@code r} is {@code chars[nameOffsets[r] .. nameOffsets[r + 1] - 1]}
+     */
+    private final int[] nameOffsets;
+    /**
+     * {name rank -> protein_ids}, every rank is a key so rank == key index
+     */
+    private final IntAdjacency postings;
+
+    private ProteinNameIndex(Integer speciesId, char[] chars, int[] nameOffsets, IntAdjacency postings) {
+        this.speciesId = speciesId;
+        this.chars = chars;
+        this.nameOffsets = nameOffsets;
+        this.postings = postings;
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    /**
+     * @return number of distinct names
+     */
+    public int size() {
+        return nameOffsets.length - 1;
+    }
+
+    /**
+     * @param name protein name, external id, UniProt AC... (case-insensitive)
+     * @return sorted protein_ids, empty if the name is unknown
+     */
+    public int[] resolve(CharSequence name) {
+        final int rank = find(name);
+        if (rank < 0) return EMPTY;
+        return postingsOf(rank);
+    }
+
+    /**
+     * Resolve a batch of names.
+     *
+     * @param names
+     * @return {position in {@code names} -> protein_ids}, names that couldn't be resolved are missing
+     */
+    public IntAdjacency resolve(List<? extends CharSequence> names) {
+        final IntAdjacency.Builder builder = new IntAdjacency.Builder(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            final int rank = find(names.get(i));
+            if (rank < 0) continue;
+            for (int p = postings.start(rank); p < postings.end(rank); p++) {
+                builder.add(i, postings.member(p));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param prefix (case-insensitive), must not be empty
+     * @return sorted protein_ids of all names starting with {@code prefix}
+     */
+    public int[] resolvePrefix(CharSequence prefix) {
+        if (prefix.length() == 0) {
+            throw new IllegalArgumentException("empty prefix");
+        }
+        final int from = lowerBound(prefix, false);
+        final int to = lowerBound(prefix, true);
+        if (from == to) return EMPTY;
+        if (to - from == 1) return postingsOf(from);
+        final int[] ids = new int[postings.start(to) - postings.start(from)];
+        int n = 0;
+        for (int p = postings.start(from); p < postings.start(to); p++) {
+            ids[n++] = postings.member(p);
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * @param prefix (case-insensitive)
+     * @param limit  max number of names to return, {@code Integer.MAX_VALUE} for all
+     * @return (lower-cased) names starting with {@code prefix}, in alphabetical order
+     */
+    public List<String> completions(CharSequence prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit: " + limit);
+        }
+        final int from = lowerBound(prefix, false);
+        final int to = (int) Math.min(lowerBound(prefix, true), (long) from + limit);
+        final List<String> names = new ArrayList<>(Math.max(to - from, 0));
+        for (int rank = from; rank < to; rank++) {
+            names.add(new String(chars, nameOffsets[rank], nameOffsets[rank + 1] - nameOffsets[rank]));
+        }
+        return names;
+    }
+
+    private int[] postingsOf(int rank) {
+        final int[] ids = new int[postings.degree(rank)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = postings.member(postings.start(rank) + i);
+        }
+        return ids;
+    }
+
+    /**
+     * @return rank of the name or a negative value if there is no such name
+     */
+    private int find(CharSequence name) {
+        final int rank = lowerBound(name, false);
+        if (rank < size() && compare(rank, name, false) == 0) return rank;
+        return -1;
+    }
+
+    /**
+     * @param afterPrefix if true, skip all names starting with {@code query} as well
+     * @return first rank whose name isn't ordered before {@code query}
+     */
+    private int lowerBound(CharSequence query, boolean afterPrefix) {
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int cmp = compare(mid, query, afterPrefix);
+            if (cmp < 0 || (afterPrefix && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @param asPrefix if true, a name starting with {@code query} compares as equal
+     */
+    private int compare(int rank, CharSequence query, boolean asPrefix) {
+        final int from = nameOffsets[rank];
+        final int length = nameOffsets[rank + 1] - from;
+        final int n = Math.min(length, query.length());
+        for (int i = 0; i < n; i++) {
+            final char c = chars[from + i];
+            final char q = Character.toLowerCase(query.charAt(i));
+            if (c != q) return c - q;
+        }
+        if (asPrefix && length >= query.length()) return 0;
+        return length - query.length();
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        return 2L * chars.length + 4L * nameOffsets.length + postings.memoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "ProteinNameIndex{" +
+                "speciesId=" + speciesId +
+                ", names=" + size() +
+                ", postings=" + postings.memberCount() +
+                '}';
+    }
+
+    static String lowerCase(String name) {
+        final char[] lower = new char[name.length()];
+        for (int i = 0; i < lower.length; i++) {
+            lower[i] = Character.toLowerCase(name.charAt(i));
+        }
+        return new String(lower);
+    }
+
+    public static Builder builder(Integer speciesId) {
+        return new Builder(speciesId);
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Integer speciesId;
+        private final Map<String, Integer> names = new HashMap<>();
+        private int[] nameIndices = new int[1024];
+        private int[] proteinIds = new int[1024];
+        private int size;
+
+        Builder(Integer speciesId) {
+            this.speciesId = speciesId;
+        }
+
+        public Builder add(String name, int proteinId) {
+            final String key = lowerCase(name);
+            Integer index = names.get(key);
+            if (index == null) {
+                index = names.size();
+                names.put(key, index);
+            }
+            if (size == nameIndices.length) {
+                nameIndices = Arrays.copyOf(nameIndices, size + (size >> 1));
+                proteinIds = Arrays.copyOf(proteinIds, size + (size >> 1));
+            }
+            nameIndices[size] = index;
+            proteinIds[size] = proteinId;
+            size++;
+            return this;
+        }
+
+        public ProteinNameIndex build() {
+            final String[] sorted = names.keySet().toArray(new String[names.size()]);
+            Arrays.sort(sorted);
+            final int[] rankOf = new int[sorted.length];
+            final int[] nameOffsets = new int[sorted.length + 1];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                rankOf[names.get(sorted[rank])] = rank;
+                nameOffsets[rank + 1] = nameOffsets[rank] + sorted[rank].length();
+            }
+            final char[] chars = new char[nameOffsets[sorted.length]];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                sorted[rank].getChars(0, sorted[rank].length(), chars, nameOffsets[rank]);
+            }
+            final IntAdjacency.Builder postings = new IntAdjacency.Builder(size);
+            for (int i = 0; i < size; i++) {
+                postings.add(rankOf[nameIndices[i]], proteinIds[i]);
+            }
+            return new ProteinNameIndex(speciesId, chars, nameOffsets, postings.build());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.List;
+
+/**
+ * Resolves user input (gene symbols, UniProt ACs, external ids...) back to protein_ids.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public interface ProteinNameResolver {
+
+    /**
+     * @param speciesId must not be null
+     * @return index of all {@code speciesId} protein names, built once and shared between callers
+     */
+    ProteinNameIndex getNameIndex(Integer speciesId);
+
+    /**
+     * @param speciesId must not be null
+     * @param names     case-insensitive
+     * @return {position in {@code names} -> protein_ids}, names that couldn't be resolved are missing
+     */
+    IntAdjacency resolve(Integer speciesId, List<String> names);
+}
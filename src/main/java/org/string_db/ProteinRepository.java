@@ -18,8 +18,10 @@
 
 package org.string_db;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
@@ -32,6 +34,12 @@ public interface ProteinRepository {
      */
     Map<Integer, ProteinExternalId> loadExternalIds(Integer speciesId);
 
+    /**
+     * @param speciesId must not be null
+     * @return {protein_external_id -> protein_id} index of all {@code speciesId} proteins
+     */
+    ExternalIdIndex loadExternalIdIndex(Integer speciesId);
+
     /**
      * load protein names for this species
      *
@@ -65,6 +73,31 @@ public interface ProteinRepository {
      */
     Map<Integer, String> loadProteinSequences(Integer speciesId);
 
+    /**
+     * load all protein sequences for this species into a k-mer index, for peptide lookups
+     *
+     * @param speciesId
+     * @param pool      indexes the k-mers, owned by the caller; null to index in the calling thread
+     * @return sequences of all {@code speciesId} proteins that have one
+     */
+    SequenceIndex loadSequenceIndex(Integer speciesId, ForkJoinPool pool);
+
+    /**
+     * Stream all {@code speciesId} proteins that have a sequence (through a DB cursor), ordered by protein_id,
+     * without keeping them in memory.
+     *
+     * @param speciesId must not be null
+     * @param handler   called for every protein, on the calling thread
+     */
+    void streamSequences(Integer speciesId, SequenceHandler handler);
+
+    /**
+     * Callback for {@link #streamSequences(Integer, SequenceHandler)}.
+     */
+    interface SequenceHandler {
+        void sequence(int proteinId, String externalId, String preferredName, String annotation, String sequence);
+    }
+
     /**
      * load unique (1:1) mapping of protein_ids-UniProt_ids  for this species
      *
@@ -73,6 +106,17 @@ public interface ProteinRepository {
      */
     Map<Integer, UniprotAC> loadUniqueUniProtIds(Integer speciesId);
 
+    /**
+     * Resolve a batch of identifiers (protein names, UniProt ACs...) against {@code items.proteins_names}.
+     * The batch is sent in chunks, one round trip per chunk, so memory stays bounded for any input size.
+     * Matching is exact (case-sensitive).
+     *
+     * @param speciesId   must not be null
+     * @param identifiers to resolve, duplicates are ignored
+     * @return {identifier -> Set(protein_ids)} map, unresolved identifiers are missing
+     */
+    Map<String, Set<Integer>> resolveProteinIds(Integer speciesId, Collection<String> identifiers);
+
     /**
      * @param speciesId
      * @return total number of proteins for this <code>speciesId</code>
@@ -0,0 +1,495 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Protein sequences of one species ({@code items.proteins_sequences}) with a k-mer index,
+ * for peptide lookups and exact duplicate detection without scanning every sequence.
+ * <p/>
+ * Residues are encoded into 5-bit codes (one per byte) and stored back to back, sequences sorted by
+ * protein_id; the sequence of protein {@code s} is {@code residues[sequenceOffsets[s] .. sequenceOffsets[s + 1] - 1]}.
+ * Every window of {@link #K} residues is a k-mer, packed into an int (5 bits per residue); the distinct
+ * k-mers are sorted and the positions (into {@code residues}) where each one starts are stored in CSR form,
+ * sorted, so postings are also grouped by protein.
+ * <p/>
+ * A peptide of at least {@link #K} residues is looked up by its rarest k-mer, the candidate
+ * positions are then verified residue by residue. Shorter peptides fall back to a scan of
+ * the packed residues.
+ * <p/>
+ * The class is immutable => @ThreadSafe. See {@link SequenceIndexFile} to persist it.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class SequenceIndex {
+    public static final int K = 5;
+    static final int BITS = 5;
+    /**
+     * residue codes, anything else (ie '*') is encoded as 'X'
+     */
+    static final String ALPHABET = "ACDEFGHIKLMNPQRSTVWYXBZUO";
+    private static final byte[] CODES = new byte[128];
+    private static final int[] EMPTY = new int[0];
+    /**
+     * k-mers indexed per fork/join task
+     */
+    static final int BATCH_SIZE = 1 << 16;
+
+    static {
+        Arrays.fill(CODES, (byte) ALPHABET.indexOf('X'));
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            CODES[ALPHABET.charAt(i)] = (byte) i;
+            CODES[Character.toLowerCase(ALPHABET.charAt(i))] = (byte) i;
+        }
+    }
+
+    final Integer speciesId;
+    /**
+     * sorted
+     */
+    final int[] proteinIds;
+    final int[] sequenceOffsets;
+    final byte[] residues;
+    /**
+     * distinct k-mers, sorted
+     */
+    final int[] kmers;
+    /**
+     * positions of k-mer {@code i} are {@code positions[kmerOffsets[i] .. kmerOffsets[i + 1] - 1]}
+     */
+    final int[] kmerOffsets;
+    final int[] positions;
+
+    SequenceIndex(Integer speciesId, int[] proteinIds, int[] sequenceOffsets, byte[] residues,
+                  int[] kmers, int[] kmerOffsets, int[] positions) {
+        if (sequenceOffsets.length != proteinIds.length + 1 || kmerOffsets.length != kmers.length + 1) {
+            throw new IllegalArgumentException("offsets don't match, proteins: " + proteinIds.length + ", k-mers: " + kmers.length);
+        }
+        this.speciesId = speciesId;
+        this.proteinIds = proteinIds;
+        this.sequenceOffsets = sequenceOffsets;
+        this.residues = residues;
+        this.kmers = kmers;
+        this.kmerOffsets = kmerOffsets;
+        this.positions = positions;
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    /**
+     * @return number of proteins
+     */
+    public int size() {
+        return proteinIds.length;
+    }
+
+    public int residueCount() {
+        return residues.length;
+    }
+
+    /**
+     * @return number of distinct k-mers
+     */
+    public int kmerCount() {
+        return kmers.length;
+    }
+
+    /**
+     * @return the (upper-case) sequence, non-standard residues as 'X', or null if the protein isn't in the index
+     */
+    public String sequence(int proteinId) {
+        final int s = Arrays.binarySearch(proteinIds, proteinId);
+        if (s < 0) return null;
+        final char[] sequence = new char[sequenceOffsets[s + 1] - sequenceOffsets[s]];
+        for (int i = 0; i < sequence.length; i++) {
+            sequence[i] = ALPHABET.charAt(residues[sequenceOffsets[s] + i]);
+        }
+        return new String(sequence);
+    }
+
+    /**
+     * @param peptide amino acids (case-insensitive), must not be empty
+     * @return sorted protein_ids whose sequence contains the {@code peptide}
+     */
+    public int[] proteinsContaining(CharSequence peptide) {
+        return find(encode(peptide), false);
+    }
+
+    /**
+     * @param sequence complete sequence (case-insensitive), must not be empty
+     * @return sorted protein_ids with exactly this sequence
+     */
+    public int[] proteinsWithSequence(CharSequence sequence) {
+        return find(encode(sequence), true);
+    }
+
+    /**
+     * @return groups (of at least two) of protein_ids with identical sequences, each group sorted,
+     * groups in the order of their first protein_id
+     */
+    public List<int[]> duplicates() {
+        final long[] hashes = new long[proteinIds.length];
+        for (int s = 0; s < proteinIds.length; s++) {
+            hashes[s] = ((long) hash(s) << 32) | s;
+        }
+        Arrays.sort(hashes);
+        final List<int[]> groups = new ArrayList<>();
+        final boolean[] grouped = new boolean[proteinIds.length];
+        for (int i = 0; i < hashes.length; ) {
+            int j = i + 1;
+            while (j < hashes.length && (hashes[j] >>> 32) == (hashes[i] >>> 32)) j++;
+            //same hash, split by content (collisions are rare)
+            for (int a = i; a < j; a++) {
+                final int first = (int) hashes[a];
+                if (grouped[first]) continue;
+                int[] group = new int[]{proteinIds[first]};
+                for (int b = a + 1; b < j; b++) {
+                    final int other = (int) hashes[b];
+                    if (!grouped[other] && sameSequence(first, other)) {
+                        grouped[other] = true;
+                        group = Arrays.copyOf(group, group.length + 1);
+                        group[group.length - 1] = proteinIds[other];
+                    }
+                }
+                if (group.length > 1) groups.add(group);
+            }
+            i = j;
+        }
+        //sequences are in protein_id order and hashes sort ties by sequence, so every group is sorted already
+        Collections.sort(groups, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return Integer.compare(a[0], b[0]);
+            }
+        });
+        return groups;
+    }
+
+    private int hash(int s) {
+        int h = 1;
+        for (int p = sequenceOffsets[s]; p < sequenceOffsets[s + 1]; p++) {
+            h = 31 * h + residues[p];
+        }
+        return h;
+    }
+
+    private boolean sameSequence(int a, int b) {
+        final int length = sequenceOffsets[a + 1] - sequenceOffsets[a];
+        if (length != sequenceOffsets[b + 1] - sequenceOffsets[b]) return false;
+        for (int i = 0; i < length; i++) {
+            if (residues[sequenceOffsets[a] + i] != residues[sequenceOffsets[b] + i]) return false;
+        }
+        return true;
+    }
+
+    private int[] find(byte[] query, boolean whole) {
+        if (query.length < K) return scan(query, whole);
+        //the rarest k-mer of the query has the fewest candidates to verify
+        int best = -1;
+        int bestShift = 0;
+        int kmer = 0;
+        for (int i = 0; i < query.length; i++) {
+            kmer = next(kmer, query[i]);
+            if (i < K - 1) continue;
+            final int index = Arrays.binarySearch(kmers, kmer);
+            if (index < 0) return EMPTY;
+            if (best < 0 || degree(index) < degree(best)) {
+                best = index;
+                bestShift = i - K + 1;
+            }
+        }
+        final int[] result = new int[degree(best)];
+        int n = 0;
+        int s = 0;
+        for (int p = kmerOffsets[best]; p < kmerOffsets[best + 1]; p++) {
+            final int start = positions[p] - bestShift;
+            //positions are sorted, so is the sequence they fall into
+            while (sequenceOffsets[s + 1] <= positions[p]) s++;
+            if (n > 0 && result[n - 1] == proteinIds[s]) continue;
+            if (start >= sequenceOffsets[s] && matches(query, start, s, whole)) {
+                result[n++] = proteinIds[s];
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private int[] scan(byte[] query, boolean whole) {
+        final int[] result = new int[proteinIds.length];
+        int n = 0;
+        for (int s = 0; s < proteinIds.length; s++) {
+            final int last = whole ? sequenceOffsets[s] : sequenceOffsets[s + 1] - query.length;
+            for (int start = sequenceOffsets[s]; start <= last; start++) {
+                if (matches(query, start, s, whole)) {
+                    result[n++] = proteinIds[s];
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private boolean matches(byte[] query, int start, int s, boolean whole) {
+        if (whole && (start != sequenceOffsets[s] || query.length != sequenceOffsets[s + 1] - start)) return false;
+        if (start + query.length > sequenceOffsets[s + 1]) return false;
+        for (int i = 0; i < query.length; i++) {
+            if (residues[start + i] != query[i]) return false;
+        }
+        return true;
+    }
+
+    private int degree(int kmerIndex) {
+        return kmerOffsets[kmerIndex + 1] - kmerOffsets[kmerIndex];
+    }
+
+    /**
+     * @return approximate heap size, in bytes
+     */
+    public long memoryBytes() {
+        return residues.length + 4L * (proteinIds.length + sequenceOffsets.length
+                + kmers.length + kmerOffsets.length + positions.length);
+    }
+
+    @Override
+    public String toString() {
+        return "SequenceIndex{" +
+                "speciesId=" + speciesId +
+                ", proteins=" + proteinIds.length +
+                ", residues=" + residues.length +
+                ", kmers=" + kmers.length +
+                '}';
+    }
+
+    private static int next(int kmer, byte code) {
+        return ((kmer << BITS) | code) & ((1 << (BITS * K)) - 1);
+    }
+
+    private static byte[] encode(CharSequence sequence) {
+        if (sequence.length() == 0) {
+            throw new IllegalArgumentException("empty sequence");
+        }
+        final byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = code(sequence.charAt(i));
+        }
+        return codes;
+    }
+
+    private static byte code(char residue) {
+        return residue < CODES.length ? CODES[residue] : CODES['X'];
+    }
+
+    public static Builder builder(Integer speciesId) {
+        return new Builder(speciesId);
+    }
+
+    /**
+     * Writes the (k-mer, position) pairs of sequences {@code from .. to - 1} into their slice of {@code entries}.
+     */
+    private static final class Fill extends RecursiveAction {
+        private final int[] sequenceOffsets;
+        private final byte[] residues;
+        /**
+         * k-mers of sequence {@code s} go to {@code entries[entryOffsets[s] .. entryOffsets[s + 1] - 1]}
+         */
+        private final int[] entryOffsets;
+        private final long[] entries;
+        private final int from;
+        private final int to;
+
+        Fill(int[] sequenceOffsets, byte[] residues, int[] entryOffsets, long[] entries, int from, int to) {
+            this.sequenceOffsets = sequenceOffsets;
+            this.residues = residues;
+            this.entryOffsets = entryOffsets;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && entryOffsets[to] - entryOffsets[from] > BATCH_SIZE) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Fill(sequenceOffsets, residues, entryOffsets, entries, from, mid),
+                        new Fill(sequenceOffsets, residues, entryOffsets, entries, mid, to));
+            } else {
+                fillRange();
+            }
+        }
+
+        void fillRange() {
+            int e = entryOffsets[from];
+            for (int s = from; s < to; s++) {
+                int kmer = 0;
+                for (int p = sequenceOffsets[s]; p < sequenceOffsets[s + 1]; p++) {
+                    kmer = next(kmer, residues[p]);
+                    if (p - sequenceOffsets[s] >= K - 1) {
+                        entries[e++] = ((long) kmer << 32) | (p - K + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parallel merge sort, {@link Arrays#sort(long[], int, int)} below {@link #BATCH_SIZE}.
+     */
+    private static final class Sort extends RecursiveAction {
+        private final long[] entries;
+        private final long[] buffer;
+        private final int from;
+        private final int to;
+
+        Sort(long[] entries, long[] buffer, int from, int to) {
+            this.entries = entries;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                Arrays.sort(entries, from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new Sort(entries, buffer, from, mid), new Sort(entries, buffer, mid, to));
+            if (entries[mid - 1] <= entries[mid]) return;
+            System.arraycopy(entries, from, buffer, from, to - from);
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) entries[k++] = buffer[i] <= buffer[j] ? buffer[i++] : buffer[j++];
+            while (i < mid) entries[k++] = buffer[i++];
+            while (j < to) entries[k++] = buffer[j++];
+        }
+    }
+
+    /**
+     * Accepts sequences in any order, one per protein.
+     * <p/>
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Integer speciesId;
+        private int[] proteinIds = new int[1024];
+        private int[] offsets = new int[1025];
+        private byte[] residues = new byte[1 << 16];
+        private int size;
+
+        Builder(Integer speciesId) {
+            this.speciesId = speciesId;
+        }
+
+        public Builder add(int proteinId, CharSequence sequence) {
+            final int end = offsets[size] + sequence.length();
+            if (end < 0) {
+                throw new IllegalStateException("too many residues for one index");
+            }
+            if (size + 1 == offsets.length) {
+                proteinIds = Arrays.copyOf(proteinIds, size + (size >> 1));
+                offsets = Arrays.copyOf(offsets, size + (size >> 1) + 1);
+            }
+            if (end > residues.length) {
+                residues = Arrays.copyOf(residues, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(end, residues.length + (residues.length >> 1))));
+            }
+            for (int i = 0; i < sequence.length(); i++) {
+                residues[offsets[size] + i] = code(sequence.charAt(i));
+            }
+            proteinIds[size] = proteinId;
+            offsets[++size] = end;
+            return this;
+        }
+
+        /**
+         * Index in the calling thread.
+         */
+        public SequenceIndex build() {
+            return build(null);
+        }
+
+        /**
+         * @param pool indexes the k-mers, owned by the caller; null to index in the calling thread
+         * @throws IllegalArgumentException if a protein was added twice
+         */
+        public SequenceIndex build(ForkJoinPool pool) {
+            //sequences in protein_id order
+            final long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) proteinIds[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            final int[] sortedIds = new int[size];
+            final int[] sequenceOffsets = new int[size + 1];
+            final byte[] sortedResidues = new byte[offsets[size]];
+            for (int s = 0; s < size; s++) {
+                final int i = (int) order[s];
+                sortedIds[s] = proteinIds[i];
+                if (s > 0 && sortedIds[s] == sortedIds[s - 1]) {
+                    throw new IllegalArgumentException("duplicate protein_id " + sortedIds[s]);
+                }
+                final int length = offsets[i + 1] - offsets[i];
+                System.arraycopy(residues, offsets[i], sortedResidues, sequenceOffsets[s], length);
+                sequenceOffsets[s + 1] = sequenceOffsets[s] + length;
+            }
+
+            final int[] entryOffsets = new int[size + 1];
+            for (int s = 0; s < size; s++) {
+                entryOffsets[s + 1] = entryOffsets[s] + Math.max(0, sequenceOffsets[s + 1] - sequenceOffsets[s] - K + 1);
+            }
+            final long[] entries = new long[entryOffsets[size]];
+            final Fill fill = new Fill(sequenceOffsets, sortedResidues, entryOffsets, entries, 0, size);
+            if (pool == null || entries.length <= BATCH_SIZE) {
+                fill.fillRange();
+                Arrays.sort(entries);
+            } else {
+                pool.invoke(fill);
+                pool.invoke(new Sort(entries, new long[entries.length], 0, entries.length));
+            }
+
+            int distinct = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (i == 0 || (entries[i] >>> 32) != (entries[i - 1] >>> 32)) distinct++;
+            }
+            final int[] kmers = new int[distinct];
+            final int[] kmerOffsets = new int[distinct + 1];
+            final int[] positions = new int[entries.length];
+            int k = -1;
+            for (int i = 0; i < entries.length; i++) {
+                final int kmer = (int) (entries[i] >>> 32);
+                if (k < 0 || kmers[k] != kmer) {
+                    kmers[++k] = kmer;
+                    kmerOffsets[k] = i;
+                }
+                positions[i] = (int) entries[i];
+            }
+            kmerOffsets[distinct] = entries.length;
+            return new SequenceIndex(speciesId, sortedIds, sequenceOffsets, sortedResidues, kmers, kmerOffsets, positions);
+        }
+    }
+}
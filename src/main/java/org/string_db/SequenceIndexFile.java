@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary file of a {@link SequenceIndex}, so the k-mers of a species are indexed only once:
+ * <pre>
+ * SequenceIndexFile.write(proteinRepository.loadSequenceIndex(9606, pool), new File("9606.sequences"));
+ * SequenceIndex index = SequenceIndexFile.read(new File("9606.sequences"));
+ * </pre>
+ * Layout (big-endian), version 1:
+ * <pre>
+ * int   magic 'STRQ', int version
+ * int   species_id, int k, int proteins (N), int residues (R), int k-mers (M), int positions (P)
+ * int[N]     protein_ids, sorted
+ * int[N + 1] sequence offsets
+ * int[M]     k-mers, sorted
+ * int[M + 1] k-mer offsets
+ * int[P]     positions
+ * byte[R]    residue codes
+ * </pre>
+ * Unlike {@link NetworkFile} the arrays are read back to the heap, lookups jump around
+ * the whole index and would fault in most of the mapped pages anyway.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class SequenceIndexFile {
+    static final int MAGIC = 0x53545251;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final String KIND = "a sequence index";
+
+    private SequenceIndexFile() {
+    }
+
+    /**
+     * @param index
+     * @param file  replaced if it exists
+     */
+    public static void write(final SequenceIndex index, File file) throws IOException {
+        BinaryFiles.write(file, MAGIC, VERSION, new BinaryFiles.Body() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                out.writeInt(index.speciesId);
+                out.writeInt(SequenceIndex.K);
+                out.writeInt(index.proteinIds.length);
+                out.writeInt(index.residues.length);
+                out.writeInt(index.kmers.length);
+                out.writeInt(index.positions.length);
+                BinaryFiles.writeInts(out, index.proteinIds);
+                BinaryFiles.writeInts(out, index.sequenceOffsets);
+                BinaryFiles.writeInts(out, index.kmers);
+                BinaryFiles.writeInts(out, index.kmerOffsets);
+                BinaryFiles.writeInts(out, index.positions);
+                out.write(index.residues);
+            }
+        });
+    }
+
+    /**
+     * @throws IOException if the file isn't a sequence index file of a supported version (and k)
+     */
+    public static SequenceIndex read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer header = BinaryFiles.header(channel, file, KIND, MAGIC, VERSION, HEADER_BYTES);
+            final int speciesId = header.getInt();
+            final int k = header.getInt();
+            if (k != SequenceIndex.K) {
+                throw new IOException("sequence index file built with k=" + k + ", expected " + SequenceIndex.K + ": " + file);
+            }
+            final int proteins = header.getInt();
+            final int residues = header.getInt();
+            final int kmers = header.getInt();
+            final int positions = header.getInt();
+            final long expected = HEADER_BYTES + 4L * (2L * proteins + 1 + 2L * kmers + 1 + positions) + residues;
+            BinaryFiles.checkSize(channel, file, KIND, expected);
+            final ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, expected - HEADER_BYTES);
+            final int[] proteinIds = BinaryFiles.readInts(body, proteins);
+            final int[] sequenceOffsets = BinaryFiles.readInts(body, proteins + 1);
+            final int[] kmerKeys = BinaryFiles.readInts(body, kmers);
+            final int[] kmerOffsets = BinaryFiles.readInts(body, kmers + 1);
+            final int[] kmerPositions = BinaryFiles.readInts(body, positions);
+            final byte[] codes = new byte[residues];
+            body.get(codes);
+            return new SequenceIndex(speciesId, proteinIds, sequenceOffsets, codes, kmerKeys, kmerOffsets, kmerPositions);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+/**
+ * A row from the {@code items.species} table.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class Species {
+    private final Integer speciesId;
+    private final String officialName;
+    private final String compactName;
+    private final String kingdom;
+    private final String type;
+
+    public Species(Integer speciesId, String officialName, String compactName, String kingdom, String type) {
+        this.speciesId = speciesId;
+        this.officialName = officialName;
+        this.compactName = compactName;
+        this.kingdom = kingdom;
+        this.type = type;
+    }
+
+    public Integer getSpeciesId() {
+        return speciesId;
+    }
+
+    public String getOfficialName() {
+        return officialName;
+    }
+
+    public String getCompactName() {
+        return compactName;
+    }
+
+    /**
+     * @return bacteria, archaea or eukaryota
+     */
+    public String getKingdom() {
+        return kingdom;
+    }
+
+    /**
+     * @return core or periphery
+     */
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Species species = (Species) o;
+
+        if (!speciesId.equals(species.speciesId)) return false;
+        if (!officialName.equals(species.officialName)) return false;
+        if (!compactName.equals(species.compactName)) return false;
+        if (!kingdom.equals(species.kingdom)) return false;
+        if (!type.equals(species.type)) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = speciesId.hashCode();
+        result = 31 * result + officialName.hashCode();
+        result = 31 * result + compactName.hashCode();
+        result = 31 * result + kingdom.hashCode();
+        result = 31 * result + type.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Species{" +
+                "speciesId=" + speciesId +
+                ", officialName='" + officialName + '\'' +
+                ", kingdom='" + kingdom + '\'' +
+                ", type='" + type + '\'' +
+                '}';
+    }
+}
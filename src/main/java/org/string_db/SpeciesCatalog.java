@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An indexed snapshot of all STRING species ({@code items.species}), with alternative names from
+ * {@code items.species_names} and {@code items.species_nodes}. All lookups are hash lookups, no
+ * database access.
+ * <p/>
+ * The class is immutable => @ThreadSafe. A newer snapshot replaces an older one as a whole,
+ * there are no partial updates.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class SpeciesCatalog {
+    private final ImmutableList<Species> species;
+    private final ImmutableMap<Integer, Species> byId;
+    private final ImmutableListMultimap<String, Species> byKingdom;
+    private final ImmutableListMultimap<String, Species> byType;
+    /**
+     * lower-cased name -> species_id
+     */
+    private final ImmutableMap<String, Integer> byName;
+
+    private SpeciesCatalog(ImmutableList<Species> species, ImmutableMap<String, Integer> byName) {
+        final ImmutableMap.Builder<Integer, Species> ids = ImmutableMap.builder();
+        final ImmutableListMultimap.Builder<String, Species> kingdoms = ImmutableListMultimap.builder();
+        final ImmutableListMultimap.Builder<String, Species> types = ImmutableListMultimap.builder();
+        for (Species s : species) {
+            ids.put(s.getSpeciesId(), s);
+            kingdoms.put(s.getKingdom(), s);
+            types.put(s.getType(), s);
+        }
+        this.species = species;
+        this.byId = ids.build();
+        this.byKingdom = kingdoms.build();
+        this.byType = types.build();
+        this.byName = byName;
+    }
+
+    /**
+     * @return number of species
+     */
+    public int size() {
+        return species.size();
+    }
+
+    /**
+     * @return all species, in load order
+     */
+    public List<Species> getSpecies() {
+        return species;
+    }
+
+    /**
+     * @return null if there is no such species
+     */
+    public Species get(Integer speciesId) {
+        return byId.get(speciesId);
+    }
+
+    public boolean contains(Integer speciesId) {
+        return byId.containsKey(speciesId);
+    }
+
+    /**
+     * @param kingdom bacteria, archaea or eukaryota
+     * @return species of this kingdom, empty if none
+     */
+    public List<Species> getByKingdom(String kingdom) {
+        return byKingdom.get(kingdom);
+    }
+
+    /**
+     * @param type core or periphery
+     * @return species of this type, empty if none
+     */
+    public List<Species> getByType(String type) {
+        return byType.get(type);
+    }
+
+    public List<Integer> getSpeciesIds() {
+        return byId.keySet().asList();
+    }
+
+    public List<Integer> getCoreSpeciesIds() {
+        final ImmutableList.Builder<Integer> ids = ImmutableList.builder();
+        for (Species s : byType.get("core")) {
+            ids.add(s.getSpeciesId());
+        }
+        return ids.build();
+    }
+
+    /**
+     * @return null if there is no such species
+     */
+    public String getOfficialName(Integer speciesId) {
+        final Species s = byId.get(speciesId);
+        return s == null ? null : s.getOfficialName();
+    }
+
+    /**
+     * @return {species_id -> official_name} map
+     */
+    public Map<Integer, String> getOfficialNames() {
+        final Map<Integer, String> names = new HashMap<>();
+        for (Species s : species) {
+            names.put(s.getSpeciesId(), s.getOfficialName());
+        }
+        return names;
+    }
+
+    /**
+     * @param name official, compact or any alternative name (case-insensitive)
+     * @return species_id or null if the name is unknown
+     */
+    public Integer findByName(String name) {
+        return byName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    @Override
+    public String toString() {
+        return "SpeciesCatalog{" +
+                "species=" + species.size() +
+                ", names=" + byName.size() +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final ImmutableList.Builder<Species> species = ImmutableList.builder();
+        private final Map<Integer, Boolean> ids = new HashMap<>();
+        private final Map<String, Integer> names = new HashMap<>();
+
+        public Builder add(Species s) {
+            if (ids.put(s.getSpeciesId(), Boolean.TRUE) != null) {
+                throw new IllegalArgumentException("duplicate species: " + s);
+            }
+            species.add(s);
+            addName(s.getSpeciesId(), s.getCompactName());
+            addName(s.getSpeciesId(), s.getOfficialName());
+            return this;
+        }
+
+        /**
+         * an alternative name, ignored if the species wasn't {@link #add(Species) added} or
+         * if the name already belongs to another species
+         */
+        public Builder addName(Integer speciesId, String name) {
+            if (name == null || !ids.containsKey(speciesId)) return this;
+            final String key = name.toLowerCase(Locale.ENGLISH);
+            if (!names.containsKey(key)) {
+                names.put(key, speciesId);
+            }
+            return this;
+        }
+
+        public SpeciesCatalog build() {
+            return new SpeciesCatalog(species.build(), ImmutableMap.copyOf(names));
+        }
+    }
+}
@@ -32,4 +32,18 @@ public interface SpeciesRepository {
     String loadSpeciesName(Integer speciesId);
 
     Map<Integer, String> loadSpeciesNames();
+
+    /**
+     * load all species, with their alternative names, in one go
+     *
+     * @return immutable snapshot of {@code items.species}
+     */
+    SpeciesCatalog loadSpeciesCatalog();
+
+    /**
+     * load the species tree ({@code items.species_nodes}) with the STRING species marked
+     *
+     * @return immutable index of the whole taxonomy
+     */
+    TaxonomyIndex loadTaxonomy();
 }
@@ -41,6 +41,10 @@ public final class StringDbScores {
     protected final Integer proteinA;
     protected final Integer proteinB;
     protected final Map<EvidenceType, Integer> scores;
+    /**
+     * {@link EvidenceType#mask()} bits of the channels with a score greater than 0
+     */
+    private final int presenceMask;
     /**
      * a 'prior' that has been added to account for the probability
      * that two randomly picked proteins are interacting.
@@ -51,6 +55,7 @@ public final class StringDbScores {
         this.proteinA = proteinA;
         this.proteinB = proteinB;
         this.scores = scores;
+        this.presenceMask = presenceMask(scores);
     }
 
     /**
@@ -72,6 +77,7 @@ public final class StringDbScores {
             tmpscores.put(EvidenceType.valueOf(scoreTypes.get(key).trim().toUpperCase()), score[1]);
         }
         this.scores = Collections.unmodifiableMap(tmpscores);
+        this.presenceMask = presenceMask(tmpscores);
         this.proteinA = proteinA;
         this.proteinB = proteinB;
     }
@@ -100,6 +106,15 @@ public final class StringDbScores {
         tmpscores.put(EvidenceType.TEXTMINING, textmining);
         tmpscores.put(EvidenceType.TEXTMINING_TRANSFERRED, textminingTransferred);
         this.scores = Collections.unmodifiableMap(tmpscores);
+        this.presenceMask = presenceMask(tmpscores);
+    }
+
+    private static int presenceMask(Map<EvidenceType, Integer> scores) {
+        int mask = 0;
+        for (Map.Entry<EvidenceType, Integer> score : scores.entrySet()) {
+            if (score.getValue() != null && score.getValue() > 0) mask |= score.getKey().mask();
+        }
+        return mask;
     }
 
     /**
@@ -137,7 +152,8 @@ public final class StringDbScores {
         }
 
         public StringDbScores build() {
-            return new StringDbScores(proteinA, proteinB, Collections.unmodifiableMap(scores));
+            //copied, the presence mask of the instance must not change when the builder is reused
+            return new StringDbScores(proteinA, proteinB, Collections.unmodifiableMap(new HashMap<EvidenceType, Integer>(scores)));
         }
     }
 
@@ -153,15 +169,26 @@ public final class StringDbScores {
      * @return true if score for {@code type} is greater than 0
      */
     private boolean hasScore(EvidenceType type) {
-        if (!scores.containsKey(type)) return false;
-        return scores.get(type) > 0;
+        return type.in(presenceMask);
     }
 
     public boolean hasTransferred() {
-        for (EvidenceType type : EvidenceType.TRANSFERRED) {
-            if (hasScore(type)) return true;
-        }
-        return false;
+        return (presenceMask & EvidenceType.TRANSFERRED_MASK) != 0;
+    }
+
+    /**
+     * @return {@link EvidenceType#mask()} bits of all the channels with a score greater than 0
+     */
+    public int getPresenceMask() {
+        return presenceMask;
+    }
+
+    /**
+     * @param channelMask ie {@link EvidenceType#DIRECT_MASK}
+     * @return true if any of the channels in {@code channelMask} has a score greater than 0
+     */
+    public boolean hasAny(int channelMask) {
+        return (presenceMask & channelMask) != 0;
     }
 
     /**
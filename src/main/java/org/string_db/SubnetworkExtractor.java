@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Extracts the network around a set of proteins: all proteins within {@code hops} links of the seeds
+ * (following only links with a combined score of at least {@code minCombinedScore}) and the links between them.
+ * <p/>
+ * Expansion is breadth-first, one hop at a time. The frontier of a hop is split into chunks which are
+ * scanned in parallel on the given {@link ForkJoinPool}; each chunk collects the neighbours not yet visited
+ * into its own buffer, the buffers are then merged into the {@code visited} bitset on the calling thread.
+ * The bitset is only read while chunks run, so no synchronization is needed.
+ * <p/>
+ * @ThreadSafe, the pool is owned (and shut down) by the caller.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class SubnetworkExtractor {
+    /**
+     * frontier nodes scanned by one task
+     */
+    static final int DEFAULT_CHUNK_SIZE = 512;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public SubnetworkExtractor(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    SubnetworkExtractor(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param graph
+     * @param seedProteinIds   proteins without any links are ignored
+     * @param hops             0 for the links between the seeds only
+     * @param minCombinedScore
+     * @return subnetwork with all channel scores
+     */
+    public CsrNetworkGraph extract(CsrNetworkGraph graph, int[] seedProteinIds, int hops, int minCombinedScore) {
+        return graph.induce(expand(graph, seedProteinIds, hops, minCombinedScore), minCombinedScore);
+    }
+
+    /**
+     * @return node indices of the seeds and all nodes within {@code hops} links
+     */
+    public BitSet expand(CsrNetworkGraph graph, int[] seedProteinIds, int hops, int minCombinedScore) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("negative hops: " + hops);
+        }
+        final BitSet visited = new BitSet(graph.nodeCount());
+        int[] frontier = new int[seedProteinIds.length];
+        int size = 0;
+        for (int proteinId : seedProteinIds) {
+            final int node = graph.nodeOf(proteinId);
+            if (node >= 0 && !visited.get(node)) {
+                visited.set(node);
+                frontier[size++] = node;
+            }
+        }
+        frontier = Arrays.copyOf(frontier, size);
+        for (int hop = 0; hop < hops && frontier.length > 0; hop++) {
+            final int[] candidates = frontier.length <= chunkSize
+                    ? new Expansion(graph, frontier, 0, frontier.length, visited, minCombinedScore).compute()
+                    : pool.invoke(new Expansion(graph, frontier, 0, frontier.length, visited, minCombinedScore));
+            //chunks may have found the same node, visited filters the duplicates
+            size = 0;
+            for (int node : candidates) {
+                if (!visited.get(node)) {
+                    visited.set(node);
+                    candidates[size++] = node;
+                }
+            }
+            frontier = Arrays.copyOf(candidates, size);
+        }
+        return visited;
+    }
+
+    /**
+     * neighbours of {@code frontier[from .. to - 1]} that aren't {@code visited}, may contain duplicates
+     */
+    private final class Expansion extends RecursiveTask<int[]> {
+        private final CsrNetworkGraph graph;
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final BitSet visited;
+        private final int minCombinedScore;
+
+        Expansion(CsrNetworkGraph graph, int[] frontier, int from, int to, BitSet visited, int minCombinedScore) {
+            this.graph = graph;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.visited = visited;
+            this.minCombinedScore = minCombinedScore;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > chunkSize) {
+                final int mid = (from + to) >>> 1;
+                final Expansion left = new Expansion(graph, frontier, from, mid, visited, minCombinedScore);
+                left.fork();
+                final int[] right = new Expansion(graph, frontier, mid, to, visited, minCombinedScore).compute();
+                final int[] leftCandidates = left.join();
+                final int[] merged = Arrays.copyOf(leftCandidates, leftCandidates.length + right.length);
+                System.arraycopy(right, 0, merged, leftCandidates.length, right.length);
+                return merged;
+            }
+            int[] buffer = new int[64];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                final int node = frontier[i];
+                for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+                    if (graph.combinedScore(e) < minCombinedScore || visited.get(graph.target(e))) continue;
+                    if (size == buffer.length) buffer = Arrays.copyOf(buffer, size << 1);
+                    buffer[size++] = graph.target(e);
+                }
+            }
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+}
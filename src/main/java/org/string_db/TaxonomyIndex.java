@@ -0,0 +1,258 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The species tree from {@code items.species_nodes}, a nested-set encoding: the subtree of a node covers
+ * positions {@code [position, position + size)}. Nodes are kept in primitive arrays sorted by position,
+ * so the nodes of a subtree are one contiguous slice of them, found with a binary search.
+ * <p/>
+ * Next to the positions there is a running count of STRING species ({@code items.species}), which makes
+ * counting the species of a clade O(log n) and listing them O(log n + species in the clade).
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class TaxonomyIndex {
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * sorted
+     */
+    private final int[] positions;
+    private final int[] sizes;
+    private final int[] nodeIds;
+    private final String[] names;
+    /**
+     * {@code stringSpeciesBefore[i]} = number of STRING species among nodes {@code 0 .. i - 1}
+     */
+    private final int[] stringSpeciesBefore;
+    /**
+     * sorted node ids and the index of each node in the position order
+     */
+    private final int[] sortedNodeIds;
+    private final int[] indexOfSorted;
+
+    private TaxonomyIndex(int[] positions, int[] sizes, int[] nodeIds, String[] names, boolean[] stringSpecies) {
+        this.positions = positions;
+        this.sizes = sizes;
+        this.nodeIds = nodeIds;
+        this.names = names;
+        this.stringSpeciesBefore = new int[nodeIds.length + 1];
+        for (int i = 0; i < nodeIds.length; i++) {
+            stringSpeciesBefore[i + 1] = stringSpeciesBefore[i] + (stringSpecies[i] ? 1 : 0);
+        }
+        final long[] byId = new long[nodeIds.length];
+        for (int i = 0; i < nodeIds.length; i++) {
+            byId[i] = ((long) nodeIds[i] << 32) | i;
+        }
+        Arrays.sort(byId);
+        this.sortedNodeIds = new int[nodeIds.length];
+        this.indexOfSorted = new int[nodeIds.length];
+        for (int i = 0; i < byId.length; i++) {
+            sortedNodeIds[i] = (int) (byId[i] >>> 32);
+            indexOfSorted[i] = (int) byId[i];
+        }
+    }
+
+    /**
+     * @return number of taxonomy nodes
+     */
+    public int size() {
+        return nodeIds.length;
+    }
+
+    public boolean contains(int nodeId) {
+        return Arrays.binarySearch(sortedNodeIds, nodeId) >= 0;
+    }
+
+    /**
+     * @return name of the node, null if there's no such node
+     */
+    public String name(int nodeId) {
+        final int index = indexOf(nodeId);
+        return index < 0 ? null : names[index];
+    }
+
+    /**
+     * @return true if {@code nodeId} is {@code ancestorId} or lies in its subtree, false if either node is unknown
+     */
+    public boolean isDescendant(int nodeId, int ancestorId) {
+        final int node = indexOf(nodeId);
+        final int ancestor = indexOf(ancestorId);
+        if (node < 0 || ancestor < 0) return false;
+        return positions[node] >= positions[ancestor] && positions[node] < positions[ancestor] + sizes[ancestor];
+    }
+
+    /**
+     * @return number of STRING species in the subtree of {@code nodeId} (including the node itself)
+     */
+    public int countSpeciesUnder(int nodeId) {
+        final int node = indexOf(nodeId);
+        if (node < 0) return 0;
+        return stringSpeciesBefore[subtreeEnd(node)] - stringSpeciesBefore[node];
+    }
+
+    /**
+     * @return STRING species_ids in the subtree of {@code nodeId} (including the node itself), in tree order
+     */
+    public int[] speciesUnder(int nodeId) {
+        final int node = indexOf(nodeId);
+        if (node < 0) return EMPTY;
+        final int end = subtreeEnd(node);
+        final int[] species = new int[stringSpeciesBefore[end] - stringSpeciesBefore[node]];
+        int n = 0;
+        for (int i = node; i < end && n < species.length; i++) {
+            if (stringSpeciesBefore[i + 1] > stringSpeciesBefore[i]) species[n++] = nodeIds[i];
+        }
+        return species;
+    }
+
+    /**
+     * @return ids of the nodes whose subtree contains {@code nodeId}, from the root down, without the node itself
+     */
+    public int[] ancestors(int nodeId) {
+        final int node = indexOf(nodeId);
+        if (node < 0) return EMPTY;
+        //ancestors come before the node in position order and their subtree reaches it
+        int[] ancestors = new int[16];
+        int n = 0;
+        for (int i = 0; i < node; i++) {
+            if (positions[i] + sizes[i] > positions[node]) {
+                if (n == ancestors.length) ancestors = Arrays.copyOf(ancestors, n * 2);
+                ancestors[n++] = nodeIds[i];
+            } else {
+                //skip the whole subtree, it doesn't contain the node
+                i = subtreeEnd(i) - 1;
+            }
+        }
+        return Arrays.copyOf(ancestors, n);
+    }
+
+    /**
+     * @return index (in position order) of the node, negative if there's no such node
+     */
+    private int indexOf(int nodeId) {
+        final int sorted = Arrays.binarySearch(sortedNodeIds, nodeId);
+        return sorted < 0 ? -1 : indexOfSorted[sorted];
+    }
+
+    /**
+     * @return index of the first node after the subtree of {@code node}
+     */
+    private int subtreeEnd(int node) {
+        final int end = Arrays.binarySearch(positions, positions[node] + sizes[node]);
+        return end >= 0 ? end : -end - 1;
+    }
+
+    /**
+     * @return approximate heap size (without the names), in bytes
+     */
+    public long memoryBytes() {
+        return 4L * (6L * nodeIds.length + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "TaxonomyIndex{" +
+                "nodes=" + nodeIds.length +
+                ", species=" + stringSpeciesBefore[nodeIds.length] +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Not thread-safe.
+     */
+    public static class Builder {
+        private final Set<Integer> stringSpecies = new HashSet<>();
+        private int[] nodeIds = new int[1024];
+        private int[] positions = new int[1024];
+        private int[] sizes = new int[1024];
+        private String[] names = new String[1024];
+        private int size;
+
+        Builder() {
+        }
+
+        public Builder addNode(int nodeId, String name, int position, int subtreeSize) {
+            if (subtreeSize < 1) {
+                throw new IllegalArgumentException("node " + nodeId + " has size " + subtreeSize);
+            }
+            if (size == nodeIds.length) {
+                final int capacity = size + (size >> 1);
+                nodeIds = Arrays.copyOf(nodeIds, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            nodeIds[size] = nodeId;
+            positions[size] = position;
+            sizes[size] = subtreeSize;
+            names[size] = name;
+            size++;
+            return this;
+        }
+
+        /**
+         * mark the node as a STRING species
+         */
+        public Builder addSpecies(int speciesId) {
+            stringSpecies.add(speciesId);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if two nodes share a position
+         */
+        public TaxonomyIndex build() {
+            final long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) positions[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            final int[] sortedPositions = new int[size];
+            final int[] sortedSizes = new int[size];
+            final int[] sortedIds = new int[size];
+            final String[] sortedNames = new String[size];
+            final boolean[] species = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                final int r = (int) order[i];
+                sortedPositions[i] = positions[r];
+                if (i > 0 && sortedPositions[i] == sortedPositions[i - 1]) {
+                    throw new IllegalArgumentException("nodes " + sortedIds[i - 1] + " and " + nodeIds[r]
+                            + " share position " + positions[r]);
+                }
+                sortedSizes[i] = sizes[r];
+                sortedIds[i] = nodeIds[r];
+                sortedNames[i] = names[r];
+                species[i] = stringSpecies.contains(nodeIds[r]);
+            }
+            return new TaxonomyIndex(sortedPositions, sortedSizes, sortedIds, sortedNames, species);
+        }
+    }
+}
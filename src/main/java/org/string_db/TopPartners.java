@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Best interaction partners of a protein, ranked by a combined score over a chosen subset of the
+ * evidence channels.
+ * <p/>
+ * Channel scores are combined the same way STRING does it (see {@link StringDbScores#getTransferredScore()}):
+ * the prior is removed from every channel, the channels are combined as independent probabilities and
+ * the prior is added back once. Per-score factors {@code 1 - s_no_prior} are precomputed for all 1001
+ * score values, so scoring a link is a few multiplications. Links without evidence above the prior in
+ * any of the chosen channels aren't ranked.
+ * <p/>
+ * The K best links of a protein are kept in a bounded min-heap of packed {@code (score, protein)} longs,
+ * so nothing gets sorted except the final K. Ties are broken by the lower protein_id.
+ * <p/>
+ * The class is immutable => @ThreadSafe.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public final class TopPartners {
+    /**
+     * query proteins scored by one task
+     */
+    static final int BATCH_SIZE = 64;
+    private static final double PRIOR = 0.063;
+    /**
+     * score -> 1 - s_no_prior
+     */
+    private static final double[] FACTORS = new double[1001];
+
+    static {
+        for (int score = 0; score <= 1000; score++) {
+            final double noPrior = score <= PRIOR * 1000 ? 0 : (score / 1000.0d - PRIOR) / (1 - PRIOR);
+            FACTORS[score] = 1.0d - noPrior;
+        }
+    }
+
+    private final EvidenceType[] channels;
+    private final int channelMask;
+
+    public TopPartners(Set<EvidenceType> channels) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("no channels selected");
+        }
+        if (channels.contains(EvidenceType.COMBINED_TRANSFERRED)) {
+            throw new IllegalArgumentException(EvidenceType.COMBINED_TRANSFERRED + " isn't a channel");
+        }
+        this.channels = EnumSet.copyOf(channels).toArray(new EvidenceType[channels.size()]);
+        this.channelMask = EvidenceType.mask(channels);
+    }
+
+    /**
+     * @return combined score of the link at {@code edge}, 0 if none of the channels has evidence above the prior
+     */
+    public int score(CsrNetworkGraph graph, int edge) {
+        double product = 1.0d;
+        for (EvidenceType channel : channels) {
+            product *= FACTORS[graph.score(edge, channel)];
+        }
+        return combine(product);
+    }
+
+    /**
+     * @return combined score of the link, 0 if none of the channels has evidence above the prior
+     */
+    public int score(StringDbScores link) {
+        if (!link.hasAny(channelMask)) return 0;
+        double product = 1.0d;
+        for (EvidenceType channel : channels) {
+            final Integer score = link.get(channel);
+            if (score != null) product *= FACTORS[score];
+        }
+        return combine(product);
+    }
+
+    private static int combine(double product) {
+        if (product == 1.0d) return 0;
+        final double totalNoPrior = 1.0d - product;
+        return (int) ((totalNoPrior + PRIOR * (1 - totalNoPrior)) * 1000);
+    }
+
+    /**
+     * @param graph
+     * @param proteinId
+     * @param k         max number of partners
+     * @return best partners first, empty if the protein isn't in the network
+     */
+    public Partners topK(CsrNetworkGraph graph, int proteinId, int k) {
+        final int node = graph.nodeOf(proteinId);
+        if (node < 0) return new Partners(proteinId, new int[0], new int[0]);
+        final Heap heap = new Heap(Math.min(k, graph.degree(node)));
+        for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++) {
+            final int score = score(graph, e);
+            if (score > 0) heap.offer(score, graph.proteinId(graph.target(e)));
+        }
+        return heap.drain(proteinId);
+    }
+
+    /**
+     * Rank links loaded some other way, ie {@link NetworkRepository#loadTopPartners(Integer, int)}.
+     *
+     * @param proteinId protein_a of all the {@code links}
+     * @param links
+     * @param k         max number of partners
+     * @return best partners first
+     */
+    public Partners topK(int proteinId, Iterable<StringDbScores> links, int k) {
+        final Heap heap = new Heap(k);
+        for (StringDbScores link : links) {
+            final int score = score(link);
+            if (score > 0) heap.offer(score, link.getProteinB());
+        }
+        return heap.drain(proteinId);
+    }
+
+    /**
+     * Batches of {@link #BATCH_SIZE} query proteins are scored in parallel.
+     *
+     * @return partners of every query protein, in the order of {@code proteinIds}
+     */
+    public List<Partners> topK(CsrNetworkGraph graph, int[] proteinIds, int k, ForkJoinPool pool) {
+        final Partners[] results = new Partners[proteinIds.length];
+        if (proteinIds.length <= BATCH_SIZE) {
+            new Batch(graph, proteinIds, k, results, 0, proteinIds.length).compute();
+        } else {
+            pool.invoke(new Batch(graph, proteinIds, k, results, 0, proteinIds.length));
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private final class Batch extends RecursiveTask<Void> {
+        private final CsrNetworkGraph graph;
+        private final int[] proteinIds;
+        private final int k;
+        private final Partners[] results;
+        private final int from;
+        private final int to;
+
+        Batch(CsrNetworkGraph graph, int[] proteinIds, int k, Partners[] results, int from, int to) {
+            this.graph = graph;
+            this.proteinIds = proteinIds;
+            this.k = k;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from > BATCH_SIZE) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Batch(graph, proteinIds, k, results, from, mid),
+                        new Batch(graph, proteinIds, k, results, mid, to));
+                return null;
+            }
+            for (int i = from; i < to; i++) {
+                results[i] = topK(graph, proteinIds[i], k);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Bounded min-heap of {@code score << 32 | (MAX_VALUE - proteinId)}, the root is the worst kept partner.
+     */
+    private static final class Heap {
+        private final long[] entries;
+        private int size;
+
+        Heap(int capacity) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("negative k: " + capacity);
+            }
+            entries = new long[capacity];
+        }
+
+        void offer(int score, int proteinId) {
+            final long entry = ((long) score << 32) | (Integer.MAX_VALUE - proteinId);
+            if (size < entries.length) {
+                int i = size++;
+                while (i > 0 && entries[(i - 1) >>> 1] > entry) {
+                    entries[i] = entries[(i - 1) >>> 1];
+                    i = (i - 1) >>> 1;
+                }
+                entries[i] = entry;
+            } else if (size > 0 && entry > entries[0]) {
+                siftDown(entry);
+            }
+        }
+
+        private void siftDown(long entry) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && entries[child + 1] < entries[child]) child++;
+                if (entries[child] >= entry) break;
+                entries[i] = entries[child];
+                i = child;
+            }
+            entries[i] = entry;
+        }
+
+        Partners drain(int proteinId) {
+            final long[] sorted = Arrays.copyOf(entries, size);
+            Arrays.sort(sorted);
+            final int[] partners = new int[size];
+            final int[] scores = new int[size];
+            for (int i = 0; i < size; i++) {
+                final long entry = sorted[size - 1 - i];
+                scores[i] = (int) (entry >>> 32);
+                partners[i] = Integer.MAX_VALUE - (int) entry;
+            }
+            return new Partners(proteinId, partners, scores);
+        }
+    }
+
+    /**
+     * Ranked partners of one protein.
+     */
+    public static final class Partners {
+        private final int proteinId;
+        private final int[] partnerIds;
+        private final int[] scores;
+
+        Partners(int proteinId, int[] partnerIds, int[] scores) {
+            this.proteinId = proteinId;
+            this.partnerIds = partnerIds;
+            this.scores = scores;
+        }
+
+        public int getProteinId() {
+            return proteinId;
+        }
+
+        public int size() {
+            return partnerIds.length;
+        }
+
+        /**
+         * @param rank 0 for the best partner
+         */
+        public int partnerId(int rank) {
+            return partnerIds[rank];
+        }
+
+        public int score(int rank) {
+            return scores[rank];
+        }
+
+        public List<Integer> getPartnerIds() {
+            final List<Integer> ids = new ArrayList<>(partnerIds.length);
+            for (int id : partnerIds) ids.add(id);
+            return ids;
+        }
+
+        @Override
+        public String toString() {
+            return "Partners{" +
+                    "proteinId=" + proteinId +
+                    ", partnerIds=" + Arrays.toString(partnerIds) +
+                    ", scores=" + Arrays.toString(scores) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.AnnotationSearch;
+import org.string_db.AnnotationSearchIndex;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Builds an {@link AnnotationSearchIndex} per species from the annotations and preferred names
+ * in {@code items.proteins} with one plain scan, so it doesn't depend on Postgres text search
+ * ({@code annotation_word_vectors}) and works against the embedded database too.
+ * Indices are kept for the lifetime of the bean (STRING releases are read-only).
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class AnnotationSearchJdbc implements AnnotationSearch {
+
+    private static final Logger log = Logger.getLogger(AnnotationSearchJdbc.class);
+
+    private static final String SELECT_ANNOTATIONS =
+            "SELECT protein_id, preferred_name, annotation FROM items.proteins WHERE species_id = :species_id";
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    /**
+     * loads each species only once, concurrent callers wait for the same index
+     */
+    private final LoadingCache<Integer, AnnotationSearchIndex> indices = CacheBuilder.newBuilder().build(
+            new CacheLoader<Integer, AnnotationSearchIndex>() {
+                @Override
+                public AnnotationSearchIndex load(Integer speciesId) {
+                    return loadAnnotationIndex(speciesId);
+                }
+            });
+
+    @Override
+    public AnnotationSearchIndex getAnnotationIndex(Integer speciesId) {
+        return indices.getUnchecked(speciesId);
+    }
+
+    @Override
+    public AnnotationSearchIndex.Hits search(Integer speciesId, String query, int k) {
+        return getAnnotationIndex(speciesId).search(query, k);
+    }
+
+    /**
+     * drop the cached index of this species, it will be rebuilt on next use
+     */
+    public void evict(Integer speciesId) {
+        indices.invalidate(speciesId);
+    }
+
+    AnnotationSearchIndex loadAnnotationIndex(Integer speciesId) {
+        final AnnotationSearchIndex.Builder builder = AnnotationSearchIndex.builder(speciesId);
+        queryProcessor.streamQuery(SELECT_ANNOTATIONS, new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        final int proteinId = rs.getInt(1);
+                        builder.add(proteinId, rs.getString(2));
+                        builder.add(proteinId, rs.getString(3));
+                    }
+                });
+        final AnnotationSearchIndex index = builder.build();
+        log.info("loaded " + index + ", " + index.memoryBytes() + " bytes");
+        return index;
+    }
+}
@@ -29,6 +29,10 @@ import org.springframework.context.annotation.Import;
  * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
  */
 @Configuration
-@Import({DbConfig.class, DataSourceConfig.class, SpeciesRepositoryJdbc.class, ProteinRepositoryJdbc.class, GenericQueryProcessor.class})
+@Import({DbConfig.class, DataSourceConfig.class, SpeciesRepositoryJdbc.class, ProteinRepositoryJdbc.class,
+        OrthgroupRepositoryJdbc.class, GenomeRepositoryJdbc.class, ProteinNameResolverJdbc.class,
+        SpeciesCatalogCache.class, TaxonomyCache.class, NetworkRepositoryJdbc.class, MitabExporter.class,
+        FastaExporter.class, MeshTermRepositoryJdbc.class, FunccatRepositoryJdbc.class, EnrichmentEngineCache.class,
+        AnnotationSearchJdbc.class, GenericQueryProcessor.class})
 public class AppConfig {
 }
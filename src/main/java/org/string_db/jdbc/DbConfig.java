@@ -31,7 +31,8 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
  * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
  */
 @Configuration
-@PropertySource("file:/opt/stringdb/jdbc-v1.0.properties")
+//the data source may come from elsewhere, ie StringReleases, so the file is optional here
+@PropertySource(value = "file:/opt/stringdb/jdbc-v1.0.properties", ignoreResourceNotFound = true)
 public class DbConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(DbConfig.class.getCanonicalName());
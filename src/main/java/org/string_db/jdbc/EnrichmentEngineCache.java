@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.string_db.AnnotationSets;
+import org.string_db.EnrichmentEngine;
+import org.string_db.FunccatRepository;
+import org.string_db.MeshTermRepository;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Preloaded {@link EnrichmentEngine}s, one per species and annotation source, so an enrichment
+ * query doesn't touch the database. Engines are loaded on first use or by {@link #preload(Collection)};
+ * two threads asking for the same new species at once may both load it, one of the engines is kept.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class EnrichmentEngineCache {
+
+    private static final Logger log = Logger.getLogger(EnrichmentEngineCache.class);
+
+    @Autowired
+    FunccatRepository funccatRepository;
+
+    @Autowired
+    MeshTermRepository meshTermRepository;
+
+    private final ConcurrentMap<Integer, EnrichmentEngine> funccats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, EnrichmentEngine> meshTerms = new ConcurrentHashMap<>();
+
+    /**
+     * @return engine over the functional categories of the species
+     */
+    public EnrichmentEngine funccats(Integer speciesId) {
+        EnrichmentEngine engine = funccats.get(speciesId);
+        if (engine == null) {
+            engine = cache(funccats, speciesId, funccatRepository.loadFunccatProteins(speciesId));
+        }
+        return engine;
+    }
+
+    /**
+     * @return engine over the MeSH terms of the species
+     */
+    public EnrichmentEngine meshTerms(Integer speciesId) {
+        EnrichmentEngine engine = meshTerms.get(speciesId);
+        if (engine == null) {
+            engine = cache(meshTerms, speciesId, AnnotationSets.of(meshTermRepository.loadMeshTermIndex(speciesId)));
+        }
+        return engine;
+    }
+
+    private static EnrichmentEngine cache(ConcurrentMap<Integer, EnrichmentEngine> engines, Integer speciesId,
+                                          AnnotationSets sets) {
+        final EnrichmentEngine engine = new EnrichmentEngine(sets);
+        final EnrichmentEngine previous = engines.putIfAbsent(speciesId, engine);
+        if (previous != null) return previous;
+        log.info("loaded " + sets);
+        return engine;
+    }
+
+    /**
+     * load both engines of all the species
+     */
+    public void preload(Collection<Integer> speciesIds) {
+        for (Integer speciesId : speciesIds) {
+            funccats(speciesId);
+            meshTerms(speciesId);
+        }
+    }
+
+    /**
+     * drop all engines, ie after the database has been updated
+     */
+    public void clear() {
+        funccats.clear();
+        meshTerms.clear();
+    }
+}
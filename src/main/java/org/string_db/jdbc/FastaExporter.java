@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.string_db.FastaWriter;
+import org.string_db.ProteinRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Exports the proteome of a species as a FASTA file (one shard per species).
+ * <p/>
+ * Proteins are streamed from the database (through a cursor, joined with their sequences and
+ * ordered by protein_id) straight into a {@link FastaWriter}, nothing is kept in memory.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class FastaExporter {
+
+    private static final Logger log = Logger.getLogger(FastaExporter.class);
+
+    @Autowired
+    ProteinRepository proteinRepository;
+
+    /**
+     * @param speciesId
+     * @param file      overwritten if it exists
+     * @param gzip      compress the output
+     * @return number of sequences written
+     */
+    public long export(Integer speciesId, final File file, boolean gzip) {
+        try (Writer out = ShardedExport.open(file, gzip)) {
+            final FastaWriter writer = new FastaWriter(out);
+            proteinRepository.streamSequences(speciesId, new ProteinRepository.SequenceHandler() {
+                @Override
+                public void sequence(int proteinId, String externalId, String preferredName, String annotation, String sequence) {
+                    try {
+                        writer.write(externalId, preferredName, annotation, sequence);
+                    } catch (IOException e) {
+                        throw new RuntimeException("failed to write to " + file, e);
+                    }
+                }
+            });
+            log.info("exported " + writer.getRecords() + " sequences (" + writer.getResidues() + " residues) of "
+                    + speciesId + " to " + file);
+            return writer.getRecords();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write to " + file, e);
+        }
+    }
+
+    /**
+     * Export every species to its own file, {@code threads} species at a time.
+     *
+     * @param directory output directory, files are named {@code <species_id>.fa[.gz]}
+     * @return {species_id -> number of sequences written}
+     */
+    public Map<Integer, Long> exportAll(Collection<Integer> speciesIds, final File directory, final boolean gzip, int threads) {
+        return ShardedExport.exportAll(speciesIds, directory, threads, new ShardedExport.Shard() {
+            @Override
+            public long export(Integer speciesId) {
+                return FastaExporter.this.export(speciesId, shardFile(directory, speciesId, gzip), gzip);
+            }
+        });
+    }
+
+    static File shardFile(File directory, Integer speciesId, boolean gzip) {
+        return new File(directory, speciesId + ".fa" + (gzip ? ".gz" : ""));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.AnnotationSets;
+import org.string_db.FunccatRepository;
+import org.string_db.IntAdjacency;
+import org.string_db.IntBitmap;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class FunccatRepositoryJdbc implements FunccatRepository {
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    @Override
+    public Map<String, String> loadFunccatDescriptions() {
+        return queryProcessor.selectTwoColumns("funccat_id", "funccat_description", "items.funccats",
+                TwoColumnRowMapper.<String, String>uniqueValMapper());
+    }
+
+    @Override
+    public AnnotationSets loadFunccatProteins(Integer speciesId) {
+        //funccat_ids are strings, so collect {funccat index -> protein_ids} first
+        final Map<String, Integer> funccats = new HashMap<>();
+        final List<String> ids = new ArrayList<>();
+        final IntAdjacency.Builder builder = IntAdjacency.builder();
+        queryProcessor.streamQuery("SELECT f.funccat_id, p.protein_id " +
+                        "FROM items.orthgroups_funccats f JOIN items.proteins_orthgroups p ON p.orthgroup_id = f.orthgroup_id " +
+                        "WHERE p.species_id = :species_id",
+                new MapSqlParameterSource("species_id", speciesId), new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        final String funccatId = rs.getString(1);
+                        Integer index = funccats.get(funccatId);
+                        if (index == null) {
+                            index = ids.size();
+                            funccats.put(funccatId, index);
+                            ids.add(funccatId);
+                        }
+                        builder.add(index, rs.getInt(2));
+                    }
+                });
+        final IntAdjacency adjacency = builder.build();
+        final int[] members = new int[adjacency.memberCount()];
+        for (int p = 0; p < members.length; p++) {
+            members[p] = adjacency.member(p);
+        }
+        final Map<String, IntBitmap> sets = new HashMap<>();
+        for (int i = 0; i < adjacency.size(); i++) {
+            sets.put(ids.get(adjacency.key(i)), IntBitmap.ofSorted(members, adjacency.start(i), adjacency.end(i)));
+        }
+        return new AnnotationSets(speciesId, sets);
+    }
+}
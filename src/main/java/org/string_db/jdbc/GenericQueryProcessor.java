@@ -21,20 +21,40 @@ package org.string_db.jdbc;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.string_db.IntAdjacency;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
  */
 @Component
 public class GenericQueryProcessor {
+    /**
+     * rows fetched per round trip by {@link #streamQuery(String, SqlParameterSource, RowCallbackHandler)}
+     */
+    static final int STREAMING_FETCH_SIZE = 10000;
+
     @Autowired
     protected JdbcTemplate jdbcTemplate;
 
@@ -106,4 +126,346 @@ public class GenericQueryProcessor {
 
         return r;
     }
+
+    /**
+     * Run the query with a server-side cursor: the PostgreSQL driver only honours the fetch size
+     * inside a transaction, otherwise it reads the whole result set into memory before returning
+     * the first row. Use it for loads that are too big to be buffered.
+     *
+     * @param sql        query with named parameters
+     * @param parameters named params defined in <code>sql</code>
+     * @param handler    called once per row
+     * @throws org.springframework.dao.DataAccessException if there is any problem executing the query
+     */
+    public void streamQuery(final String sql, final SqlParameterSource parameters, final RowCallbackHandler handler) {
+        final JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+        final TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        tx.setReadOnly(true);
+        tx.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                new NamedParameterJdbcTemplate(streamingTemplate).query(sql, parameters, handler);
+            }
+        });
+    }
+
+    /**
+     * Query database for two integer columns and collect results in a CSR-style adjacency,
+     * without boxing any of the values.
+     * <p/>
+     * <em>Warning</em>: possible SQL injection
+     *
+     * @param keyColumn    name of the integer column used as key
+     * @param memberColumn name of the integer column collected for each key
+     * @param table        name
+     * @param filter       query criteria
+     * @param parameters   named params defined in <code>filter</code>
+     * @return {keyColumn -> memberColumn values} adjacency
+     * @throws org.springframework.dao.DataAccessException if there is any problem executing the query
+     */
+    public IntAdjacency selectAdjacency(String keyColumn,
+                                        String memberColumn,
+                                        String table,
+                                        String filter,
+                                        SqlParameterSource parameters) {
+        final String query = String.format("SELECT %s, %s FROM %s WHERE %s", keyColumn, memberColumn, table, filter);
+        final IntAdjacency.Builder builder = IntAdjacency.builder();
+        streamQuery(query, parameters, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet resultSet) throws SQLException {
+                builder.add(resultSet.getInt(1), resultSet.getInt(2));
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Same as {@link #selectAdjacency(String, String, String, String, SqlParameterSource)}, but the load is split
+     * into {@code partitions} ranges of the key column scanned in parallel (see {@link #parallelScan}).
+     * Each partition fills its own builder; since the ranges are disjoint and ordered the partial
+     * adjacencies are simply concatenated.
+     *
+     * @param partitions number of key ranges, ie the number of connections used at the same time
+     * @param executor   runs the partitions, owned by the caller
+     */
+    public IntAdjacency selectAdjacency(String keyColumn,
+                                        String memberColumn,
+                                        String table,
+                                        String filter,
+                                        SqlParameterSource parameters,
+                                        int partitions,
+                                        ExecutorService executor) {
+        final long[] bounds = keyRangeBounds(keyColumn, table, filter, parameters, partitions);
+        final List<AdjacencyPartition> parts = parallelScan(keyColumn + ", " + memberColumn, table, filter, parameters,
+                keyColumn, bounds, executor, new PartitionHandlers<AdjacencyPartition>() {
+                    @Override
+                    public AdjacencyPartition create(int partition) {
+                        return new AdjacencyPartition();
+                    }
+                });
+        final List<IntAdjacency> adjacencies = new ArrayList<>(parts.size());
+        for (AdjacencyPartition part : parts) {
+            adjacencies.add(part.builder.build());
+        }
+        return IntAdjacency.concat(adjacencies);
+    }
+
+    private static final class AdjacencyPartition implements RowCallbackHandler {
+        final IntAdjacency.Builder builder = IntAdjacency.builder();
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            builder.add(resultSet.getInt(1), resultSet.getInt(2));
+        }
+    }
+
+    /**
+     * Same as {@link #selectTwoColumns(String, String, String, TwoColumnRowMapper, String, SqlParameterSource)},
+     * but the load is split into {@code partitions} ranges of the (integer) first column scanned in parallel
+     * (see {@link #parallelScan}). Each partition fills its own map; the ranges are disjoint so the maps
+     * are merged without any key being seen twice.
+     *
+     * @param partitions number of key ranges, ie the number of connections used at the same time
+     * @param executor   runs the partitions, owned by the caller
+     */
+    public <K, V, R> Map<K, R> selectTwoColumns(String firstColumn,
+                                                String secondColumn,
+                                                String table,
+                                                final TwoColumnRowMapper<K, V, R> rowMapper,
+                                                String filter,
+                                                SqlParameterSource parameters,
+                                                int partitions,
+                                                ExecutorService executor) {
+        final long[] bounds = keyRangeBounds(firstColumn, table, filter, parameters, partitions);
+        final List<MapPartition<K, V, R>> parts = parallelScan(firstColumn + ", " + secondColumn, table, filter,
+                parameters, firstColumn, bounds, executor, new PartitionHandlers<MapPartition<K, V, R>>() {
+                    @Override
+                    public MapPartition<K, V, R> create(int partition) {
+                        return new MapPartition<>(rowMapper);
+                    }
+                });
+        int size = 0;
+        for (MapPartition<K, V, R> part : parts) {
+            size += part.map.size();
+        }
+        final Map<K, R> r = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        for (MapPartition<K, V, R> part : parts) {
+            r.putAll(part.map);
+        }
+        return r;
+    }
+
+    private static final class MapPartition<K, V, R> implements RowCallbackHandler {
+        final TwoColumnRowMapper<K, V, R> rowMapper;
+        final Map<K, R> map = new HashMap<>();
+
+        MapPartition(TwoColumnRowMapper<K, V, R> rowMapper) {
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            rowMapper.addToMap((K) resultSet.getObject(1), (V) resultSet.getObject(2), map);
+        }
+    }
+
+    /**
+     * Creates one row handler per partition of a {@link #parallelScan}, each used by one thread only.
+     */
+    public interface PartitionHandlers<H extends RowCallbackHandler> {
+        H create(int partition);
+    }
+
+    /**
+     * Scan {@code table} in parallel, one streamed query (see {@link #streamQuery}) per key range, each on
+     * its own connection from the data source (so the data source should be a pool). Partition {@code i}
+     * covers {@code bounds[i] <= keyColumn < bounds[i + 1]}. Handlers don't share anything, so there is no
+     * locking while rows are read; the caller merges the handlers' results afterwards.
+     * <p/>
+     * <em>Warning</em>: possible SQL injection
+     *
+     * @param columns    to select, comma-separated
+     * @param table      name
+     * @param filter     query criteria
+     * @param parameters named params defined in <code>filter</code>
+     * @param keyColumn  integer column the partitions are defined on
+     * @param bounds     increasing partition bounds, ie from {@link #keyRangeBounds} or {@link #keyQuantileBounds}
+     * @param executor   runs the partitions, owned by the caller
+     * @param handlers   creates a handler per partition
+     * @return handlers, in partition (key) order
+     * @throws org.springframework.dao.DataAccessException if there is any problem executing the queries
+     */
+    public <H extends RowCallbackHandler> List<H> parallelScan(String columns,
+                                                               String table,
+                                                               String filter,
+                                                               SqlParameterSource parameters,
+                                                               String keyColumn,
+                                                               long[] bounds,
+                                                               ExecutorService executor,
+                                                               PartitionHandlers<H> handlers) {
+        final String query = String.format("SELECT %s FROM %s WHERE (%s) AND %s >= :partition_from AND %s < :partition_to",
+                columns, table, filter, keyColumn, keyColumn);
+        final int partitions = Math.max(bounds.length - 1, 0);
+        final List<H> result = new ArrayList<>(partitions);
+        final List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            final H handler = handlers.create(i);
+            final SqlParameterSource partitionParameters = new PartitionParameters(parameters, bounds[i], bounds[i + 1]);
+            result.add(handler);
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    streamQuery(query, partitionParameters, handler);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while scanning " + table, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new IllegalStateException("failed to scan " + table, e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split {@code [min, max]} of the key column into equally wide ranges. Cheap (one indexed
+     * MIN/MAX query), good enough when keys are dense, as protein_ids of one species are.
+     *
+     * @return {@code partitions + 1} increasing bounds (fewer if the range is narrower than that),
+     * empty if no row matches the filter; the last one is {@code MAX(keyColumn) + 1}, hence {@code long}
+     */
+    public long[] keyRangeBounds(String keyColumn, String table, String filter, SqlParameterSource parameters,
+                                int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        final String query = String.format("SELECT MIN(%s), MAX(%s) FROM %s WHERE %s", keyColumn, keyColumn, table, filter);
+        final long[] minMax = new long[2];
+        final boolean[] empty = new boolean[1];
+        namedParameterJdbcTemplate.query(query, parameters, new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet resultSet) throws SQLException {
+                minMax[0] = resultSet.getLong(1);
+                empty[0] = resultSet.wasNull();
+                minMax[1] = resultSet.getLong(2);
+            }
+        });
+        if (empty[0]) return new long[0];
+        final long width = minMax[1] - minMax[0] + 1;
+        final int n = (int) Math.min(partitions, width);
+        final long[] bounds = new long[n + 1];
+        for (int i = 0; i <= n; i++) {
+            bounds[i] = minMax[0] + width * i / n;
+        }
+        return bounds;
+    }
+
+    /**
+     * Split the key column into ranges with about the same number of rows, from a sample of the keys
+     * ({@code keyColumn % sampleStep = 0}). Use it when keys are skewed, ie some proteins have far more
+     * names than others.
+     *
+     * @param sampleStep only every {@code sampleStep}-th key value is read
+     * @return increasing bounds, at most {@code partitions + 1}, empty if no row matches the filter
+     */
+    public long[] keyQuantileBounds(String keyColumn, String table, String filter, SqlParameterSource parameters,
+                                   int partitions, int sampleStep) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        final long[] range = keyRangeBounds(keyColumn, table, filter, parameters, 1);
+        if (range.length == 0 || partitions == 1) return range;
+        final String query = String.format("SELECT %s FROM %s WHERE (%s) AND MOD(%s, %d) = 0",
+                keyColumn, table, filter, keyColumn, Math.max(sampleStep, 1));
+        final List<Integer> sample = namedParameterJdbcTemplate.queryForList(query, parameters, Integer.class);
+        final int[] keys = new int[sample.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sample.get(i);
+        }
+        Arrays.sort(keys);
+        final long[] bounds = new long[partitions + 1];
+        int n = 0;
+        bounds[n++] = range[0];
+        for (int i = 1; i < partitions && keys.length > 0; i++) {
+            final int key = keys[(int) ((long) keys.length * i / partitions)];
+            if (key > bounds[n - 1] && key < range[1]) bounds[n++] = key;
+        }
+        bounds[n++] = range[1];
+        return Arrays.copyOf(bounds, n);
+    }
+
+    /**
+     * The caller's parameters plus the partition's key range.
+     */
+    private static final class PartitionParameters implements SqlParameterSource {
+        private final SqlParameterSource parameters;
+        private final long from;
+        private final long to;
+
+        PartitionParameters(SqlParameterSource parameters, long from, long to) {
+            this.parameters = parameters;
+            this.from = from;
+            this.to = to;
+        }
+
+        private static boolean isBound(String paramName) {
+            return paramName.equals("partition_from") || paramName.equals("partition_to");
+        }
+
+        @Override
+        public boolean hasValue(String paramName) {
+            return isBound(paramName) || parameters.hasValue(paramName);
+        }
+
+        @Override
+        public Object getValue(String paramName) throws IllegalArgumentException {
+            if (paramName.equals("partition_from")) return from;
+            if (paramName.equals("partition_to")) return to;
+            return parameters.getValue(paramName);
+        }
+
+        @Override
+        public int getSqlType(String paramName) {
+            return isBound(paramName) ? Types.BIGINT : parameters.getSqlType(paramName);
+        }
+
+        @Override
+        public String getTypeName(String paramName) {
+            return isBound(paramName) ? null : parameters.getTypeName(paramName);
+        }
+    }
+
+    /**
+     * Wrap values into a {@link java.sql.Array} parameter, so a whole batch can be sent
+     * in one round trip, ie {@code "protein_name IN (SELECT * FROM UNNEST(CAST(:names AS VARCHAR(100) ARRAY)))"}
+     * with {@code params.addValue("names", GenericQueryProcessor.sqlArray("varchar", names))}.
+     * Unlike {@code IN (:names)} the statement text doesn't depend on the batch size.
+     * <p/>
+     * PostgreSQL's {@code = ANY(:names)} isn't understood by HSQLDB, the typed {@code UNNEST}
+     * works in both (and PostgreSQL plans it as a hashed semi-join).
+     *
+     * @param elementType SQL name of the array element type, ie {@code "varchar"} or {@code "int4"}
+     * @param values      array elements
+     * @return parameter value
+     */
+    public static SqlTypeValue sqlArray(final String elementType, final Object[] values) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.createArrayOf(elementType, values);
+            }
+        };
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.GenomeIndex;
+import org.string_db.GenomeRepository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class GenomeRepositoryJdbc implements GenomeRepository {
+
+    private static final Logger log = Logger.getLogger(GenomeRepositoryJdbc.class);
+
+    /**
+     * sorted the way {@link GenomeIndex} stores records, so the builder's per-contig sorts
+     * run on already ordered data
+     */
+    private static final String SELECT_GENE_POSITIONS =
+            "SELECT r.contig_id, rgp.gene_id, rgp.protein_id, rgp.start_position_on_contig, rgp.end_position_on_contig " +
+                    "FROM items.runs r JOIN items.runs_genes_proteins rgp ON rgp.run_id = r.run_id " +
+                    "WHERE r.species_id = :species_id " +
+                    "ORDER BY r.contig_id, rgp.start_position_on_contig";
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    @Override
+    public GenomeIndex loadGenomeIndex(Integer speciesId) {
+        final GenomeIndex.Builder builder = GenomeIndex.builder(speciesId);
+        queryProcessor.streamQuery(SELECT_GENE_POSITIONS, new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.add(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                    }
+                });
+        final GenomeIndex index = builder.build();
+        log.info("loaded " + index + ", " + index.memoryBytes() + " bytes");
+        return index;
+    }
+}
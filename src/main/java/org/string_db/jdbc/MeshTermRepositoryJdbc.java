@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.MeshTermIndex;
+import org.string_db.MeshTermRepository;
+
+import java.util.Map;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class MeshTermRepositoryJdbc implements MeshTermRepository {
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    @Override
+    public Map<Integer, String> loadMeshTermDescriptions() {
+        return queryProcessor.selectTwoColumns("mesh_id", "description", "items.meshterms",
+                TwoColumnRowMapper.<Integer, String>uniqueValMapper());
+    }
+
+    @Override
+    public MeshTermIndex loadMeshTermIndex(Integer speciesId) {
+        //proteins_meshterms has no species_id
+        return new MeshTermIndex(speciesId, queryProcessor.selectAdjacency("pm.mesh_id", "pm.protein_id",
+                "items.proteins_meshterms pm JOIN items.proteins p ON p.protein_id = pm.protein_id",
+                "p.species_id = :species_id", new MapSqlParameterSource("species_id", speciesId)));
+    }
+}
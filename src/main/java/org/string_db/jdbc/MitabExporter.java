@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.string_db.MitabWriter;
+import org.string_db.NetworkRepository;
+import org.string_db.ProteinExternalId;
+import org.string_db.ProteinRepository;
+import org.string_db.StringDbScores;
+import org.string_db.UniprotAC;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Exports the STRING network of a species as a PSI-MITAB file (one shard per species).
+ * <p/>
+ * Identifier maps of the species are loaded first, then links are streamed from the database
+ * (through a cursor) straight into a {@link MitabWriter}, so only the maps are kept in memory.
+ * Every interaction is stored in both directions, only the {@code protein_a < protein_b} one is written.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class MitabExporter {
+
+    private static final Logger log = Logger.getLogger(MitabExporter.class);
+
+    @Autowired
+    ProteinRepository proteinRepository;
+
+    @Autowired
+    NetworkRepository networkRepository;
+
+    /**
+     * @param speciesId
+     * @param file      overwritten if it exists
+     * @param format
+     * @param gzip      compress the output
+     * @return number of interactions written
+     */
+    public long export(Integer speciesId, final File file, MitabWriter.Format format, boolean gzip) {
+        final Map<Integer, ProteinExternalId> externalIds = proteinRepository.loadExternalIds(speciesId);
+        final Map<Integer, UniprotAC> uniprotIds = proteinRepository.loadUniqueUniProtIds(speciesId);
+        final Map<Integer, String> preferredNames = proteinRepository.loadProteinPreferredNames(speciesId);
+        try (Writer out = ShardedExport.open(file, gzip)) {
+            final MitabWriter writer = new MitabWriter(out, format, speciesId, externalIds, uniprotIds, preferredNames);
+            networkRepository.streamLinks(speciesId, new NetworkRepository.LinkHandler() {
+                @Override
+                public void link(StringDbScores scores, int combinedScore) {
+                    if (scores.getProteinA() > scores.getProteinB()) return;
+                    try {
+                        writer.write(scores, combinedScore);
+                    } catch (IOException e) {
+                        throw new RuntimeException("failed to write to " + file, e);
+                    }
+                }
+            });
+            log.info("exported " + writer.getLines() + " interactions of " + speciesId + " to " + file);
+            return writer.getLines();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write to " + file, e);
+        }
+    }
+
+    /**
+     * Export every species to its own file, {@code threads} species at a time.
+     *
+     * @param directory output directory, files are named {@code <species_id>.<format>.txt[.gz]}
+     * @return {species_id -> number of interactions written}
+     */
+    public Map<Integer, Long> exportAll(Collection<Integer> speciesIds, final File directory,
+                                        final MitabWriter.Format format, final boolean gzip, int threads) {
+        return ShardedExport.exportAll(speciesIds, directory, threads, new ShardedExport.Shard() {
+            @Override
+            public long export(Integer speciesId) {
+                return MitabExporter.this.export(speciesId, shardFile(directory, speciesId, format, gzip), format, gzip);
+            }
+        });
+    }
+
+    static File shardFile(File directory, Integer speciesId, MitabWriter.Format format, boolean gzip) {
+        return new File(directory, speciesId + "." + format.name().toLowerCase() + ".txt" + (gzip ? ".gz" : ""));
+    }
+}
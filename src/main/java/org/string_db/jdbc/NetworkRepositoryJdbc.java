@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.string_db.CompressedNetworkGraph;
+import org.string_db.CsrNetworkGraph;
+import org.string_db.EvidenceScoresDecoder;
+import org.string_db.NetworkGraph;
+import org.string_db.NetworkLoadOptions;
+import org.string_db.NetworkRepository;
+import org.string_db.PackedScores;
+import org.string_db.PairScores;
+import org.string_db.StringDbScores;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class NetworkRepositoryJdbc implements NetworkRepository {
+
+    private static final Logger log = Logger.getLogger(NetworkRepositoryJdbc.class);
+
+    /**
+     * node_type_b is the species of the second protein, links never cross species
+     */
+    private static final String SELECT_LINKS =
+            "SELECT node_id_a, node_id_b, combined_score, evidence_scores FROM network.node_node_links " +
+                    "WHERE node_type_b = :species_id AND combined_score >= :min_combined_score";
+
+    private static final String SELECT_TOP_PARTNERS =
+            "SELECT node_id_a, node_id_b, evidence_scores FROM network.node_node_links " +
+                    "WHERE node_id_a = :protein_id ORDER BY combined_score DESC, node_id_b LIMIT :limit";
+
+    /**
+     * ordinality is 1-based
+     */
+    private static final String SELECT_PAIRS =
+            "SELECT q.i, l.combined_score, l.evidence_scores " +
+                    "FROM UNNEST(CAST(:proteins_a AS INTEGER ARRAY), CAST(:proteins_b AS INTEGER ARRAY)) " +
+                    "WITH ORDINALITY AS q(a, b, i) " +
+                    "JOIN network.node_node_links l ON l.node_id_a = q.a AND l.node_id_b = q.b";
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * score types don't change within a release, load them on first use and not once per query
+     */
+    private final Supplier<EvidenceScoresDecoder> decoder = Suppliers.memoize(new Supplier<EvidenceScoresDecoder>() {
+        @Override
+        public EvidenceScoresDecoder get() {
+            return new EvidenceScoresDecoder(loadScoreTypes());
+        }
+    });
+
+    @Override
+    public Map<Integer, String> loadScoreTypes() {
+        return queryProcessor.selectTwoColumns("score_id", "score_type", "network.score_types_user_friendly",
+                TwoColumnRowMapper.<Integer, String>uniqueValMapper());
+    }
+
+    @Override
+    public NetworkGraph loadNetwork(Integer speciesId) {
+        return loadNetwork(speciesId, NetworkLoadOptions.ALL);
+    }
+
+    @Override
+    public NetworkGraph loadNetwork(Integer speciesId, final NetworkLoadOptions options) {
+        final EvidenceColumn evidence = new EvidenceColumn(decoder.get(), 4);
+        final CsrNetworkGraph.Builder builder = CsrNetworkGraph.builder(speciesId);
+        queryProcessor.streamQuery(SELECT_LINKS, linkParameters(speciesId, options), new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                final PackedScores scores = evidence.read(rs);
+                if (!options.accepts(scores)) return;
+                builder.add(rs.getInt(1), rs.getInt(2), rs.getInt(3), scores.retain(options.getChannelMask()));
+            }
+        });
+        final CsrNetworkGraph csr = builder.build();
+        final NetworkGraph graph = options.isCompressed() ? CompressedNetworkGraph.encode(csr) : csr;
+        log.info("loaded " + graph + " with " + options + ", " + graph.memoryBytes() + " bytes");
+        return graph;
+    }
+
+    @Override
+    public void streamLinks(Integer speciesId, LinkHandler handler) {
+        streamLinks(speciesId, NetworkLoadOptions.ALL, handler);
+    }
+
+    @Override
+    public void streamLinks(Integer speciesId, final NetworkLoadOptions options, final LinkHandler handler) {
+        final EvidenceColumn evidence = new EvidenceColumn(decoder.get(), 4);
+        queryProcessor.streamQuery(SELECT_LINKS, linkParameters(speciesId, options), new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                final PackedScores scores = evidence.read(rs);
+                if (!options.accepts(scores)) return;
+                handler.link(scores.retain(options.getChannelMask()).toScores(rs.getInt(1), rs.getInt(2)), rs.getInt(3));
+            }
+        });
+    }
+
+    private static MapSqlParameterSource linkParameters(Integer speciesId, NetworkLoadOptions options) {
+        return new MapSqlParameterSource("species_id", speciesId)
+                .addValue("min_combined_score", options.getMinCombinedScore());
+    }
+
+    @Override
+    public List<StringDbScores> loadTopPartners(Integer proteinId, int limit) {
+        final EvidenceColumn evidence = new EvidenceColumn(decoder.get(), 3);
+        return namedParameterJdbcTemplate.query(SELECT_TOP_PARTNERS,
+                new MapSqlParameterSource("protein_id", proteinId).addValue("limit", limit),
+                new RowMapper<StringDbScores>() {
+                    @Override
+                    public StringDbScores mapRow(ResultSet rs, int rowNum) throws SQLException {
+                        return evidence.read(rs).toScores(rs.getInt(1), rs.getInt(2));
+                    }
+                });
+    }
+
+    @Override
+    public PairScores loadPairScores(int[] proteinsA, int[] proteinsB) {
+        final PairScores.Builder builder = PairScores.builder(proteinsA, proteinsB);
+        if (proteinsA.length == 0) return builder.build();
+        final EvidenceColumn evidence = new EvidenceColumn(decoder.get(), 3);
+        namedParameterJdbcTemplate.query(SELECT_PAIRS, new MapSqlParameterSource()
+                        .addValue("proteins_a", GenericQueryProcessor.sqlArray("integer", boxed(proteinsA)))
+                        .addValue("proteins_b", GenericQueryProcessor.sqlArray("integer", boxed(proteinsB))),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.scores(rs.getInt(1) - 1, rs.getInt(2), evidence.read(rs));
+                    }
+                });
+        return builder.build();
+    }
+
+    private static Integer[] boxed(int[] values) {
+        final Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    /**
+     * Reads the evidence_scores column of one query into the same {@link PackedScores}. PostgreSQL hands out
+     * the raw (text or binary) array bytes, which are decoded without allocating; other databases go through
+     * {@link java.sql.Array}.
+     * <p/>
+     * Not thread-safe, one per query.
+     */
+    private static final class EvidenceColumn {
+        private final EvidenceScoresDecoder decoder;
+        private final int column;
+        private final PackedScores scores = new PackedScores();
+        private Boolean rawBytes;
+
+        EvidenceColumn(EvidenceScoresDecoder decoder, int column) {
+            this.decoder = decoder;
+            this.column = column;
+        }
+
+        PackedScores read(ResultSet rs) throws SQLException {
+            if (rawBytes == null) {
+                rawBytes = "PostgreSQL".equals(rs.getStatement().getConnection().getMetaData().getDatabaseProductName());
+            }
+            if (rawBytes) {
+                return decoder.decode(rs.getBytes(column), scores);
+            }
+            final Array array = rs.getArray(column);
+            return decoder.decode(array == null ? null : (Object[]) array.getArray(), scores);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.IntAdjacency;
+import org.string_db.OrthgroupRepository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class OrthgroupRepositoryJdbc implements OrthgroupRepository {
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    @Override
+    public IntAdjacency loadProteinOrthgroups(Integer speciesId) {
+        return queryProcessor.selectAdjacency("protein_id", "orthgroup_id", "items.proteins_orthgroups",
+                "species_id = :species_id", new MapSqlParameterSource("species_id", speciesId));
+    }
+
+    @Override
+    public IntAdjacency loadOrthgroupMembers(Integer speciesId) {
+        return queryProcessor.selectAdjacency("orthgroup_id", "protein_id", "items.proteins_orthgroups",
+                "orthgroup_id IN (SELECT orthgroup_id FROM items.proteins_orthgroups WHERE species_id = :species_id)",
+                new MapSqlParameterSource("species_id", speciesId));
+    }
+
+    @Override
+    public IntAdjacency loadOrthgroupMembers(Collection<Integer> orthgroupIds) {
+        if (orthgroupIds.isEmpty()) {
+            return IntAdjacency.builder().build();
+        }
+        return queryProcessor.selectAdjacency("orthgroup_id", "protein_id", "items.proteins_orthgroups",
+                "orthgroup_id IN (:orthgroup_ids)", new MapSqlParameterSource("orthgroup_ids", orthgroupIds));
+    }
+
+    @Override
+    public IntAdjacency loadOrthgroupSpecies(Collection<Integer> orthgroupIds) {
+        if (orthgroupIds.isEmpty()) {
+            return IntAdjacency.builder().build();
+        }
+        return queryProcessor.selectAdjacency("orthgroup_id", "species_id", "items.orthgroups_species",
+                "orthgroup_id IN (:orthgroup_ids)", new MapSqlParameterSource("orthgroup_ids", orthgroupIds));
+    }
+
+    @Override
+    public Map<Integer, String> loadOrthgroupExternalIds(Integer speciesId) {
+        return queryProcessor.selectTwoColumns("orthgroup_id", "orthgroup_external_id", "items.orthgroups",
+                TwoColumnRowMapper.<Integer, String>uniqueValMapper(),
+                "orthgroup_id IN (SELECT orthgroup_id FROM items.proteins_orthgroups WHERE species_id = :species_id)",
+                new MapSqlParameterSource("species_id", speciesId));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.string_db.IntAdjacency;
+import org.string_db.ProteinNameIndex;
+import org.string_db.ProteinNameResolver;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Builds a {@link ProteinNameIndex} per species from {@code items.proteins_names} plus the
+ * external ids and preferred names from {@code items.proteins}, and keeps it for the lifetime
+ * of the bean (STRING releases are read-only).
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class ProteinNameResolverJdbc implements ProteinNameResolver {
+
+    private static final Logger log = Logger.getLogger(ProteinNameResolverJdbc.class);
+
+    private static final String SELECT_NAMES =
+            "SELECT protein_name, protein_id FROM items.proteins_names WHERE species_id = :species_id " +
+                    "UNION ALL " +
+                    "SELECT protein_external_id, protein_id FROM items.proteins WHERE species_id = :species_id " +
+                    "UNION ALL " +
+                    "SELECT preferred_name, protein_id FROM items.proteins WHERE species_id = :species_id";
+
+    @Autowired
+    GenericQueryProcessor queryProcessor;
+
+    /**
+     * loads each species only once, concurrent callers wait for the same index
+     */
+    private final LoadingCache<Integer, ProteinNameIndex> indices = CacheBuilder.newBuilder().build(
+            new CacheLoader<Integer, ProteinNameIndex>() {
+                @Override
+                public ProteinNameIndex load(Integer speciesId) {
+                    return loadNameIndex(speciesId);
+                }
+            });
+
+    @Override
+    public ProteinNameIndex getNameIndex(Integer speciesId) {
+        return indices.getUnchecked(speciesId);
+    }
+
+    @Override
+    public IntAdjacency resolve(Integer speciesId, List<String> names) {
+        return getNameIndex(speciesId).resolve(names);
+    }
+
+    /**
+     * drop the cached index of this species, it will be rebuilt on next use
+     */
+    public void evict(Integer speciesId) {
+        indices.invalidate(speciesId);
+    }
+
+    ProteinNameIndex loadNameIndex(Integer speciesId) {
+        final ProteinNameIndex.Builder builder = ProteinNameIndex.builder(speciesId);
+        queryProcessor.streamQuery(SELECT_NAMES, new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.add(rs.getString(1), rs.getInt(2));
+                    }
+                });
+        final ProteinNameIndex index = builder.build();
+        log.info("loaded " + index + ", " + index.memoryBytes() + " bytes");
+        return index;
+    }
+}
@@ -18,17 +18,28 @@
 
 package org.string_db.jdbc;
 
+import com.google.common.collect.Iterables;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.string_db.ExternalIdIndex;
 import org.string_db.ProteinExternalId;
 import org.string_db.ProteinRepository;
+import org.string_db.SequenceIndex;
 import org.string_db.UniprotAC;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
@@ -37,6 +48,15 @@ import java.util.Set;
 public class ProteinRepositoryJdbc implements ProteinRepository {
 
     private static final Logger log = Logger.getLogger(ProteinRepositoryJdbc.class);
+    /**
+     * max number of identifiers sent to {@link #resolveProteinIds(Integer, java.util.Collection)} in one query
+     */
+    static final int RESOLVE_CHUNK_SIZE = 5000;
+    private static final String SELECT_SEQUENCES =
+            "SELECT p.protein_id, p.protein_external_id, p.preferred_name, p.annotation, s.\"sequence\" " +
+                    "FROM items.proteins p JOIN items.proteins_sequences s ON s.protein_id = p.protein_id " +
+                    "WHERE p.species_id = :species_id ORDER BY p.protein_id";
+    protected final TwoColumnRowMapper<String, Integer, Set<Integer>> nameToIdsMapper = TwoColumnRowMapper.multiValMapper();
     protected final TwoColumnRowMapper<Integer, String, Set<String>> multiValSqlRowMapper = TwoColumnRowMapper.multiValMapper();
     protected TwoColumnRowMapper<Integer, String, ProteinExternalId> idExternalIdMapper = new TwoColumnRowMapper<Integer, String, ProteinExternalId>() {
         @Override
@@ -66,6 +86,22 @@ public class ProteinRepositoryJdbc implements ProteinRepository {
                 new MapSqlParameterSource("species_id", speciesId));
     }
 
+    @Override
+    public ExternalIdIndex loadExternalIdIndex(Integer speciesId) {
+        final ExternalIdIndex.Builder builder = ExternalIdIndex.builder();
+        queryProcessor.streamQuery("SELECT protein_external_id, protein_id FROM items.proteins WHERE species_id = :species_id",
+                new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.add(rs.getString(1), rs.getInt(2));
+                    }
+                });
+        final ExternalIdIndex index = builder.build();
+        log.info("loaded " + index + " of " + speciesId + ", " + index.memoryBytes() + " bytes");
+        return index;
+    }
+
     @Override
     public Map<Integer, String> loadProteinPreferredNames(Integer speciesId) {
         return queryProcessor.selectTwoColumns(
@@ -100,12 +136,55 @@ public class ProteinRepositoryJdbc implements ProteinRepository {
                 new MapSqlParameterSource("species_id", speciesId));
     }
 
+    @Override
+    public SequenceIndex loadSequenceIndex(Integer speciesId, ForkJoinPool pool) {
+        final SequenceIndex.Builder builder = SequenceIndex.builder(speciesId);
+        queryProcessor.streamQuery("SELECT protein_id, \"sequence\" FROM items.proteins_sequences " +
+                        "WHERE protein_id IN (select protein_id from items.proteins where species_id = :species_id)",
+                new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.add(rs.getInt(1), rs.getString(2));
+                    }
+                });
+        final SequenceIndex index = builder.build(pool);
+        log.info("loaded " + index + ", " + index.memoryBytes() + " bytes");
+        return index;
+    }
+
+    @Override
+    public void streamSequences(Integer speciesId, final SequenceHandler handler) {
+        queryProcessor.streamQuery(SELECT_SEQUENCES, new MapSqlParameterSource("species_id", speciesId),
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        handler.sequence(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+                    }
+                });
+    }
+
     @Override
     public Map<Integer, UniprotAC> loadUniqueUniProtIds(Integer speciesId) {
         return queryProcessor.selectTwoColumns("protein_id", "protein_name", "items.proteins_names", uniprotAcMapper,
                 "linkout = 'UniProt' AND species_id = :species_id", new MapSqlParameterSource("species_id", speciesId));
     }
 
+    @Override
+    public Map<String, Set<Integer>> resolveProteinIds(Integer speciesId, Collection<String> identifiers) {
+        final Map<String, Set<Integer>> resolved = new HashMap<>();
+        //chunks don't share identifiers so their results never overlap
+        for (List<String> chunk : Iterables.partition(new LinkedHashSet<>(identifiers), RESOLVE_CHUNK_SIZE)) {
+            final MapSqlParameterSource params = new MapSqlParameterSource("species_id", speciesId);
+            params.addValue("names", GenericQueryProcessor.sqlArray("varchar", chunk.toArray()));
+            resolved.putAll(queryProcessor.selectTwoColumns("protein_name", "protein_id", "items.proteins_names",
+                    nameToIdsMapper,
+                    "species_id = :species_id AND protein_name IN (SELECT * FROM UNNEST(CAST(:names AS VARCHAR(100) ARRAY)))",
+                    params));
+        }
+        return resolved;
+    }
+
     @Override
     public Integer count(Integer speciesId) {
         return namedParameterJdbcTemplate.queryForObject(
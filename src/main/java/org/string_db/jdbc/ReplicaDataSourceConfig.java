@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replicas are listed in the {@code jdbc.replica_urls} property (comma-separated JDBC urls, same credentials
+ * as {@code jdbc.url}), ie:
+ * <pre>
+ * jdbc.replica_urls=jdbc:postgresql://db1:5432/string_9_1,jdbc:postgresql://db2:5432/string_9_1
+ * jdbc.health_check_seconds=10
+ * </pre>
+ * Falls back to {@code jdbc.url} only if there are no replicas.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ * @see ReplicaRoutingDataSource
+ */
+@Configuration
+@PropertySource("file:/opt/stringdb/jdbc-v1.0.properties")
+public class ReplicaDataSourceConfig implements DataSourceConfig {
+    @Autowired
+    Environment env;
+
+    @Override
+    @Bean //need to repeat the annotation
+    public DataSource dataSource() {
+        final String urls = env.getProperty("jdbc.replica_urls", env.getProperty("jdbc.url"));
+        if (urls == null) {
+            throw new ExceptionInInitializerError("missing property 'jdbc.replica_urls' or 'jdbc.url' " + env);
+        }
+        final Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls.split(",")) {
+            if (url.trim().isEmpty()) continue;
+            replicas.put(url.trim(), new DriverManagerDataSource(url.trim(),
+                    env.getProperty("jdbc.username"),
+                    env.getProperty("jdbc.password")));
+        }
+        return new ReplicaRoutingDataSource(replicas, env.getProperty("jdbc.health_check_seconds", Integer.class, 10));
+    }
+}
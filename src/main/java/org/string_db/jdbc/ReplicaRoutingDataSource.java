@@ -0,0 +1,347 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads connections over several replicas of the same STRING release. All repositories only read,
+ * so any replica can serve any query.
+ * <p/>
+ * Every connection goes to the healthy replica with the fewest connections currently checked out
+ * (least outstanding requests), ties are broken round-robin. If a replica fails to hand out a connection,
+ * or a connection fails with a connection-level error (SQL state class {@code 08}), the replica is marked
+ * down and the next one is tried. Replicas that are down are re-checked by {@link #checkHealth()}, run in
+ * the background every {@code healthCheckSeconds}; when all of them are down, all are tried anyway.
+ * <p/>
+ * Per-replica request counts and latencies (from checking out a connection to closing it) are available
+ * through {@link #getStats()}.
+ * <p/>
+ * @ThreadSafe
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = Logger.getLogger(ReplicaRoutingDataSource.class);
+    static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    /**
+     * @param replicas           {name -> data source}, ie {url -> DriverManagerDataSource}
+     * @param healthCheckSeconds interval of background health checks, 0 to disable them
+     */
+    public ReplicaRoutingDataSource(Map<String, DataSource> replicas, int healthCheckSeconds) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("no replicas");
+        }
+        final List<Replica> list = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            list.add(new Replica(replica.getKey(), replica.getValue()));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        if (healthCheckSeconds > 0) {
+            healthChecks = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "replica-health-check");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            healthChecks.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    checkHealth();
+                }
+            }, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
+        } else {
+            healthChecks = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        SQLException failure = null;
+        final List<Replica> tried = new ArrayList<>(replicas.size());
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            final Replica replica = select(tried);
+            if (replica == null) break;
+            tried.add(replica);
+            try {
+                return replica.connect(username, password);
+            } catch (SQLException e) {
+                log.warn("replica " + replica.name + " failed, marking it down", e);
+                replica.markDown();
+                if (failure == null) failure = e;
+            }
+        }
+        throw failure != null ? failure : new SQLException("no replica available");
+    }
+
+    /**
+     * @return healthy replica with the fewest outstanding connections that hasn't been tried yet,
+     * any untried replica if none is healthy
+     */
+    private Replica select(List<Replica> tried) {
+        final int size = replicas.size();
+        final int start = (next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        Replica best = null;
+        Replica fallback = null;
+        for (int i = 0; i < size; i++) {
+            final Replica replica = replicas.get((start + i) % size);
+            if (tried.contains(replica)) continue;
+            if (fallback == null) fallback = replica;
+            if (!replica.healthy.get()) continue;
+            if (best == null || replica.outstanding.get() < best.outstanding.get()) best = replica;
+        }
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * validate a connection of every replica, marking it up or down
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean valid;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                valid = false;
+            }
+            if (replica.healthy.getAndSet(valid) != valid) {
+                log.info("replica " + replica.name + " is " + (valid ? "up" : "down"));
+            }
+        }
+    }
+
+    /**
+     * @return {replica name -> snapshot of its stats}, in configuration order
+     */
+    public Map<String, ReplicaStats> getStats() {
+        final Map<String, ReplicaStats> stats = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            stats.put(replica.name, replica.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * stop the background health checks
+     */
+    @Override
+    public void close() {
+        if (healthChecks != null) healthChecks.shutdownNow();
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        final AtomicBoolean healthy = new AtomicBoolean(true);
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        Connection connect(String username, String password) throws SQLException {
+            outstanding.incrementAndGet();
+            final long start = System.nanoTime();
+            try {
+                final Connection connection = username == null
+                        ? dataSource.getConnection() : dataSource.getConnection(username, password);
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, new TrackedConnection(this, connection, start));
+            } catch (SQLException | RuntimeException e) {
+                outstanding.decrementAndGet();
+                throw e;
+            }
+        }
+
+        void markDown() {
+            failures.incrementAndGet();
+            healthy.set(false);
+        }
+
+        void done(long start) {
+            final long nanos = System.nanoTime() - start;
+            outstanding.decrementAndGet();
+            requests.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                //retry
+            }
+        }
+
+        ReplicaStats stats() {
+            return new ReplicaStats(healthy.get(), outstanding.get(), requests.get(), failures.get(),
+                    totalNanos.get(), maxNanos.get());
+        }
+    }
+
+    /**
+     * Releases the replica on {@link Connection#close()} and watches for connection-level errors.
+     */
+    private static final class TrackedConnection implements InvocationHandler {
+        private final Replica replica;
+        private final Connection connection;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        TrackedConnection(Replica replica, Connection connection, long start) {
+            this.replica = replica;
+            this.connection = connection;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.equals("close")) {
+                if (closed.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    } finally {
+                        replica.done(start);
+                    }
+                }
+                return null;
+            }
+            if (name.equals("equals")) return proxy == args[0];
+            if (name.equals("hashCode")) return System.identityHashCode(proxy);
+            if (name.equals("toString")) return "replica " + replica.name + ": " + connection;
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+                    log.warn("connection to replica " + replica.name + " failed, marking it down", cause);
+                    replica.markDown();
+                }
+                throw cause;
+            }
+        }
+
+        private static boolean isConnectionError(SQLException e) {
+            return e.getSQLState() != null && e.getSQLState().startsWith("08");
+        }
+    }
+
+    /**
+     * Snapshot of the stats of one replica.
+     */
+    public static final class ReplicaStats {
+        private final boolean healthy;
+        private final int outstanding;
+        private final long requests;
+        private final long failures;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        ReplicaStats(boolean healthy, int outstanding, long requests, long failures, long totalNanos, long maxNanos) {
+            this.healthy = healthy;
+            this.outstanding = outstanding;
+            this.requests = requests;
+            this.failures = failures;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * @return connections currently checked out
+         */
+        public int getOutstanding() {
+            return outstanding;
+        }
+
+        /**
+         * @return completed requests (closed connections)
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return times the replica was marked down
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        public double getMeanLatencyMillis() {
+            return requests == 0 ? 0 : totalNanos / 1e6 / requests;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "ReplicaStats{" +
+                    "healthy=" + healthy +
+                    ", outstanding=" + outstanding +
+                    ", requests=" + requests +
+                    ", failures=" + failures +
+                    ", meanLatencyMillis=" + getMeanLatencyMillis() +
+                    ", maxLatencyMillis=" + getMaxLatencyMillis() +
+                    '}';
+        }
+    }
+}
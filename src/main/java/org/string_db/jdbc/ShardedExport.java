@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Plumbing shared by the per-species exporters: opening a (gzipped) output file and
+ * running one export per species on a fixed number of threads.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+final class ShardedExport {
+
+    private static final Logger log = Logger.getLogger(ShardedExport.class);
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private ShardedExport() {
+    }
+
+    /**
+     * Exports one species to its own file.
+     */
+    interface Shard {
+        /**
+         * @return number of records written
+         */
+        long export(Integer speciesId);
+    }
+
+    /**
+     * Run {@code shard} for every species, {@code threads} species at a time. All species are
+     * attempted even if some fail, the first failure is rethrown at the end.
+     *
+     * @param directory output directory, only used in error messages
+     * @return {species_id -> number of records written}, in the order of {@code speciesIds}
+     */
+    static Map<Integer, Long> exportAll(Collection<Integer> speciesIds, File directory, int threads, final Shard shard) {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final Map<Integer, Future<Long>> shards = new LinkedHashMap<>();
+            for (final Integer speciesId : speciesIds) {
+                shards.put(speciesId, executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws Exception {
+                        return shard.export(speciesId);
+                    }
+                }));
+            }
+            final Map<Integer, Long> written = new LinkedHashMap<>();
+            RuntimeException failure = null;
+            for (Map.Entry<Integer, Future<Long>> entry : shards.entrySet()) {
+                try {
+                    written.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    log.error("export failed for species: " + entry.getKey(), e.getCause());
+                    if (failure == null) failure = new RuntimeException("export failed for species: " + entry.getKey(), e.getCause());
+                }
+            }
+            if (failure != null) throw failure;
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while exporting to " + directory, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param file overwritten if it exists
+     * @param gzip compress the output
+     */
+    static Writer open(File file, boolean gzip) throws IOException {
+        final OutputStream stream = Channels.newOutputStream(new FileOutputStream(file).getChannel());
+        try {
+            //GZIPOutputStream writes the header right away
+            final OutputStream out = gzip ? new GZIPOutputStream(stream, BUFFER_SIZE) : stream;
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.string_db.SpeciesCatalog;
+import org.string_db.SpeciesRepository;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link SpeciesCatalog}, so species metadata can be read on the request path
+ * without touching the database. The catalog is loaded on first use; {@link #refresh()} loads a
+ * new one and swaps it in atomically, readers see either the old or the new snapshot.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class SpeciesCatalogCache {
+
+    private static final Logger log = Logger.getLogger(SpeciesCatalogCache.class);
+
+    @Autowired
+    SpeciesRepository speciesRepository;
+
+    private final AtomicReference<SpeciesCatalog> catalog = new AtomicReference<>();
+
+    /**
+     * @return current snapshot, loaded from the database only the first time
+     */
+    public SpeciesCatalog get() {
+        final SpeciesCatalog current = catalog.get();
+        if (current != null) return current;
+        synchronized (this) {
+            if (catalog.get() == null) {
+                refresh();
+            }
+            return catalog.get();
+        }
+    }
+
+    /**
+     * load a new snapshot and replace the current one
+     *
+     * @return the new snapshot
+     */
+    public SpeciesCatalog refresh() {
+        final SpeciesCatalog fresh = speciesRepository.loadSpeciesCatalog();
+        catalog.set(fresh);
+        log.info("loaded " + fresh);
+        return fresh;
+    }
+}
@@ -20,11 +20,17 @@ package org.string_db.jdbc;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.string_db.Species;
+import org.string_db.SpeciesCatalog;
 import org.string_db.SpeciesRepository;
+import org.string_db.TaxonomyIndex;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 
@@ -71,4 +77,42 @@ public class SpeciesRepositoryJdbc implements SpeciesRepository {
         return queryProcessor.selectTwoColumns("species_id", "official_name", "items.species",
                 TwoColumnRowMapper.<Integer, String>uniqueValMapper());
     }
+
+    @Override
+    public SpeciesCatalog loadSpeciesCatalog() {
+        final SpeciesCatalog.Builder builder = SpeciesCatalog.builder();
+        jdbcTemplate.query("SELECT species_id, official_name, compact_name, kingdom, \"type\" FROM items.species",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.add(new Species(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+                    }
+                });
+        final RowCallbackHandler names = new RowCallbackHandler() {
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                builder.addName(rs.getInt(1), rs.getString(2));
+            }
+        };
+        //both tables cover the whole taxonomy, the builder skips non-STRING species
+        jdbcTemplate.query("SELECT species_id, species_name FROM items.species_names WHERE is_string_species", names);
+        jdbcTemplate.query("SELECT species_id, species_name FROM items.species_nodes", names);
+        return builder.build();
+    }
+
+    @Override
+    public TaxonomyIndex loadTaxonomy() {
+        final TaxonomyIndex.Builder builder = TaxonomyIndex.builder();
+        jdbcTemplate.query("SELECT species_id, species_name, \"position\", \"size\" FROM items.species_nodes",
+                new RowCallbackHandler() {
+                    @Override
+                    public void processRow(ResultSet rs) throws SQLException {
+                        builder.addNode(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4));
+                    }
+                });
+        for (Integer speciesId : loadSpeciesIds()) {
+            builder.addSpecies(speciesId);
+        }
+        return builder.build();
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.string_db.ProteinRepository;
+import org.string_db.SpeciesCatalog;
+import org.string_db.SpeciesRepository;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+
+/**
+ * One STRING release: its own {@link AppConfig} context on top of the release's {@link DataSource},
+ * so every release has its own repositories and its own caches ({@link SpeciesCatalogCache}, {@link TaxonomyCache}).
+ * <p/>
+ * @ThreadSafe
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ * @see StringReleases
+ */
+public final class StringRelease implements Closeable {
+
+    private static final Logger log = Logger.getLogger(StringRelease.class);
+
+    private final String name;
+    private final AnnotationConfigApplicationContext ctx;
+    private volatile boolean warm;
+
+    StringRelease(String name, DataSource dataSource) {
+        this.name = name;
+        ctx = new AnnotationConfigApplicationContext();
+        ctx.setDisplayName("STRING release " + name);
+        ctx.getBeanFactory().registerSingleton(ReleaseDataSourceConfig.RELEASE_DATA_SOURCE, dataSource);
+        ctx.register(AppConfig.class, ReleaseDataSourceConfig.class);
+        ctx.refresh();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ProteinRepository getProteinRepository() {
+        return ctx.getBean(ProteinRepository.class);
+    }
+
+    public SpeciesRepository getSpeciesRepository() {
+        return ctx.getBean(SpeciesRepository.class);
+    }
+
+    public SpeciesCatalog getSpeciesCatalog() {
+        return ctx.getBean(SpeciesCatalogCache.class).get();
+    }
+
+    /**
+     * @return any other bean of the release, ie {@code NetworkRepository.class}
+     */
+    public <T> T getBean(Class<T> type) {
+        return ctx.getBean(type);
+    }
+
+    /**
+     * fill the release's caches, so the first requests after a switch don't have to
+     */
+    public void warmUp() {
+        final long start = System.currentTimeMillis();
+        ctx.getBean(SpeciesCatalogCache.class).refresh();
+        ctx.getBean(TaxonomyCache.class).refresh();
+        warm = true;
+        log.info("release " + name + " warmed up in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @Override
+    public void close() {
+        ctx.close();
+    }
+
+    /**
+     * Serves the data source registered with the release's context.
+     */
+    @Configuration
+    static class ReleaseDataSourceConfig implements DataSourceConfig {
+        static final String RELEASE_DATA_SOURCE = "releaseDataSource";
+
+        @Autowired
+        @Qualifier(RELEASE_DATA_SOURCE)
+        DataSource releaseDataSource;
+
+        @Override
+        @Bean(destroyMethod = "") //the data source belongs to the caller, closing the release mustn't shut it down
+        public DataSource dataSource() {
+            return releaseDataSource;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StringRelease{" +
+                "name='" + name + '\'' +
+                ", warm=" + warm +
+                '}';
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.string_db.ProteinRepository;
+import org.string_db.SpeciesCatalog;
+import org.string_db.SpeciesRepository;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Several STRING releases side by side in one JVM, with one of them being the current one.
+ * <p/>
+ * During a release transition the new release is added next to the old one, warmed up in the background
+ * and then made current, ie:
+ * <pre>
+ * releases.add("10", newDataSource);
+ * releases.warmUpAndSwitch("10", executor).get();
+ * releases.retire("9_1");
+ * </pre>
+ * The switch is a single reference swap: callers of {@link #current()} see either the old or the new
+ * release, never a mix. Code that issues several queries should call {@link #current()} once and work
+ * with the returned release, rather than going through the facade for each query.
+ * <p/>
+ * @ThreadSafe
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class StringReleases implements Closeable {
+
+    private static final Logger log = Logger.getLogger(StringReleases.class);
+
+    private final ConcurrentMap<String, StringRelease> releases = new ConcurrentHashMap<>();
+    private final AtomicReference<StringRelease> current = new AtomicReference<>();
+
+    /**
+     * Releases are listed in {@code jdbc.releases}, the first one is current unless
+     * {@code jdbc.current_release} says otherwise, ie:
+     * <pre>
+     * jdbc.releases=9_1,10
+     * jdbc.9_1.url=jdbc:postgresql://db1:5432/string_9_1
+     * jdbc.10.url=jdbc:postgresql://db2:5432/string_10
+     * </pre>
+     * {@code jdbc.<release>.username} and {@code jdbc.<release>.password} default to
+     * {@code jdbc.username} and {@code jdbc.password}.
+     */
+    public static StringReleases fromProperties(PropertyResolver env) {
+        final String names = env.getProperty("jdbc.releases");
+        if (names == null) {
+            throw new ExceptionInInitializerError("missing property 'jdbc.releases' " + env);
+        }
+        final StringReleases releases = new StringReleases();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            final String url = env.getProperty("jdbc." + name + ".url");
+            if (url == null) {
+                throw new ExceptionInInitializerError("missing property 'jdbc." + name + ".url' " + env);
+            }
+            releases.add(name, new DriverManagerDataSource(url,
+                    env.getProperty("jdbc." + name + ".username", env.getProperty("jdbc.username")),
+                    env.getProperty("jdbc." + name + ".password", env.getProperty("jdbc.password"))));
+        }
+        if (env.containsProperty("jdbc.current_release")) {
+            releases.switchTo(env.getProperty("jdbc.current_release"));
+        }
+        return releases;
+    }
+
+    /**
+     * Create the release, the first one added becomes current.
+     *
+     * @throws IllegalArgumentException if there's already a release with that name
+     */
+    public StringRelease add(String name, DataSource dataSource) {
+        final StringRelease release = new StringRelease(name, dataSource);
+        if (releases.putIfAbsent(name, release) != null) {
+            release.close();
+            throw new IllegalArgumentException("release " + name + " already exists");
+        }
+        if (current.compareAndSet(null, release)) {
+            log.info("current release: " + name);
+        }
+        return release;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there's no such release
+     */
+    public StringRelease get(String name) {
+        final StringRelease release = releases.get(name);
+        if (release == null) {
+            throw new IllegalArgumentException("unknown release: " + name + ", known: " + releases.keySet());
+        }
+        return release;
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<>(releases.keySet());
+    }
+
+    /**
+     * @throws IllegalStateException if no release has been added
+     */
+    public StringRelease current() {
+        final StringRelease release = current.get();
+        if (release == null) {
+            throw new IllegalStateException("no release");
+        }
+        return release;
+    }
+
+    public ProteinRepository getProteinRepository() {
+        return current().getProteinRepository();
+    }
+
+    public SpeciesRepository getSpeciesRepository() {
+        return current().getSpeciesRepository();
+    }
+
+    public SpeciesCatalog getSpeciesCatalog() {
+        return current().getSpeciesCatalog();
+    }
+
+    /**
+     * make {@code name} the current release, as is (see {@link #warmUpAndSwitch})
+     *
+     * @return previous current release
+     */
+    public synchronized StringRelease switchTo(String name) {
+        final StringRelease release = get(name);
+        final StringRelease previous = current.getAndSet(release);
+        log.info("switched from release " + (previous == null ? null : previous.getName()) + " to " + name);
+        return previous;
+    }
+
+    /**
+     * Warm up the release on the {@code executor} and make it current once it's warm. If warming up fails
+     * the current release stays as it is and the future completes with the exception.
+     *
+     * @return future of the previous current release
+     */
+    public Future<StringRelease> warmUpAndSwitch(String name, ExecutorService executor) {
+        final StringRelease release = get(name);
+        return executor.submit(new Callable<StringRelease>() {
+            @Override
+            public StringRelease call() throws Exception {
+                release.warmUp();
+                return switchTo(release.getName());
+            }
+        });
+    }
+
+    /**
+     * remove the release and close its context
+     *
+     * @throws IllegalStateException if it's the current release
+     */
+    public synchronized void retire(String name) {
+        final StringRelease release = get(name);
+        if (current.get() == release) {
+            throw new IllegalStateException("cannot retire the current release " + name);
+        }
+        releases.remove(name, release);
+        release.close();
+        log.info("retired release " + name);
+    }
+
+    @Override
+    public void close() {
+        for (StringRelease release : releases.values()) {
+            release.close();
+        }
+        releases.clear();
+        current.set(null);
+    }
+}
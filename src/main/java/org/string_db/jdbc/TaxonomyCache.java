@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.string_db.SpeciesRepository;
+import org.string_db.TaxonomyIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link TaxonomyIndex}, the same way {@link SpeciesCatalogCache} holds the species catalog,
+ * so clade queries don't touch the database. Batch operations over several species can target a whole clade
+ * with {@link #cladeSpeciesIds(int)}, ie
+ * {@code mitabExporter.exportAll(taxonomyCache.cladeSpeciesIds(2), directory, format, gzip, threads)} for all bacteria.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+@Component
+public class TaxonomyCache {
+
+    private static final Logger log = Logger.getLogger(TaxonomyCache.class);
+
+    @Autowired
+    SpeciesRepository speciesRepository;
+
+    private final AtomicReference<TaxonomyIndex> taxonomy = new AtomicReference<>();
+
+    /**
+     * @return current snapshot, loaded from the database only the first time
+     */
+    public TaxonomyIndex get() {
+        final TaxonomyIndex current = taxonomy.get();
+        if (current != null) return current;
+        synchronized (this) {
+            if (taxonomy.get() == null) {
+                refresh();
+            }
+            return taxonomy.get();
+        }
+    }
+
+    /**
+     * load a new snapshot and replace the current one
+     *
+     * @return the new snapshot
+     */
+    public TaxonomyIndex refresh() {
+        final TaxonomyIndex fresh = speciesRepository.loadTaxonomy();
+        taxonomy.set(fresh);
+        log.info("loaded " + fresh);
+        return fresh;
+    }
+
+    /**
+     * @return STRING species_ids under the taxonomy node, empty if there's no such node
+     */
+    public List<Integer> cladeSpeciesIds(int taxonId) {
+        final int[] species = get().speciesUnder(taxonId);
+        final List<Integer> ids = new ArrayList<>(species.length);
+        for (int speciesId : species) {
+            ids.add(speciesId);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class AnnotationSearchIndexTest {
+
+    final AnnotationSearchIndex index = AnnotationSearchIndex.builder(1)
+            .add(30, "Homoserine kinase")
+            .add(10, "homoserine dehydrogenase I; aspartokinase")
+            .add(20, "threonine synthase")
+            .add(40, "shikimate kinase I")
+            .add(40, "aroK")
+            .add(50, "kinase kinase, kinase-associated")
+            .build();
+
+    @Test
+    public void test_tokenize() throws Exception {
+        assertEquals(ImmutableList.of("thr", "operon", "leader", "peptide", "3", "kinase"),
+                AnnotationSearchIndex.tokenize(" thr operon leader-peptide; (3) KINASE"));
+        assertTrue(AnnotationSearchIndex.tokenize(" ;- ").isEmpty());
+        assertTrue(AnnotationSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    public void test_build() throws Exception {
+        assertEquals(5, index.documentCount());
+        assertEquals(3, index.documentFrequency("kinase"));
+        assertEquals(3, index.documentFrequency("KINASE"));
+        assertEquals(1, index.documentFrequency("arok"));
+        assertEquals(0, index.documentFrequency("kin"));
+    }
+
+    @Test
+    public void test_and() throws Exception {
+        assertArrayEquals(new int[]{30}, index.search("homoserine kinase", 10).getProteinIds());
+        assertArrayEquals(new int[]{40}, index.search("kinase, I shikimate", 10).getProteinIds());
+        assertEquals(0, index.search("threonine kinase", 10).size());
+        assertEquals(0, index.search("no such words", 10).size());
+        assertEquals(0, index.search("  ", 10).size());
+    }
+
+    @Test
+    public void test_lastTokenIsPrefix() throws Exception {
+        assertArrayEquals(new int[]{30}, index.search("kinase homos", 10).getProteinIds());
+        final AnnotationSearchIndex.Hits hits = index.search("homoserine", 10);
+        assertEquals(2, hits.size());
+        //only the last token is a prefix
+        assertEquals(0, index.search("homos kinase", 10).size());
+        //a document matched by several expansions of the prefix is reported once
+        assertArrayEquals(new int[]{10}, index.search("homoserine a", 10).getProteinIds());
+    }
+
+    @Test
+    public void test_ranking() throws Exception {
+        final AnnotationSearchIndex.Hits hits = index.search("kinase", 10);
+        assertEquals(3, hits.size());
+        assertEquals("repeated term ranks first", 50, hits.proteinId(0));
+        assertEquals("shorter annotation ranks higher", 30, hits.proteinId(1));
+        assertEquals(40, hits.proteinId(2));
+        assertTrue(hits.score(0) > hits.score(1));
+        assertTrue(hits.score(1) > hits.score(2));
+        assertArrayEquals("bounded to k", new int[]{50, 30}, index.search("kinase", 2).getProteinIds());
+        assertEquals(0, index.search("kinase", 0).size());
+    }
+
+    @Test
+    public void test_completions() throws Exception {
+        assertEquals(ImmutableList.of("kinase"), index.completions("KIN", 5));
+        assertEquals(ImmutableList.of("kinase"), index.completions("k", 5));
+        assertEquals("equally frequent terms in alphabetical order",
+                ImmutableList.of("arok", "aspartokinase", "associated"), index.completions("a", 5));
+        assertEquals(ImmutableList.of("kinase", "homoserine"), index.completions("", 2));
+        assertTrue(index.completions("zzz", 5).isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class BinaryFilesTest {
+    static final int MAGIC = 0x54455354;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "test.bin");
+    }
+
+    void write(final int[] values) throws IOException {
+        BinaryFiles.write(file, MAGIC, 1, new BinaryFiles.Body() {
+            @Override
+            public void write(DataOutputStream out) throws IOException {
+                out.writeInt(values.length);
+                BinaryFiles.writeInts(out, values);
+            }
+        });
+    }
+
+    int[] read(int version) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            final ByteBuffer header = BinaryFiles.header(channel, file, "a test", MAGIC, version, 12);
+            final int count = header.getInt();
+            BinaryFiles.checkSize(channel, file, "a test", 12 + 4L * count);
+            return BinaryFiles.readInts(header, count);
+        }
+    }
+
+    @Test
+    public void test_roundtrip() throws Exception {
+        write(new int[]{3, -1, Integer.MAX_VALUE});
+        assertArrayEquals(new int[]{3, -1, Integer.MAX_VALUE}, read(1));
+        write(new int[0]);
+        assertArrayEquals(new int[0], read(1));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void test_failedWrite() throws Exception {
+        write(new int[]{1, 2});
+        try {
+            BinaryFiles.write(file, MAGIC, 1, new BinaryFiles.Body() {
+                @Override
+                public void write(DataOutputStream out) throws IOException {
+                    out.writeInt(5);
+                    throw new IOException("disk full");
+                }
+            });
+            fail();
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertArrayEquals("the old file is kept", new int[]{1, 2}, read(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void test_otherVersion() throws Exception {
+        write(new int[]{1});
+        read(2);
+    }
+
+    @Test(expected = IOException.class)
+    public void test_otherMagic() throws Exception {
+        NetworkFile.write(CsrNetworkGraphTest.smallNetwork(), file);
+        read(1);
+    }
+
+    @Test(expected = IOException.class)
+    public void test_tooShort() throws Exception {
+        folder.newFile("test.bin");
+        read(1);
+    }
+
+    @Test(expected = IOException.class)
+    public void test_truncated() throws Exception {
+        write(new int[]{1, 2, 3});
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        read(1);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class CompressedNetworkGraphTest {
+
+    @Test
+    public void test_small() throws Exception {
+        final CsrNetworkGraph graph = CsrNetworkGraphTest.smallNetwork();
+        final CompressedNetworkGraph compressed = CompressedNetworkGraph.encode(graph);
+        assertSameGraph(graph, compressed);
+        assertFalse(compressed.hasChannel(FUSION));
+        assertTrue(compressed.hasChannel(COEXPRESSION));
+    }
+
+    @Test
+    public void test_random() throws Exception {
+        final Random random = new Random(3);
+        final CsrNetworkGraph.Builder builder = CsrNetworkGraph.builder(9606);
+        for (int i = 0; i < 50000; i++) {
+            //sparse ids, so gaps need multi-byte varints
+            final int a = random.nextInt(2000) * 1000;
+            final int b = random.nextInt(2000) * 1000;
+            builder.add(a, b, 150 + random.nextInt(851));
+            //many distinct values so some scores need the escape code
+            if (random.nextBoolean()) builder.score(TEXTMINING, random.nextInt(1001));
+            if (random.nextInt(5) == 0) builder.score(EXPERIMENTAL, 900);
+            if (random.nextInt(50) == 0) builder.score(NEIGHBOURHOOD_TRANSFERRED, 1 + random.nextInt(10));
+        }
+        final CsrNetworkGraph graph = builder.build();
+        final CompressedNetworkGraph compressed = CompressedNetworkGraph.encode(graph);
+        assertSameGraph(graph, compressed);
+        assertTrue(compressed + " vs " + graph.memoryBytes(), compressed.memoryBytes() < graph.memoryBytes());
+    }
+
+    @Test
+    public void test_empty() throws Exception {
+        final CompressedNetworkGraph compressed = CompressedNetworkGraph.encode(CsrNetworkGraph.builder(9606).build());
+        assertEquals(0, compressed.nodeCount());
+        assertEquals(0, compressed.edgeCount());
+    }
+
+    static void assertSameGraph(NetworkGraph expected, NetworkGraph actual) {
+        assertEquals(expected.getSpeciesId(), actual.getSpeciesId());
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        final NetworkGraph.Cursor expectedCursor = expected.cursor();
+        final NetworkGraph.Cursor actualCursor = actual.cursor();
+        for (int node = 0; node < expected.nodeCount(); node++) {
+            assertEquals(expected.proteinId(node), actual.proteinId(node));
+            assertEquals(node, actual.nodeOf(expected.proteinId(node)));
+            assertEquals(expected.degree(node), actual.degree(node));
+            assertArrayEquals(expected.neighbours(node, 700), actual.neighbours(node, 700));
+            expectedCursor.reset(node, 0);
+            actualCursor.reset(node, 0);
+            while (expectedCursor.next()) {
+                assertTrue(actualCursor.next());
+                assertEquals(expectedCursor.node(), actualCursor.node());
+                assertEquals(expectedCursor.combinedScore(), actualCursor.combinedScore());
+                for (EvidenceType type : EvidenceType.values()) {
+                    assertEquals(type.name(), expectedCursor.score(type), actualCursor.score(type));
+                }
+            }
+            assertFalse(actualCursor.next());
+        }
+    }
+}
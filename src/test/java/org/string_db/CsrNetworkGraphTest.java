@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class CsrNetworkGraphTest {
+
+    /**
+     * 1 - 2 (900), 1 - 3 (400), 3 - 5 (200), both directions like in node_node_links
+     */
+    static CsrNetworkGraph smallNetwork() {
+        final CsrNetworkGraph.Builder builder = CsrNetworkGraph.builder(9606);
+        link(builder, StringDbScores.builder(1, 2).with(EXPERIMENTAL, 800).with(TEXTMINING, 500).build(), 900);
+        link(builder, StringDbScores.builder(1, 3).with(TEXTMINING, 400).build(), 400);
+        link(builder, StringDbScores.builder(5, 3).with(COEXPRESSION, 200).build(), 200);
+        return builder.build();
+    }
+
+    private static void link(CsrNetworkGraph.Builder builder, StringDbScores scores, int combined) {
+        builder.add(scores, combined);
+        final StringDbScores.Builder reverse = StringDbScores.builder(scores.getProteinB(), scores.getProteinA());
+        for (EvidenceType type : EvidenceType.values()) {
+            if (scores.get(type) != null) reverse.with(type, scores.get(type));
+        }
+        builder.add(reverse.build(), combined);
+    }
+
+    final CsrNetworkGraph graph = smallNetwork();
+
+    @Test
+    public void test_nodes() throws Exception {
+        assertEquals(4, graph.nodeCount());
+        assertEquals(6, graph.edgeCount());
+        assertEquals(0, graph.nodeOf(1));
+        assertEquals(3, graph.nodeOf(5));
+        assertEquals(-1, graph.nodeOf(4));
+        assertEquals(5, graph.proteinId(3));
+        assertEquals(2, graph.degree(graph.nodeOf(1)));
+        assertEquals(2, graph.degree(graph.nodeOf(3)));
+    }
+
+    @Test
+    public void test_neighbours_threshold() throws Exception {
+        final int node = graph.nodeOf(1);
+        assertArrayEquals(new int[]{graph.nodeOf(2), graph.nodeOf(3)}, graph.neighbours(node, 0));
+        assertArrayEquals(new int[]{graph.nodeOf(2)}, graph.neighbours(node, 700));
+        assertArrayEquals(new int[0], graph.neighbours(node, 901));
+    }
+
+    @Test
+    public void test_cursor() throws Exception {
+        final NetworkGraph.Cursor cursor = graph.cursor();
+        cursor.reset(graph.nodeOf(1), 0);
+        assertTrue(cursor.next());
+        assertEquals(graph.nodeOf(2), cursor.node());
+        assertEquals(900, cursor.combinedScore());
+        assertEquals(800, cursor.score(EXPERIMENTAL));
+        assertEquals(0, cursor.score(FUSION));
+        assertTrue(cursor.next());
+        assertEquals(graph.nodeOf(3), cursor.node());
+        assertEquals(400, cursor.score(TEXTMINING));
+        assertFalse(cursor.next());
+
+        cursor.reset(graph.nodeOf(3), 300);
+        assertTrue(cursor.next());
+        assertEquals(graph.nodeOf(1), cursor.node());
+        assertFalse("3 - 5 is below threshold", cursor.next());
+    }
+
+    @Test
+    public void test_channels() throws Exception {
+        assertTrue(graph.hasChannel(EXPERIMENTAL));
+        assertTrue(graph.hasChannel(COEXPRESSION));
+        assertFalse(graph.hasChannel(FUSION));
+        assertEquals(4 * (4 + 5 + 6) + 2 * 6 * 4, graph.memoryBytes());
+    }
+
+    @Test
+    public void test_findEdge() throws Exception {
+        final int edge = graph.findEdge(graph.nodeOf(5), graph.nodeOf(3));
+        assertEquals(graph.nodeOf(3), graph.target(edge));
+        assertEquals(200, graph.combinedScore(edge));
+        assertEquals(200, graph.score(edge, COEXPRESSION));
+        assertEquals(-1, graph.findEdge(graph.nodeOf(5), graph.nodeOf(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scoreOutOfRange() throws Exception {
+        CsrNetworkGraph.builder(9606).add(1, 2, 1001);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class EnrichmentEngineTest {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        pool.shutdownNow();
+    }
+
+    static IntBitmap range(int from, int to) {
+        final int[] values = new int[to - from];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i;
+        }
+        return IntBitmap.of(values);
+    }
+
+    /**
+     * background 0..999, A 0..99, B 100..299, C 500..999
+     */
+    static EnrichmentEngine engine() {
+        final Map<String, IntBitmap> sets = new HashMap<>();
+        sets.put("A", range(0, 100));
+        sets.put("B", range(100, 300));
+        sets.put("C", range(500, 1000));
+        return new EnrichmentEngine(new AnnotationSets(511145, sets), range(0, 1000));
+    }
+
+    @Test
+    public void test_pValue_exact() throws Exception {
+        final EnrichmentEngine engine = engine();
+        final int[][] cases = {{50, 100, 60}, {10, 500, 60}, {1, 100, 1}, {3, 200, 10}, {60, 500, 60}};
+        for (int[] c : cases) {
+            assertEquals(exact(c[0], c[1], c[2], 1000), engine.pValue(c[0], c[1], c[2]), 1e-12);
+        }
+        assertEquals(1.0, engine.pValue(0, 100, 60), 0);
+    }
+
+    private static double exact(int hits, int category, int drawn, int total) {
+        BigInteger sum = BigInteger.ZERO;
+        for (int x = hits; x <= Math.min(category, drawn); x++) {
+            sum = sum.add(choose(category, x).multiply(choose(total - category, drawn - x)));
+        }
+        return new BigDecimal(sum).divide(new BigDecimal(choose(total, drawn)), MathContext.DECIMAL64).doubleValue();
+    }
+
+    private static BigInteger choose(int n, int k) {
+        if (k < 0 || k > n) return BigInteger.ZERO;
+        BigInteger r = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            r = r.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        }
+        return r;
+    }
+
+    @Test
+    public void test_enrich() throws Exception {
+        //50 of A, 10 of C, 2000 is outside of the background
+        final IntBitmap query = range(0, 50).or(range(500, 510)).or(IntBitmap.of(2000));
+        final List<EnrichmentEngine.Enrichment> all = engine().enrich(query, 1, pool);
+        assertEquals("B has no hits so it isn't tested", 2, all.size());
+        final EnrichmentEngine.Enrichment a = all.get(0);
+        assertEquals("A", a.getCategoryId());
+        assertEquals(100, a.getCategorySize());
+        assertEquals(50, a.getHits());
+        assertEquals(6.0, a.getExpected(), 1e-9);
+        assertTrue(a.getPValue() < 1e-20);
+        assertEquals(Math.min(1, a.getPValue() * 2), a.getFdr(), 1e-30);
+        assertEquals("C", all.get(1).getCategoryId());
+        assertTrue(all.get(1).getPValue() > 0.99);
+
+        assertEquals(1, engine().enrich(query, 0.05, pool).size());
+        assertArrayEquals(new int[]{500, 501, 502, 503, 504, 505, 506, 507, 508, 509},
+                engine().hits("C", query).toArray());
+    }
+
+    @Test
+    public void test_enrich_parallel_many_categories() throws Exception {
+        final Random random = new Random(7);
+        final Map<String, IntBitmap> sets = new HashMap<>();
+        for (int c = 0; c < 3 * EnrichmentEngine.BATCH_SIZE + 11; c++) {
+            final int[] members = new int[1 + random.nextInt(200)];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = random.nextInt(20000);
+            }
+            sets.put("c" + c, IntBitmap.of(members));
+        }
+        final AnnotationSets annotations = new AnnotationSets(9606, sets);
+        final EnrichmentEngine engine = new EnrichmentEngine(annotations);
+        final int[] query = new int[5000];
+        for (int i = 0; i < query.length; i++) {
+            query[i] = random.nextInt(20000);
+        }
+        final IntBitmap q = IntBitmap.of(query).and(engine.getBackground());
+        final List<EnrichmentEngine.Enrichment> result = engine.enrich(q, 1, pool);
+        double previousP = 0;
+        double previousFdr = 0;
+        for (EnrichmentEngine.Enrichment e : result) {
+            final IntBitmap members = annotations.proteins(e.getCategoryId());
+            assertEquals(members.andCardinality(q), e.getHits());
+            assertEquals(engine.pValue(e.getHits(), members.cardinality(), q.cardinality()), e.getPValue(), 0);
+            assertTrue(e.getPValue() >= previousP);
+            assertTrue(e.getFdr() >= previousFdr);
+            assertTrue(e.getFdr() >= e.getPValue());
+            previousP = e.getPValue();
+            previousFdr = e.getFdr();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class EvidenceScoresDecoderTest {
+    final Map<Integer, String> scoreTypes = new HashMap<Integer, String>();
+
+    {
+        scoreTypes.put(6, "coexpression");
+        scoreTypes.put(7, "Experimental ");
+        scoreTypes.put(9, "experimental_transferred");
+        scoreTypes.put(11, "database_transferred");
+        scoreTypes.put(12, "textmining");
+        scoreTypes.put(13, "textmining_transferred");
+        scoreTypes.put(14, "wrongly_spelled_evidence");
+    }
+
+    final EvidenceScoresDecoder decoder = new EvidenceScoresDecoder(scoreTypes);
+    final PackedScores scores = new PackedScores();
+
+    @Test
+    public void test_text() throws Exception {
+        decoder.decode("{{7,53},{9,327},{11,99},{13,85}}", scores);
+        assertEquals(53, scores.get(EXPERIMENTAL));
+        assertEquals(327, scores.get(EXPERIMENTAL_TRANSFERRED));
+        assertEquals(0, scores.get(TEXTMINING));
+        assertEquals(EXPERIMENTAL.mask() | EXPERIMENTAL_TRANSFERRED.mask() | DATABASE_TRANSFERRED.mask()
+                | TEXTMINING_TRANSFERRED.mask(), scores.getPresenceMask());
+        assertEquals(new StringDbScores(1, 2, scoreTypes, new Integer[][]{{7, 53}, {9, 327}, {11, 99}, {13, 85}}),
+                scores.toScores(1, 2));
+
+        decoder.decode("{{12,718}}".getBytes(StandardCharsets.US_ASCII), scores);
+        assertEquals("decoding clears previous scores", TEXTMINING.mask(), scores.getPresenceMask());
+        decoder.decode("{12,718, 6,1000}", scores);
+        assertEquals(1000, scores.get(COEXPRESSION));
+        assertEquals(0, decoder.decode("{}", scores).getPresenceMask());
+        assertEquals(0, decoder.decode((byte[]) null, scores).getPresenceMask());
+    }
+
+    @Test
+    public void test_binary() throws Exception {
+        final int[][] pairs = {{7, 676}, {12, 718}};
+        final ByteBuffer buffer = ByteBuffer.allocate(12 + 16 + 8 * 4);
+        buffer.putInt(2).putInt(0).putInt(23 /*int4*/);
+        buffer.putInt(2).putInt(1).putInt(2).putInt(1);
+        for (int[] pair : pairs) {
+            for (int value : pair) buffer.putInt(4).putInt(value);
+        }
+        decoder.decode(buffer.array(), scores);
+        assertEquals(StringDbScores.builder(1, 2).with(EXPERIMENTAL, 676).with(TEXTMINING, 718).build(), scores.toScores(1, 2));
+
+        final byte[] empty = ByteBuffer.allocate(12).putInt(0).putInt(0).putInt(23).array();
+        assertEquals(0, decoder.decode(empty, scores).getPresenceMask());
+    }
+
+    @Test
+    public void test_array() throws Exception {
+        decoder.decode(new Integer[][]{{7, 676}, {12, 718}}, scores);
+        assertEquals(676, scores.get(EXPERIMENTAL));
+        assertEquals(718, scores.get(TEXTMINING));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownScoreId() throws Exception {
+        decoder.decode("{{115,718}}", scores);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void badTypeName() throws Exception {
+        decoder.decode("{{14,100}}", scores);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scoreValueOutOfRange() throws Exception {
+        decoder.decode("{{12,1001}}", scores);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void scoreValueNegative() throws Exception {
+        decoder.decode("{{12,-1}}", scores);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incompletePair() throws Exception {
+        decoder.decode("{{12,100},{7}}", scores);
+    }
+}
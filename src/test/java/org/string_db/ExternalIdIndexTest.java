@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class ExternalIdIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static ExternalIdIndex humanIndex(int size) {
+        final ExternalIdIndex.Builder builder = ExternalIdIndex.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(String.format("9606.ENSP%011d", i * 7), 1000 + i);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void test_lookup() throws Exception {
+        final int size = 20000;
+        final ExternalIdIndex index = humanIndex(size);
+        assertEquals(size, index.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(1000 + i, index.proteinId(String.format("9606.ENSP%011d", i * 7)));
+        }
+        assertEquals(1000, index.proteinId(new ProteinExternalId("9606.ENSP00000000000")));
+        assertEquals("unknown", -1, index.proteinId("9606.ENSP00000000001"));
+        assertEquals("too short", -1, index.proteinId("9606.ENSP"));
+        assertEquals("too long", -1, index.proteinId("9606.ENSP000000000000"));
+        assertEquals("other species", -1, index.proteinId("10090.ENSMUSP00000000001"));
+        assertEquals(-1, index.proteinId(""));
+        assertTrue("a few bytes per key besides the keys", index.memoryBytes() < size * (20 + 10));
+    }
+
+    @Test
+    public void test_mixedSpecies() throws Exception {
+        final ExternalIdIndex index = ExternalIdIndex.builder()
+                .add("511145.b0001", 1)
+                .add("272634.MPN665", 2)
+                .add("5", 3)
+                .build();
+        assertEquals(1, index.proteinId("511145.b0001"));
+        assertEquals(2, index.proteinId("272634.MPN665"));
+        assertEquals(3, index.proteinId("5"));
+        assertEquals(-1, index.proteinId("511145.b000"));
+    }
+
+    @Test
+    public void test_empty() throws Exception {
+        final ExternalIdIndex index = ExternalIdIndex.builder().build();
+        assertEquals(0, index.size());
+        assertEquals(-1, index.proteinId("9606.ENSP00000269305"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_duplicate() throws Exception {
+        ExternalIdIndex.builder().add("9606.ENSP00000269305", 1).add("9606.ENSP00000258149", 2)
+                .add("9606.ENSP00000269305", 3).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_notAscii() throws Exception {
+        ExternalIdIndex.builder().add("9606.ENSPö", 1);
+    }
+
+    @Test
+    public void test_file() throws Exception {
+        final ExternalIdIndex index = humanIndex(1000);
+        final File file = new File(folder.getRoot(), "9606.ids");
+        ExternalIdIndexFile.write(index, file);
+        final ExternalIdIndex read = ExternalIdIndexFile.read(file);
+        assertEquals(index.size(), read.size());
+        assertEquals(index.memoryBytes(), read.memoryBytes());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1000 + i, read.proteinId(String.format("9606.ENSP%011d", i * 7)));
+        }
+        assertEquals(-1, read.proteinId("9606.ENSP00000000001"));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class FastaWriterTest {
+
+    @Test
+    public void test_write() throws Exception {
+        final StringWriter out = new StringWriter();
+        final FastaWriter writer = new FastaWriter(out, 10);
+        writer.write("511145.b0001", "thrL", "thr operon leader peptide", "MKRISTTITTTITITTGNGAG");
+        writer.write("511145.b0002", null, "fused aspartokinase I\nand homoserine\tdehydrogenase I", "MRVLKFGGTS");
+        writer.write("511145.b0003", "thrB", null, "");
+        assertEquals(">511145.b0001 thrL; thr operon leader peptide\n" +
+                "MKRISTTITT\n" +
+                "TITITTGNGA\n" +
+                "G\n" +
+                ">511145.b0002 fused aspartokinase I and homoserine dehydrogenase I\n" +
+                "MRVLKFGGTS\n" +
+                ">511145.b0003 thrB\n", out.toString());
+        assertEquals(3, writer.getRecords());
+        assertEquals(31, writer.getResidues());
+    }
+
+    @Test
+    public void test_longHeader() throws Exception {
+        final StringWriter out = new StringWriter();
+        final StringBuilder annotation = new StringBuilder();
+        for (int i = 0; i < 200; i++) annotation.append("kinase ");
+        new FastaWriter(out).write("9606.ENSP00000269305", "TP53", annotation.toString(), "MEEPQSDPSV");
+        assertEquals(">9606.ENSP00000269305 TP53; " + annotation + "\nMEEPQSDPSV\n", out.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_lineWidth() throws Exception {
+        new FastaWriter(new StringWriter(), 0);
+    }
+}
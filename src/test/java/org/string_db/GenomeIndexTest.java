@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class GenomeIndexTest {
+
+    /**
+     * one long gene spanning the whole contig, followed by many short ones inside it
+     */
+    static GenomeIndex longFirstGene(int shortGenes) {
+        final GenomeIndex.Builder builder = GenomeIndex.builder(9606);
+        builder.add("chr1", 1, 100, 1, 10000000);
+        for (int i = 0; i < shortGenes; i++) {
+            builder.add("chr1", 2 + i, 101 + i, 1000 + 100 * i, 1050 + 100 * i);
+        }
+        builder.add("chr2", 0, 99, 500, 400);
+        return builder.build();
+    }
+
+    @Test
+    public void test_nearestRecord_longFirstGene() throws Exception {
+        final GenomeIndex index = longFirstGene(10000);
+        final int chr1 = index.contigIndex("chr1");
+        assertEquals(100, index.proteinId(index.nearestRecord(chr1, 20000000)));
+        assertEquals(100, index.proteinId(index.nearestRecord(chr1, 10000001)));
+        assertEquals("overlaps the long gene only", 100, index.proteinId(index.nearestRecord(chr1, 1080)));
+        assertEquals(100, index.proteinId(index.nearestRecord(chr1, 0)));
+        assertEquals(99, index.proteinId(index.nearestRecord(index.contigIndex("chr2"), 0)));
+        assertEquals(-1, index.nearestRecord(-1, 0));
+    }
+
+    @Test
+    public void test_nearestRecord_tie() throws Exception {
+        final GenomeIndex index = GenomeIndex.builder(9606)
+                .add("chr1", 1, 100, 100, 500)
+                .add("chr1", 2, 200, 200, 500)
+                .add("chr1", 3, 300, 300, 400)
+                .build();
+        assertEquals("the later of two genes ending at the same position", 200,
+                index.proteinId(index.nearestRecord(0, 600)));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class IntAdjacencyTest {
+
+    @Test
+    public void test_build_sortsAndDropsDuplicates() throws Exception {
+        final IntAdjacency adjacency = IntAdjacency.builder()
+                .add(7, 3).add(2, 9).add(7, 1).add(7, 3).add(2, 4)
+                .build();
+        assertEquals(2, adjacency.size());
+        assertEquals(4, adjacency.memberCount());
+        assertEquals(2, adjacency.key(0));
+        assertArrayEquals(new int[]{4, 9}, adjacency.membersOf(2));
+        assertArrayEquals(new int[]{1, 3}, adjacency.membersOf(7));
+        assertArrayEquals(new int[0], adjacency.membersOf(5));
+        assertTrue(adjacency.contains(7, 3));
+        assertFalse(adjacency.contains(7, 4));
+    }
+
+    @Test
+    public void test_walk() throws Exception {
+        final IntAdjacency adjacency = IntAdjacency.builder().add(1, 10).add(1, 11).add(3, 12).build();
+        final int index = adjacency.indexOf(1);
+        int sum = 0;
+        for (int p = adjacency.start(index); p < adjacency.end(index); p++) {
+            sum += adjacency.member(p);
+        }
+        assertEquals(21, sum);
+        assertEquals(2, adjacency.degree(index));
+        assertTrue(adjacency.indexOf(2) < 0);
+    }
+
+    @Test
+    public void test_invert() throws Exception {
+        final IntAdjacency inverted = IntAdjacency.builder().add(1, 10).add(2, 10).add(2, 11).build().invert();
+        assertArrayEquals(new int[]{1, 2}, inverted.membersOf(10));
+        assertArrayEquals(new int[]{2}, inverted.membersOf(11));
+    }
+
+    @Test
+    public void test_empty() throws Exception {
+        final IntAdjacency empty = IntAdjacency.builder().build();
+        assertEquals(0, empty.size());
+        assertFalse(empty.containsKey(1));
+    }
+
+    @Test
+    public void test_concat() throws Exception {
+        final IntAdjacency first = IntAdjacency.builder().add(1, 10).add(1, 11).add(3, 12).build();
+        final IntAdjacency second = IntAdjacency.builder().add(5, 10).add(8, 13).build();
+        final IntAdjacency all = IntAdjacency.concat(Arrays.asList(first, IntAdjacency.builder().build(), second));
+        assertEquals(4, all.size());
+        assertEquals(5, all.memberCount());
+        assertArrayEquals(new int[]{10, 11}, all.membersOf(1));
+        assertArrayEquals(new int[]{12}, all.membersOf(3));
+        assertArrayEquals(new int[]{10}, all.membersOf(5));
+        assertArrayEquals(new int[]{13}, all.membersOf(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_concat_overlapping() throws Exception {
+        final IntAdjacency first = IntAdjacency.builder().add(1, 10).add(3, 12).build();
+        IntAdjacency.concat(Arrays.asList(first, first));
+    }
+}
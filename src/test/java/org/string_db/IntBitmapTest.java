@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class IntBitmapTest {
+
+    @Test
+    public void test_of() throws Exception {
+        final IntBitmap bitmap = IntBitmap.of(70000, 3, 3, 65536, 1);
+        assertEquals(4, bitmap.cardinality());
+        assertArrayEquals(new int[]{1, 3, 65536, 70000}, bitmap.toArray());
+        assertTrue(bitmap.contains(65536));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+        assertTrue(IntBitmap.of().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_negative() throws Exception {
+        IntBitmap.of(1, -5);
+    }
+
+    @Test
+    public void test_small_sets() throws Exception {
+        final IntBitmap a = IntBitmap.of(1, 2, 3, 100000);
+        final IntBitmap b = IntBitmap.of(2, 3, 4, 200000);
+        assertArrayEquals(new int[]{2, 3}, a.and(b).toArray());
+        assertEquals(2, a.andCardinality(b));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 100000, 200000}, a.or(b).toArray());
+        assertArrayEquals(new int[]{1, 100000}, a.andNot(b).toArray());
+        assertTrue(a.and(IntBitmap.of(7)).isEmpty());
+        assertEquals(a, IntBitmap.of(100000, 3, 2, 1));
+        assertEquals(a.hashCode(), IntBitmap.of(100000, 3, 2, 1).hashCode());
+        assertFalse(a.equals(b));
+    }
+
+    @Test
+    public void test_random_against_BitSet() throws Exception {
+        final Random random = new Random(42);
+        //sparse, dense (bitset containers) and mixed sets around protein_id range
+        final int[][] shapes = {{200, 1 << 20}, {30000, 1 << 17}, {6000, 1 << 16}, {50000, 1 << 22}};
+        for (int[] x : shapes) {
+            for (int[] y : shapes) {
+                final int base = 4000000;
+                final BitSet expectedA = new BitSet();
+                final BitSet expectedB = new BitSet();
+                final IntBitmap a = IntBitmap.of(fill(random, x[0], base, x[1], expectedA));
+                final IntBitmap b = IntBitmap.of(fill(random, y[0], base, y[1], expectedB));
+                assertEquals(expectedA.cardinality(), a.cardinality());
+
+                final BitSet and = (BitSet) expectedA.clone();
+                and.and(expectedB);
+                assertArrayEquals(toArray(and), a.and(b).toArray());
+                assertEquals(and.cardinality(), a.andCardinality(b));
+
+                final BitSet or = (BitSet) expectedA.clone();
+                or.or(expectedB);
+                assertArrayEquals(toArray(or), a.or(b).toArray());
+
+                final BitSet andNot = (BitSet) expectedA.clone();
+                andNot.andNot(expectedB);
+                assertArrayEquals(toArray(andNot), a.andNot(b).toArray());
+
+                for (int i = 0; i < 100; i++) {
+                    final int v = base + random.nextInt(x[1]);
+                    assertEquals(expectedA.get(v), a.contains(v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_and_many() throws Exception {
+        final IntBitmap a = IntBitmap.of(1, 2, 3, 4, 5);
+        final IntBitmap b = IntBitmap.of(2, 3, 4);
+        final IntBitmap c = IntBitmap.of(3, 4, 9);
+        assertArrayEquals(new int[]{3, 4}, IntBitmap.and(Arrays.asList(a, b, c)).toArray());
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 9}, IntBitmap.or(Arrays.asList(a, b, c)).toArray());
+        assertTrue(IntBitmap.and(Arrays.<IntBitmap>asList()).isEmpty());
+    }
+
+    @Test
+    public void test_dense_is_smaller_than_ints() throws Exception {
+        final int[] values = new int[60000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 4735232 + i;
+        }
+        final IntBitmap bitmap = IntBitmap.of(values);
+        assertTrue(bitmap.memoryBytes() < 4L * values.length);
+    }
+
+    private static int[] fill(Random random, int n, int base, int range, BitSet expected) {
+        final int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = base + random.nextInt(range);
+            expected.set(values[i]);
+        }
+        return values;
+    }
+
+    private static int[] toArray(BitSet set) {
+        final int[] values = new int[set.cardinality()];
+        int n = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            values[n++] = i;
+        }
+        return values;
+    }
+}
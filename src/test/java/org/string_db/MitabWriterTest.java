@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class MitabWriterTest {
+    final Map<Integer, ProteinExternalId> externalIds = new HashMap<>();
+    final Map<Integer, UniprotAC> uniprotIds = new HashMap<>();
+    final Map<Integer, String> preferredNames = new HashMap<>();
+
+    {
+        externalIds.put(1, new ProteinExternalId("9606.ENSP00000269305"));
+        externalIds.put(2, new ProteinExternalId("9606.ENSP00000258149"));
+        uniprotIds.put(1, new UniprotAC("P04637"));
+        preferredNames.put(1, "TP53");
+        preferredNames.put(2, "MDM2|odd");
+    }
+
+    final StringDbScores scores = StringDbScores.builder(1, 2).with(EXPERIMENTAL, 999).with(TEXTMINING, 62)
+            .with(EXPERIMENTAL_TRANSFERRED, 621).with(FUSION, 0).build();
+
+    @Test
+    public void test_mitab25() throws Exception {
+        final StringWriter out = new StringWriter();
+        final MitabWriter writer = new MitabWriter(out, MitabWriter.Format.MITAB25, 9606, externalIds, uniprotIds, preferredNames);
+        writer.write(scores, 999);
+        writer.write(StringDbScores.builder(2, 1).with(COEXPRESSION, 1000).build(), 1000);
+        assertEquals(2, writer.getLines());
+
+        final String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        final String[] columns = lines[0].split("\t", -1);
+        assertEquals(15, columns.length);
+        assertEquals("string:9606.ENSP00000269305", columns[0]);
+        assertEquals("string:9606.ENSP00000258149", columns[1]);
+        assertEquals("uniprotkb:P04637", columns[2]);
+        assertEquals("-", columns[3]);
+        assertEquals("string:TP53(preferred name)", columns[4]);
+        assertEquals("string:\"MDM2|odd\"(preferred name)", columns[5]);
+        assertEquals("taxid:9606", columns[9]);
+        assertEquals("taxid:9606", columns[10]);
+        assertEquals("score:0.999|experimental:0.999|experimental_transferred:0.621|textmining:0.062" +
+                "|combined_transferred:0." + scores.getTransferredScore(), columns[14]);
+
+        assertTrue(lines[1].endsWith("\tscore:1.000|coexpression:1.000"));
+    }
+
+    @Test
+    public void test_mitab27() throws Exception {
+        final StringWriter out = new StringWriter();
+        new MitabWriter(out, MitabWriter.Format.MITAB27, 9606, externalIds, uniprotIds, preferredNames).write(scores, 999);
+        final String[] columns = out.toString().split("\n")[0].split("\t", -1);
+        assertEquals(42, columns.length);
+        assertEquals("psi-mi:\"MI:0326\"(protein)", columns[20]);
+        assertEquals("psi-mi:\"MI:0326\"(protein)", columns[21]);
+        assertEquals("false", columns[35]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownProtein() throws Exception {
+        new MitabWriter(new StringWriter(), MitabWriter.Format.MITAB25, 9606, externalIds, uniprotIds, preferredNames)
+                .write(StringDbScores.builder(1, 3).with(TEXTMINING, 500).build(), 500);
+    }
+}
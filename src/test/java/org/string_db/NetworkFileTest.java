@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class NetworkFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    final CsrNetworkGraph graph = CsrNetworkGraphTest.smallNetwork();
+
+    @Test
+    public void test_roundtrip() throws Exception {
+        final File file = new File(folder.getRoot(), "9606.network");
+        NetworkFile.write(graph, file);
+        final MappedNetworkGraph mapped = NetworkFile.open(file);
+        assertEquals(file.length(), mapped.fileBytes());
+        assertEquals(-1, mapped.nodeOf(4));
+        assertSameGraph(graph, mapped);
+        final NetworkGraph.Cursor actual = mapped.cursor();
+        assertEquals(800, actual.reset(mapped.nodeOf(2), 0).next() ? actual.score(EXPERIMENTAL) : -1);
+    }
+
+    @Test
+    public void test_overwrite() throws Exception {
+        final File file = new File(folder.getRoot(), "9606.network");
+        NetworkFile.write(CsrNetworkGraph.builder(9606).build(), file);
+        assertEquals(0, NetworkFile.open(file).nodeCount());
+        NetworkFile.write(graph, file);
+        assertEquals(4, NetworkFile.open(file).nodeCount());
+        assertFalse(new File(folder.getRoot(), "9606.network.tmp").exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void notANetworkFile() throws Exception {
+        final File file = folder.newFile("other");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[64]);
+        }
+        NetworkFile.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncated() throws Exception {
+        final File file = new File(folder.getRoot(), "9606.network");
+        NetworkFile.write(graph, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 2);
+        }
+        NetworkFile.open(file);
+    }
+
+    /**
+     * Same nodes, links and scores, whatever the implementations.
+     */
+    public static void assertSameGraph(NetworkGraph expected, NetworkGraph actual) {
+        assertEquals(expected.getSpeciesId(), actual.getSpeciesId());
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (EvidenceType type : EvidenceType.values()) {
+            assertEquals(type.name(), expected.hasChannel(type), actual.hasChannel(type));
+        }
+        final NetworkGraph.Cursor expectedCursor = expected.cursor();
+        final NetworkGraph.Cursor actualCursor = actual.cursor();
+        for (int node = 0; node < expected.nodeCount(); node++) {
+            assertEquals(expected.proteinId(node), actual.proteinId(node));
+            assertEquals(node, actual.nodeOf(expected.proteinId(node)));
+            assertEquals(expected.degree(node), actual.degree(node));
+            assertArrayEquals(expected.neighbours(node, 300), actual.neighbours(node, 300));
+            expectedCursor.reset(node, 0);
+            actualCursor.reset(node, 0);
+            while (expectedCursor.next()) {
+                assertTrue(actualCursor.next());
+                assertEquals(expectedCursor.node(), actualCursor.node());
+                assertEquals(expectedCursor.combinedScore(), actualCursor.combinedScore());
+                for (EvidenceType type : EvidenceType.values()) {
+                    assertEquals(expectedCursor.score(type), actualCursor.score(type));
+                }
+            }
+            assertFalse(actualCursor.next());
+        }
+    }
+}
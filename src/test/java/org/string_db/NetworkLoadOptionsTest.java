@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class NetworkLoadOptionsTest {
+    final PackedScores scores = new PackedScores().set(EXPERIMENTAL, 800).set(TEXTMINING, 300).set(FUSION, 100);
+
+    @Test
+    public void test_all() throws Exception {
+        assertTrue(NetworkLoadOptions.ALL.accepts(scores));
+        assertTrue(NetworkLoadOptions.ALL.accepts(new PackedScores()));
+        assertFalse(NetworkLoadOptions.ALL.hasChannelThresholds());
+        assertEquals(0, NetworkLoadOptions.ALL.getMinCombinedScore());
+        assertEquals(EvidenceType.CHANNEL_MASK, NetworkLoadOptions.ALL.getChannelMask());
+    }
+
+    @Test
+    public void test_channel_thresholds() throws Exception {
+        final NetworkLoadOptions.Builder builder = NetworkLoadOptions.builder().minCombinedScore(400)
+                .minScore(EXPERIMENTAL, 700);
+        assertTrue(builder.build().accepts(scores));
+        assertEquals(400, builder.build().getMinCombinedScore());
+        builder.minScore(TEXTMINING, 301);
+        assertFalse(builder.build().accepts(scores));
+        builder.minScore(TEXTMINING, 0).minScore(DATABASE, 1);
+        assertFalse("no database evidence", builder.build().accepts(scores));
+        builder.minScore(DATABASE, 0);
+        assertTrue(builder.build().accepts(scores));
+        assertEquals(700, builder.build().getMinScore(EXPERIMENTAL));
+    }
+
+    @Test
+    public void test_channels() throws Exception {
+        final NetworkLoadOptions options = NetworkLoadOptions.builder().channels(EnumSet.of(EXPERIMENTAL, DATABASE)).build();
+        final PackedScores retained = new PackedScores().set(EXPERIMENTAL, 800).set(TEXTMINING, 300)
+                .retain(options.getChannelMask());
+        assertEquals(EXPERIMENTAL.mask(), retained.getPresenceMask());
+        assertEquals(0, retained.get(TEXTMINING));
+        assertEquals(800, retained.get(EXPERIMENTAL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreshold() throws Exception {
+        NetworkLoadOptions.builder().minCombinedScore(1001);
+    }
+}
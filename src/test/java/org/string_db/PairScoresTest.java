@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class PairScoresTest {
+    final CsrNetworkGraph graph = CsrNetworkGraphTest.smallNetwork();
+
+    @Test
+    public void test_lookup() throws Exception {
+        final PairScores scores = PairScores.lookup(graph, new int[]{1, 2, 5, 4, 3}, new int[]{2, 3, 3, 1, 5});
+        assertEquals(5, scores.size());
+        assertEquals(2, scores.getMissing().cardinality());
+        assertTrue("2 and 3 aren't linked", scores.isMissing(1));
+        assertTrue("4 has no links", scores.isMissing(3));
+        assertEquals(900, scores.combinedScore(0));
+        assertEquals(800, scores.score(0, EXPERIMENTAL));
+        assertEquals(200, scores.score(2, COEXPRESSION));
+        assertEquals(200, scores.score(4, COEXPRESSION));
+        assertEquals(0, scores.score(1, EXPERIMENTAL));
+        assertEquals(StringDbScores.builder(1, 2).with(EXPERIMENTAL, 800).with(TEXTMINING, 500).build(), scores.toScores(0));
+        assertEquals(TEXTMINING.mask() | EXPERIMENTAL.mask(), scores.scores(0, new PackedScores()).getPresenceMask());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingPair() throws Exception {
+        PairScores.lookup(graph, new int[]{2}, new int[]{3}).toScores(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentLengths() throws Exception {
+        PairScores.builder(new int[]{1, 2}, new int[]{3});
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class SequenceIndexFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    final SequenceIndex index = SequenceIndexTest.smallIndex();
+
+    @Test
+    public void test_roundtrip() throws Exception {
+        final File file = new File(folder.getRoot(), "9606.sequences");
+        SequenceIndexFile.write(index, file);
+        final SequenceIndex read = SequenceIndexFile.read(file);
+        assertEquals(index.getSpeciesId(), read.getSpeciesId());
+        assertEquals(index.size(), read.size());
+        assertEquals(index.residueCount(), read.residueCount());
+        assertEquals(index.kmerCount(), read.kmerCount());
+        assertEquals(index.sequence(10), read.sequence(10));
+        assertArrayEquals(index.proteinsContaining("GNGAG"), read.proteinsContaining("GNGAG"));
+        assertEquals(1, read.duplicates().size());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_truncated() throws Exception {
+        final File file = new File(folder.getRoot(), "9606.sequences");
+        SequenceIndexFile.write(index, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        SequenceIndexFile.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void test_notAnIndexFile() throws Exception {
+        final File file = folder.newFile("9606.network");
+        NetworkFile.write(CsrNetworkGraphTest.smallNetwork(), file);
+        SequenceIndexFile.read(file);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class SequenceIndexTest {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    final SequenceIndex index = smallIndex();
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    static SequenceIndex smallIndex() {
+        return SequenceIndex.builder(9606)
+                .add(30, "MKRISTTITTTITITTGNGAG")
+                .add(10, "mkvlaaGIVGLpnvgks*")
+                .add(20, "MKRISTTITTTITITTGNGAG")
+                .add(40, "MKV")
+                .add(50, "GNGAGMKVLAA")
+                .build();
+    }
+
+    @Test
+    public void test_build() throws Exception {
+        assertEquals(5, index.size());
+        assertEquals(21 + 18 + 21 + 3 + 11, index.residueCount());
+        assertEquals("MKVLAAGIVGLPNVGKSX", index.sequence(10));
+        assertEquals("MKV", index.sequence(40));
+        assertNull(index.sequence(60));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_duplicateProtein() throws Exception {
+        SequenceIndex.builder(9606).add(1, "MKV").add(1, "MKV").build();
+    }
+
+    @Test
+    public void test_proteinsContaining() throws Exception {
+        assertArrayEquals(new int[]{20, 30}, index.proteinsContaining("TITIT"));
+        assertArrayEquals(new int[]{20, 30, 50}, index.proteinsContaining("gngag"));
+        assertArrayEquals(new int[]{10, 50}, index.proteinsContaining("MKVLAA"));
+        assertArrayEquals("k-mers don't span two sequences", new int[0], index.proteinsContaining("GNGAGMKVLAAGIV"));
+        assertArrayEquals(new int[0], index.proteinsContaining("WWWWWW"));
+    }
+
+    @Test
+    public void test_shortPeptides() throws Exception {
+        assertArrayEquals(new int[]{10, 40, 50}, index.proteinsContaining("MKV"));
+        assertArrayEquals(new int[]{10, 20, 30, 40, 50}, index.proteinsContaining("m"));
+        assertArrayEquals(new int[0], index.proteinsContaining("W"));
+    }
+
+    @Test
+    public void test_proteinsWithSequence() throws Exception {
+        assertArrayEquals(new int[]{20, 30}, index.proteinsWithSequence("MKRISTTITTTITITTGNGAG"));
+        assertArrayEquals(new int[]{40}, index.proteinsWithSequence("MKV"));
+        assertArrayEquals(new int[0], index.proteinsWithSequence("MKRISTTITTTITITTGNGA"));
+    }
+
+    @Test
+    public void test_duplicates() throws Exception {
+        final List<int[]> duplicates = index.duplicates();
+        assertEquals(1, duplicates.size());
+        assertArrayEquals(new int[]{20, 30}, duplicates.get(0));
+    }
+
+    @Test
+    public void test_parallelBuild() throws Exception {
+        final Random random = new Random(7);
+        final SequenceIndex.Builder sequential = SequenceIndex.builder(1);
+        final SequenceIndex.Builder parallel = SequenceIndex.builder(1);
+        final String[] sequences = new String[3000];
+        for (int i = 0; i < sequences.length; i++) {
+            final char[] residues = new char[random.nextInt(300) + 1];
+            for (int r = 0; r < residues.length; r++) {
+                residues[r] = "ACDEFGHIKLMNPQRSTVWY".charAt(random.nextInt(20));
+            }
+            sequences[i] = new String(residues);
+            sequential.add(i, sequences[i]);
+            parallel.add(i, sequences[i]);
+        }
+        final SequenceIndex expected = sequential.build();
+        final SequenceIndex actual = parallel.build(pool);
+        assertTrue(actual.kmerCount() > SequenceIndex.BATCH_SIZE / 4);
+        assertEquals(expected.kmerCount(), actual.kmerCount());
+        for (int i = 0; i < 100; i++) {
+            final String sequence = sequences[random.nextInt(sequences.length)];
+            final int from = random.nextInt(sequence.length());
+            final String peptide = sequence.substring(from, Math.min(sequence.length(), from + 4 + random.nextInt(8)));
+            final int[] hits = actual.proteinsContaining(peptide);
+            assertArrayEquals(peptide, expected.proteinsContaining(peptide), hits);
+            int contains = 0;
+            for (String s : sequences) {
+                if (s.contains(peptide)) contains++;
+            }
+            assertEquals(peptide, contains, hits.length);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.string_db;
 import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -130,4 +131,32 @@ public class StringDbScoresTest {
         final Integer transferredScore = scores.getTransferredScore();
         assertEquals(368, transferredScore.intValue());
     }
+
+    @Test
+    public void test_masks() throws Exception {
+        assertEquals(EvidenceType.TRANSFERRED, EvidenceType.fromMask(EvidenceType.TRANSFERRED_MASK));
+        assertEquals(0, EvidenceType.DIRECT_MASK & EvidenceType.TRANSFERRED_MASK);
+        assertEquals(EvidenceType.CHANNEL_MASK, EvidenceType.DIRECT_MASK | (EvidenceType.TRANSFERRED_MASK & ~COMBINED_TRANSFERRED.mask()));
+        assertEquals(EnumSet.of(COEXPRESSION_TRANSFERRED, DATABASE_TRANSFERRED, EXPERIMENTAL_TRANSFERRED, TEXTMINING_TRANSFERRED),
+                EvidenceType.fromMask(EvidenceType.COMBINED_TRANSFERRED_MASK));
+        assertTrue(FUSION.in(EvidenceType.DIRECT_MASK));
+        assertFalse(FUSION.in(EvidenceType.TRANSFERRED_MASK));
+    }
+
+    @Test
+    public void test_presenceMask() throws Exception {
+        final StringDbScores scores = StringDbScores.builder(PROTEIN_A, PROTEIN_B).with(TEXTMINING, 718)
+                .with(EXPERIMENTAL, 0).with(DATABASE_TRANSFERRED, 99).build();
+        assertEquals(TEXTMINING.mask() | DATABASE_TRANSFERRED.mask(), scores.getPresenceMask());
+        assertTrue(scores.hasTransferred());
+        assertTrue(scores.hasAny(EvidenceType.DIRECT_MASK));
+        assertFalse(scores.hasAny(EXPERIMENTAL.mask() | FUSION.mask()));
+
+        final StringDbScores direct = StringDbScores.builder(PROTEIN_A, PROTEIN_B).with(TEXTMINING, 718).build();
+        assertFalse(direct.hasTransferred());
+        @SuppressWarnings("deprecated")
+        final StringDbScores nulls = new StringDbScores(PROTEIN_A, PROTEIN_B, null, null, 30, null, null, null, null, null, null, null, null, null, null);
+        assertEquals(FUSION.mask(), nulls.getPresenceMask());
+        assertEquals(EvidenceType.CHANNEL_MASK, ALL_SCORES.getPresenceMask());
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class SubnetworkExtractorTest {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    final CsrNetworkGraph graph = CsrNetworkGraphTest.smallNetwork();
+    final SubnetworkExtractor extractor = new SubnetworkExtractor(pool);
+
+    @Test
+    public void test_hops() throws Exception {
+        assertEquals(1, extractor.expand(graph, new int[]{1}, 0, 0).cardinality());
+        assertEquals(3, extractor.expand(graph, new int[]{1}, 1, 0).cardinality());
+        assertEquals(4, extractor.expand(graph, new int[]{1}, 2, 0).cardinality());
+        assertEquals("3 - 5 is below threshold", 3, extractor.expand(graph, new int[]{1}, 2, 300).cardinality());
+        assertEquals("unknown proteins are ignored", 0, extractor.expand(graph, new int[]{4}, 2, 0).cardinality());
+    }
+
+    @Test
+    public void test_induced_subgraph() throws Exception {
+        final CsrNetworkGraph sub = extractor.extract(graph, new int[]{2, 3}, 0, 0);
+        assertEquals("2 and 3 aren't linked", 0, sub.nodeCount());
+
+        final CsrNetworkGraph hop = extractor.extract(graph, new int[]{5}, 1, 0);
+        assertEquals(2, hop.nodeCount());
+        assertEquals(2, hop.edgeCount());
+        final int edge = hop.findEdge(hop.nodeOf(3), hop.nodeOf(5));
+        assertEquals(200, hop.combinedScore(edge));
+        assertEquals(200, hop.score(edge, COEXPRESSION));
+
+        final CsrNetworkGraph all = extractor.extract(graph, new int[]{2}, 2, 300);
+        assertEquals(3, all.nodeCount());
+        assertEquals(4, all.edgeCount());
+        assertEquals(-1, all.nodeOf(5));
+        assertEquals(800, all.score(all.findEdge(all.nodeOf(2), all.nodeOf(1)), EXPERIMENTAL));
+    }
+
+    @Test
+    public void parallel_matches_sequential_bfs() throws Exception {
+        final Random random = new Random(42);
+        final CsrNetworkGraph.Builder builder = CsrNetworkGraph.builder(9606);
+        for (int i = 0; i < 20000; i++) {
+            final int a = random.nextInt(5000);
+            final int b = random.nextInt(5000);
+            final int score = random.nextInt(1001);
+            builder.add(a, b, score).add(b, a, score);
+        }
+        final CsrNetworkGraph network = builder.build();
+        final SubnetworkExtractor chunked = new SubnetworkExtractor(pool, 8);
+        for (int hops = 0; hops < 4; hops++) {
+            assertEquals(bfs(network, 17, hops, 700), chunked.expand(network, new int[]{17}, hops, 700));
+        }
+    }
+
+    private static BitSet bfs(CsrNetworkGraph graph, int proteinId, int hops, int minScore) {
+        final BitSet visited = new BitSet();
+        final int[] depth = new int[graph.nodeCount()];
+        final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        visited.set(graph.nodeOf(proteinId));
+        queue.add(graph.nodeOf(proteinId));
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            if (depth[node] == hops) continue;
+            for (int neighbour : graph.neighbours(node, minScore)) {
+                if (visited.get(neighbour)) continue;
+                visited.set(neighbour);
+                depth[neighbour] = depth[node] + 1;
+                queue.add(neighbour);
+            }
+        }
+        return visited;
+    }
+}
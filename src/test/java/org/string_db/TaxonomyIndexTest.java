@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class TaxonomyIndexTest {
+
+    /**
+     * <pre>
+     * 1 root
+     *   2 Bacteria
+     *     511145, 882
+     *   2759 Eukaryota
+     *     40674 Mammalia
+     *       9606, 10090, 10116 (not in STRING)
+     *     4932
+     * </pre>
+     * added out of order
+     */
+    static TaxonomyIndex taxonomy() {
+        return TaxonomyIndex.builder()
+                .addNode(40674, "Mammalia", 7, 4)
+                .addNode(1, "root", 1, 11)
+                .addNode(2, "Bacteria", 2, 3)
+                .addNode(511145, "Escherichia coli", 3, 1)
+                .addNode(882, "Desulfovibrio vulgaris", 4, 1)
+                .addNode(2759, "Eukaryota", 5, 7)
+                .addNode(4932, "Saccharomyces cerevisiae", 6, 1)
+                .addNode(9606, "Homo sapiens", 8, 1)
+                .addNode(10090, "Mus musculus", 9, 1)
+                .addNode(10116, "Rattus norvegicus", 10, 1)
+                .addSpecies(511145).addSpecies(882).addSpecies(4932).addSpecies(9606).addSpecies(10090)
+                .build();
+    }
+
+    @Test
+    public void test_speciesUnder() throws Exception {
+        final TaxonomyIndex taxonomy = taxonomy();
+        assertEquals(10, taxonomy.size());
+        assertArrayEquals(new int[]{511145, 882, 4932, 9606, 10090}, taxonomy.speciesUnder(1));
+        assertArrayEquals(new int[]{511145, 882}, taxonomy.speciesUnder(2));
+        assertArrayEquals(new int[]{9606, 10090}, taxonomy.speciesUnder(40674));
+        assertArrayEquals(new int[]{9606}, taxonomy.speciesUnder(9606));
+        assertArrayEquals(new int[0], taxonomy.speciesUnder(10116));
+        assertArrayEquals(new int[0], taxonomy.speciesUnder(12345));
+        assertEquals(3, taxonomy.countSpeciesUnder(2759));
+        assertEquals("Mammalia", taxonomy.name(40674));
+        assertNull(taxonomy.name(12345));
+    }
+
+    @Test
+    public void test_isDescendant() throws Exception {
+        final TaxonomyIndex taxonomy = taxonomy();
+        assertTrue(taxonomy.isDescendant(9606, 40674));
+        assertTrue(taxonomy.isDescendant(9606, 2759));
+        assertTrue(taxonomy.isDescendant(9606, 1));
+        assertTrue(taxonomy.isDescendant(9606, 9606));
+        assertFalse(taxonomy.isDescendant(9606, 2));
+        assertFalse(taxonomy.isDescendant(4932, 40674));
+        assertFalse(taxonomy.isDescendant(2759, 9606));
+        assertFalse(taxonomy.isDescendant(12345, 1));
+    }
+
+    @Test
+    public void test_ancestors() throws Exception {
+        final TaxonomyIndex taxonomy = taxonomy();
+        assertArrayEquals(new int[]{1, 2759, 40674}, taxonomy.ancestors(10090));
+        assertArrayEquals(new int[]{1, 2}, taxonomy.ancestors(882));
+        assertArrayEquals(new int[]{1, 2759}, taxonomy.ancestors(4932));
+        assertArrayEquals(new int[0], taxonomy.ancestors(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_duplicate_position() throws Exception {
+        TaxonomyIndex.builder().addNode(1, "root", 1, 2).addNode(2, "other", 1, 1).build();
+    }
+}
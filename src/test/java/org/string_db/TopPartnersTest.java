@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class TopPartnersTest {
+    static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    final CsrNetworkGraph graph = CsrNetworkGraphTest.smallNetwork();
+
+    @Test
+    public void same_as_transferred_score() throws Exception {
+        final StringDbScores link = StringDbScores.builder(1, 2).with(EXPERIMENTAL_TRANSFERRED, 621)
+                .with(TEXTMINING_TRANSFERRED, 585).with(COEXPRESSION_TRANSFERRED, 40).with(FUSION, 900).build();
+        final TopPartners transferred = new TopPartners(
+                EnumSet.of(COEXPRESSION_TRANSFERRED, DATABASE_TRANSFERRED, EXPERIMENTAL_TRANSFERRED, TEXTMINING_TRANSFERRED));
+        assertEquals(link.getTransferredScore().intValue(), transferred.score(link));
+    }
+
+    @Test
+    public void test_channel_subset() throws Exception {
+        final TopPartners experimental = new TopPartners(EnumSet.of(EXPERIMENTAL));
+        final TopPartners.Partners partners = experimental.topK(graph, 1, 10);
+        assertEquals("3 has no experimental evidence", Arrays.asList(2), partners.getPartnerIds());
+        assertEquals(800, partners.score(0), 1);
+
+        final TopPartners textmining = new TopPartners(EnumSet.of(TEXTMINING, EXPERIMENTAL));
+        assertEquals(Arrays.asList(2, 3), textmining.topK(graph, 1, 10).getPartnerIds());
+        assertEquals(Arrays.asList(2), textmining.topK(graph, 1, 1).getPartnerIds());
+        assertTrue(textmining.topK(graph, 1, 1).score(0) > 800);
+        assertEquals(0, textmining.topK(graph, 4, 10).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noChannels() throws Exception {
+        new TopPartners(EnumSet.noneOf(EvidenceType.class));
+    }
+
+    @Test
+    public void rerank_loaded_links() throws Exception {
+        final List<StringDbScores> links = Arrays.asList(
+                StringDbScores.builder(1, 2).with(TEXTMINING, 300).build(),
+                StringDbScores.builder(1, 3).with(TEXTMINING, 900).build(),
+                StringDbScores.builder(1, 4).with(DATABASE, 900).build());
+        final TopPartners.Partners partners = new TopPartners(EnumSet.of(TEXTMINING)).topK(1, links, 5);
+        assertEquals(Arrays.asList(3, 2), partners.getPartnerIds());
+    }
+
+    @Test
+    public void batch_matches_full_sort() throws Exception {
+        final Random random = new Random(7);
+        final CsrNetworkGraph.Builder builder = CsrNetworkGraph.builder(9606);
+        for (int i = 0; i < 20000; i++) {
+            final int a = random.nextInt(1000);
+            final int b = random.nextInt(1000);
+            builder.add(a, b, 500).score(EXPERIMENTAL, random.nextInt(1001)).score(DATABASE, random.nextInt(1001));
+        }
+        final CsrNetworkGraph network = builder.build();
+        final TopPartners top = new TopPartners(EnumSet.of(EXPERIMENTAL, DATABASE));
+        final int[] queries = new int[500];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(1000);
+        }
+        final List<TopPartners.Partners> results = top.topK(network, queries, 5, pool);
+        for (int i = 0; i < queries.length; i++) {
+            assertEquals(queries[i], results.get(i).getProteinId());
+            assertEquals(fullSort(top, network, queries[i], 5), results.get(i).getPartnerIds());
+        }
+    }
+
+    private static List<Integer> fullSort(TopPartners top, CsrNetworkGraph network, int proteinId, int k) {
+        final int node = network.nodeOf(proteinId);
+        final List<long[]> links = new ArrayList<>();
+        if (node < 0) return new ArrayList<>();
+        for (int e = network.edgeStart(node); e < network.edgeEnd(node); e++) {
+            final int score = top.score(network, e);
+            if (score > 0) links.add(new long[]{score, network.proteinId(network.target(e))});
+        }
+        Collections.sort(links, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                if (o1[0] != o2[0]) return o1[0] > o2[0] ? -1 : 1;
+                return o1[1] < o2[1] ? -1 : (o1[1] == o2[1] ? 0 : 1);
+            }
+        });
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, links.size()); i++) {
+            ids.add((int) links.get(i)[1]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.Test;
+import org.string_db.AnnotationSearchIndex;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class AnnotationSearchJdbcTest {
+
+    final AnnotationSearchJdbc search = CachedTestAppContext.ctx.getBean(AnnotationSearchJdbc.class);
+
+    @Test
+    public void test_search() throws Exception {
+        final AnnotationSearchIndex index = search.getAnnotationIndex(511145);
+        assertEquals(4149, index.documentCount());
+        assertSame("built once per species", index, search.getAnnotationIndex(511145));
+        assertArrayEquals(new int[]{4735234}, search.search(511145, "Homoserine kin", 10).getProteinIds());
+        assertArrayEquals(new int[]{4738829, 4735233},
+                search.search(511145, "homoserine dehydrogenase", 10).getProteinIds());
+        assertEquals(4735235, search.search(511145, "threonine synth", 10).proteinId(0));
+    }
+
+    @Test
+    public void test_topK() throws Exception {
+        final AnnotationSearchIndex.Hits hits = search.search(511145, "predicted", 5);
+        assertEquals(5, hits.size());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.score(i - 1) >= hits.score(i));
+        }
+    }
+
+    @Test
+    public void test_preferredNames() throws Exception {
+        assertArrayEquals(new int[]{4735233}, search.search(511145, "THRA", 10).getProteinIds());
+    }
+}
@@ -31,5 +31,8 @@ public class CachedTestAppContext {
 
     static final SpeciesRepositoryJdbc speciesRepositoryJdbc = ctx.getBean(SpeciesRepositoryJdbc.class);
     static final ProteinRepositoryJdbc proteinRepositoryJdbc = ctx.getBean(ProteinRepositoryJdbc.class);
+    static final OrthgroupRepositoryJdbc orthgroupRepositoryJdbc = ctx.getBean(OrthgroupRepositoryJdbc.class);
+    static final NetworkRepositoryJdbc networkRepositoryJdbc = ctx.getBean(NetworkRepositoryJdbc.class);
+    static final MeshTermRepositoryJdbc meshTermRepositoryJdbc = ctx.getBean(MeshTermRepositoryJdbc.class);
 
 }
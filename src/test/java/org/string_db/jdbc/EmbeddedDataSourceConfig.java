@@ -16,6 +16,13 @@ public class EmbeddedDataSourceConfig implements DataSourceConfig {
     protected final EmbeddedDatabase hsqldb;
 
     public EmbeddedDataSourceConfig() {
+        this("testdb");
+    }
+
+    /**
+     * @param name of the in-memory database, configs with different names don't share data
+     */
+    public EmbeddedDataSourceConfig(String name) {
         /**
          * HSQLDB requires by default that all VARCHAR columns declare size, but our schema export
          *   doesn't do it so let's make hsql use the default value instead:
@@ -24,6 +31,7 @@ public class EmbeddedDataSourceConfig implements DataSourceConfig {
         connProperties.setProperty("sql.enforce_size", "false");
         hsqldb = new EmbeddedDatabaseBuilder()
                 .setType(EmbeddedDatabaseType.HSQL)
+                .setName(name)
                 .addScript("classpath:schema.sql")
                 .addScript("classpath:test-data.sql")
                 .setDataSourceFactory(
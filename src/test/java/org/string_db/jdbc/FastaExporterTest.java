@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class FastaExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    final FastaExporter exporter = CachedTestAppContext.ctx.getBean(FastaExporter.class);
+
+    @Test
+    public void test_exportAll() throws Exception {
+        final Map<Integer, Long> written = exporter.exportAll(ImmutableList.of(511145, 272634), folder.getRoot(), false, 2);
+        assertEquals(Long.valueOf(2), written.get(511145));
+        assertEquals(Long.valueOf(0), written.get(272634));
+
+        final List<String> lines = Files.readLines(FastaExporter.shardFile(folder.getRoot(), 511145, false), Charsets.UTF_8);
+        assertEquals(">511145.b0002 thrA; fused aspartokinase I and homoserine dehydrogenase I", lines.get(0));
+        assertEquals("MKRISTTITTTITITTGNGAG", lines.get(1));
+        assertEquals(">511145.b0003 thrB; homoserine kinase", lines.get(2));
+        assertEquals(60, lines.get(3).length());
+        assertTrue(FastaExporter.shardFile(folder.getRoot(), 272634, false).exists());
+    }
+
+    @Test
+    public void test_gzip() throws Exception {
+        final File file = FastaExporter.shardFile(folder.getRoot(), 511145, true);
+        assertEquals(2, exporter.export(511145, file, true));
+        assertTrue(file.getName().endsWith(".fa.gz"));
+        assertTrue(file.length() > 0);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.Test;
+import org.string_db.AnnotationSets;
+import org.string_db.EnrichmentEngine;
+import org.string_db.IntBitmap;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class FunccatRepositoryJdbcTest {
+
+    static final ForkJoinPool pool = new ForkJoinPool(2);
+
+    final FunccatRepositoryJdbc repo = CachedTestAppContext.ctx.getBean(FunccatRepositoryJdbc.class);
+
+    @Test
+    public void test_loadFunccatDescriptions() throws Exception {
+        assertEquals(3, repo.loadFunccatDescriptions().size());
+        assertEquals("Amino acid transport and metabolism", repo.loadFunccatDescriptions().get("E"));
+    }
+
+    @Test
+    public void test_loadFunccatProteins() throws Exception {
+        final AnnotationSets funccats = repo.loadFunccatProteins(511145);
+        assertEquals(3, funccats.size());
+        assertArrayEquals(new int[]{4735233, 4735234, 4735235}, funccats.proteins("E").toArray());
+        assertArrayEquals(new int[]{4735233}, funccats.proteins("C").toArray());
+        assertArrayEquals(new int[]{4735235}, funccats.proteins("R").toArray());
+        assertArrayEquals("M. pneumoniae", new int[]{2815147, 2815672}, repo.loadFunccatProteins(272634).proteins("E").toArray());
+    }
+
+    @Test
+    public void test_cached_engines() throws Exception {
+        final EnrichmentEngineCache cache = CachedTestAppContext.ctx.getBean(EnrichmentEngineCache.class);
+        assertSame(cache.funccats(511145), cache.funccats(511145));
+        final List<EnrichmentEngine.Enrichment> result = cache.funccats(511145).enrich(IntBitmap.of(4735233), 1, pool);
+        assertEquals(2, result.size());
+        assertEquals("C", result.get(0).getCategoryId());
+        assertEquals(1.0 / 3, result.get(0).getPValue(), 1e-12);
+        assertEquals(1, cache.meshTerms(511145).enrich(IntBitmap.of(4735240), 1, pool).size());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.string_db.IntAdjacency;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class GenericQueryProcessorTest {
+    static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    final GenericQueryProcessor queryProcessor = CachedTestAppContext.ctx.getBean(GenericQueryProcessor.class);
+    final MapSqlParameterSource mycoplasma = new MapSqlParameterSource("species_id", 272634);
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_keyRangeBounds() throws Exception {
+        final long[] bounds = queryProcessor.keyRangeBounds("protein_id", "items.proteins_names", "species_id = :species_id", mycoplasma, 4);
+        assertEquals(5, bounds.length);
+        assertEquals(2815007, bounds[0]);
+        assertEquals(2815696, bounds[4]);
+        for (int i = 1; i < bounds.length; i++) {
+            assertTrue(bounds[i - 1] < bounds[i]);
+        }
+        assertArrayEquals(new long[0], queryProcessor.keyRangeBounds("protein_id", "items.proteins_names",
+                "species_id = :species_id", new MapSqlParameterSource("species_id", -1), 4));
+    }
+
+    @Test
+    public void test_keyQuantileBounds_partitions() throws Exception {
+        for (int partitions : new int[]{0, -1, -2}) {
+            try {
+                queryProcessor.keyQuantileBounds("protein_id", "items.proteins_names", "species_id = :species_id",
+                        mycoplasma, partitions, 3);
+                fail("partitions: " + partitions);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void test_keyRangeBounds_maxInt() throws Exception {
+        //protein_ids of the species (the largest is 2815695) shifted so the largest one is Integer.MAX_VALUE
+        final String shifted = "(SELECT protein_id + " + (Integer.MAX_VALUE - 2815695) + " AS k FROM items.proteins_names " +
+                "WHERE species_id = :species_id) t";
+        final long[] bounds = queryProcessor.keyRangeBounds("k", shifted, "1 = 1", mycoplasma, 3);
+        assertEquals(4, bounds.length);
+        assertEquals(Integer.MAX_VALUE + 1L, bounds[3]);
+        final List<Counter> counters = queryProcessor.parallelScan("k", shifted, "1 = 1", mycoplasma, "k", bounds, executor,
+                new GenericQueryProcessor.PartitionHandlers<Counter>() {
+                    @Override
+                    public Counter create(int partition) {
+                        return new Counter();
+                    }
+                });
+        assertEquals(Integer.MAX_VALUE, counters.get(2).max);
+        int rows = 0;
+        for (Counter counter : counters) {
+            rows += counter.rows;
+        }
+        assertEquals(CachedTestAppContext.ctx.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM items.proteins_names WHERE species_id = 272634", Integer.class).intValue(), rows);
+    }
+
+    @Test
+    public void test_parallel_selectTwoColumns() throws Exception {
+        final Map<Integer, Set<String>> expected = queryProcessor.selectTwoColumns("protein_id", "protein_name",
+                "items.proteins_names", TwoColumnRowMapper.<Integer, String>multiValMapper(), "species_id = :species_id", mycoplasma);
+        assertFalse(expected.isEmpty());
+        for (int partitions : new int[]{1, 2, 3, 7, 64}) {
+            assertEquals("partitions: " + partitions, expected, queryProcessor.selectTwoColumns("protein_id", "protein_name",
+                    "items.proteins_names", TwoColumnRowMapper.<Integer, String>multiValMapper(), "species_id = :species_id",
+                    mycoplasma, partitions, executor));
+        }
+    }
+
+    @Test
+    public void test_parallel_selectAdjacency() throws Exception {
+        final IntAdjacency expected = queryProcessor.selectAdjacency("protein_id", "LENGTH(protein_name)",
+                "items.proteins_names", "species_id = :species_id", mycoplasma);
+        final IntAdjacency parallel = queryProcessor.selectAdjacency("protein_id", "LENGTH(protein_name)",
+                "items.proteins_names", "species_id = :species_id", mycoplasma, 5, executor);
+        assertEquals(expected.size(), parallel.size());
+        assertEquals(expected.memberCount(), parallel.memberCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.membersOf(expected.key(i)), parallel.membersOf(expected.key(i)));
+        }
+    }
+
+    @Test
+    public void test_parallelScan_quantiles() throws Exception {
+        final long[] bounds = queryProcessor.keyQuantileBounds("protein_id", "items.proteins_names",
+                "species_id = :species_id", mycoplasma, 4, 3);
+        assertTrue(bounds.length >= 2 && bounds.length <= 5);
+        final List<Counter> counters = queryProcessor.parallelScan("protein_id", "items.proteins_names",
+                "species_id = :species_id", mycoplasma, "protein_id", bounds, executor,
+                new GenericQueryProcessor.PartitionHandlers<Counter>() {
+                    @Override
+                    public Counter create(int partition) {
+                        return new Counter();
+                    }
+                });
+        assertEquals(bounds.length - 1, counters.size());
+        int rows = 0;
+        for (int i = 0; i < counters.size(); i++) {
+            assertTrue(counters.get(i).min >= bounds[i]);
+            assertTrue(counters.get(i).max < bounds[i + 1]);
+            rows += counters.get(i).rows;
+        }
+        assertEquals(CachedTestAppContext.ctx.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM items.proteins_names WHERE species_id = 272634", Integer.class).intValue(), rows);
+    }
+
+    static class Counter implements RowCallbackHandler {
+        int rows;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            rows++;
+            min = Math.min(min, rs.getInt(1));
+            max = Math.max(max, rs.getInt(1));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.Test;
+import org.string_db.GenomeIndex;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class GenomeRepositoryJdbcTest {
+
+    static final GenomeIndex genome = CachedTestAppContext.ctx.getBean(GenomeRepositoryJdbc.class).loadGenomeIndex(511145);
+
+    @Test
+    public void test_load() throws Exception {
+        assertEquals(7, genome.size());
+        assertEquals(2, genome.contigCount());
+        assertTrue(genome.contigIndex("NC_000913") >= 0);
+        assertTrue(genome.contigIndex("NC_000000") < 0);
+        //contig offsets, 6 arrays per record, gene and protein adjacencies (7 keys, 8 offsets, 7 members)
+        assertEquals(4 * (3 + 6 * 7) + 2 * 4 * (7 + 8 + 7), genome.memoryBytes());
+    }
+
+    @Test
+    public void test_proteinsNearGene() throws Exception {
+        assertArrayEquals("thrB doesn't overlap any gene", new int[0], genome.proteinsNearGene(13, 0));
+        assertArrayEquals(new int[]{4735233, 4735235}, genome.proteinsNearGene(13, 10));
+        assertArrayEquals(new int[]{4735232, 4735234}, genome.proteinsNearGene(12, 100));
+        assertArrayEquals("only gene on its contig", new int[0], genome.proteinsNearGene(17, 100000));
+        assertArrayEquals(new int[0], genome.proteinsNearGene(/*no such gene*/99, 100));
+    }
+
+    @Test
+    public void test_proteinsNearProtein() throws Exception {
+        assertArrayEquals(new int[]{4735233, 4735235}, genome.proteinsNearProtein(4735234, 10));
+    }
+
+    @Test
+    public void test_reverseStrandRange() throws Exception {
+        assertArrayEquals(new int[]{4735237}, genome.proteinsInRange("NC_000913", 5600, 5700));
+        assertArrayEquals(new int[]{4735236, 4735237}, genome.proteinsInRange("NC_000913", 5500, 5700));
+    }
+
+    @Test
+    public void test_nearestRecord() throws Exception {
+        final int contig = genome.contigIndex("NC_000913");
+        assertEquals(4735235, genome.proteinId(genome.nearestRecord(contig, 5100)));
+        assertEquals(4735233, genome.proteinId(genome.nearestRecord(contig, 300)));
+        assertEquals(4735234, genome.proteinId(genome.nearestRecord(contig, 3000)));
+        assertEquals(4735237, genome.proteinId(genome.nearestRecord(contig, 100000)));
+        assertEquals(4735232, genome.proteinId(genome.nearestRecord(contig, 0)));
+    }
+}
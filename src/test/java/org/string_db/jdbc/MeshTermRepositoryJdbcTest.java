@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.Test;
+import org.string_db.MeshTermIndex;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class MeshTermRepositoryJdbcTest {
+
+    final MeshTermRepositoryJdbc repo = CachedTestAppContext.meshTermRepositoryJdbc;
+
+    @Test
+    public void test_loadMeshTermDescriptions() throws Exception {
+        final Map<Integer, String> descriptions = repo.loadMeshTermDescriptions();
+        assertEquals(3, descriptions.size());
+        assertEquals("Threonine", descriptions.get(1001));
+    }
+
+    @Test
+    public void test_loadMeshTermIndex() throws Exception {
+        final MeshTermIndex index = repo.loadMeshTermIndex(511145);
+        assertEquals(2, index.termCount());
+        assertArrayEquals(new int[]{1001, 1002}, index.getMeshIds());
+        assertArrayEquals("no M. pneumoniae protein", new int[]{4735232, 4735233, 4735234, 4735235},
+                index.proteins(1001).toArray());
+        assertEquals(8, index.proteins(1002).cardinality());
+        assertTrue(index.proteins(1003).isEmpty());
+        assertArrayEquals(new int[]{4735233, 4735234, 4735235}, index.shared(1001, 1002).toArray());
+        assertEquals(3, index.countShared(1001, 1002));
+        assertEquals(9, index.any(1001, 1002).cardinality());
+        assertTrue(index.shared(1001, 1003).isEmpty());
+    }
+}
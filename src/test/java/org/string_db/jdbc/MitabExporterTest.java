@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.string_db.MitabWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class MitabExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    final MitabExporter exporter = CachedTestAppContext.ctx.getBean(MitabExporter.class);
+
+    @Test
+    public void test_export() throws Exception {
+        final File file = MitabExporter.shardFile(folder.getRoot(), 511145, MitabWriter.Format.MITAB25, false);
+        assertEquals(4, exporter.export(511145, file, MitabWriter.Format.MITAB25, false));
+        final List<String> lines = Files.readLines(file, Charsets.UTF_8);
+        assertEquals(4, lines.size());
+        Collections.sort(lines);
+        final String[] columns = lines.get(1).split("\t", -1);
+        assertEquals(15, columns.length);
+        assertEquals("string:511145.b0002", columns[0]);
+        assertEquals("string:511145.b0003", columns[1]);
+        assertEquals("string:thrA(preferred name)", columns[4]);
+        assertEquals("string:thrB(preferred name)", columns[5]);
+        assertEquals("taxid:511145", columns[9]);
+        assertEquals("score:0.900|experimental:0.800|textmining:0.500", columns[14]);
+        for (String line : lines) {
+            final String[] ids = line.split("\t", 3);
+            assertTrue(line, ids[0].compareTo(ids[1]) < 0);
+        }
+    }
+
+    @Test
+    public void test_exportAll_gzip() throws Exception {
+        final Map<Integer, Long> written = exporter.exportAll(ImmutableList.of(511145, 9606), folder.getRoot(),
+                MitabWriter.Format.MITAB27, true, 2);
+        assertEquals(Long.valueOf(4), written.get(511145));
+        assertEquals(Long.valueOf(0), written.get(9606));
+
+        final File file = MitabExporter.shardFile(folder.getRoot(), 511145, MitabWriter.Format.MITAB27, true);
+        assertEquals("511145.mitab27.txt.gz", file.getName());
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), Charsets.UTF_8))) {
+            int lines = 0;
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                assertEquals(42, line.split("\t", -1).length);
+                lines++;
+            }
+            assertEquals(4, lines);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.string_db.CompressedNetworkGraph;
+import org.string_db.NetworkFile;
+import org.string_db.NetworkFileTest;
+import org.string_db.NetworkGraph;
+import org.string_db.NetworkLoadOptions;
+import org.string_db.NetworkRepository;
+import org.string_db.PairScores;
+import org.string_db.StringDbScores;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.string_db.EvidenceType.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class NetworkRepositoryJdbcTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    final NetworkRepositoryJdbc repository = CachedTestAppContext.networkRepositoryJdbc;
+
+    @Test
+    public void test_loadScoreTypes() throws Exception {
+        assertEquals(13, repository.loadScoreTypes().size());
+        assertEquals("experimental", repository.loadScoreTypes().get(8));
+    }
+
+    @Test
+    public void test_loadNetwork() throws Exception {
+        final NetworkGraph graph = repository.loadNetwork(511145);
+        assertEquals(4, graph.nodeCount());
+        assertEquals(8, graph.edgeCount());
+        final NetworkGraph.Cursor cursor = graph.cursor().reset(graph.nodeOf(4735233), 800);
+        assertTrue(cursor.next());
+        assertEquals(4735234, graph.proteinId(cursor.node()));
+        assertEquals(800, cursor.score(EXPERIMENTAL));
+        assertEquals(500, cursor.score(TEXTMINING));
+        assertFalse(cursor.next());
+        assertEquals(0, repository.loadNetwork(9606).nodeCount());
+    }
+
+    @Test
+    public void test_writeNetworkFile() throws Exception {
+        for (boolean compressed : new boolean[]{false, true}) {
+            final NetworkGraph graph = repository.loadNetwork(511145, NetworkLoadOptions.builder().compressed(compressed).build());
+            final File file = new File(folder.getRoot(), "511145." + compressed + ".network");
+            NetworkFile.write(graph, file);
+            final NetworkGraph mapped = NetworkFile.open(file);
+            assertEquals(8, mapped.edgeCount());
+            NetworkFileTest.assertSameGraph(graph, mapped);
+        }
+    }
+
+    @Test
+    public void test_loadNetwork_options() throws Exception {
+        final NetworkGraph high = repository.loadNetwork(511145, NetworkLoadOptions.builder().minCombinedScore(700).build());
+        assertEquals(3, high.nodeCount());
+        assertEquals(4, high.edgeCount());
+
+        final NetworkGraph experimental = repository.loadNetwork(511145, NetworkLoadOptions.builder()
+                .minScore(EXPERIMENTAL, 700).channels(EnumSet.of(EXPERIMENTAL)).compressed(true).build());
+        assertTrue(experimental instanceof CompressedNetworkGraph);
+        assertEquals(2, experimental.edgeCount());
+        assertTrue(experimental.hasChannel(EXPERIMENTAL));
+        assertFalse(experimental.hasChannel(TEXTMINING));
+    }
+
+    @Test
+    public void test_streamLinks() throws Exception {
+        final List<StringDbScores> links = new ArrayList<>();
+        repository.streamLinks(511145, NetworkLoadOptions.builder().minScore(NEIGHBOURHOOD, 1).build(),
+                new NetworkRepository.LinkHandler() {
+                    @Override
+                    public void link(StringDbScores scores, int combinedScore) {
+                        assertEquals(250, combinedScore);
+                        links.add(scores);
+                    }
+                });
+        assertEquals(2, links.size());
+        assertEquals(StringDbScores.builder(4735234, 4735235).with(NEIGHBOURHOOD, 200).with(COEXPRESSION_TRANSFERRED, 100).build(),
+                links.get(0).getProteinA() == 4735234 ? links.get(0) : links.get(1));
+    }
+
+    @Test
+    public void test_loadTopPartners() throws Exception {
+        final List<StringDbScores> partners = repository.loadTopPartners(4735233, 2);
+        assertEquals(2, partners.size());
+        assertEquals(4735234, partners.get(0).getProteinB().intValue());
+        assertEquals(4735235, partners.get(1).getProteinB().intValue());
+        assertEquals(400, partners.get(1).get(DATABASE).intValue());
+    }
+
+    @Test
+    public void test_loadPairScores() throws Exception {
+        final PairScores scores = repository.loadPairScores(
+                new int[]{4735234, 4735232, 4735233, 4735234},
+                new int[]{4735233, 4735235, 4735232, 4735233});
+        assertEquals(4, scores.size());
+        assertFalse(scores.isMissing(0));
+        assertTrue(scores.isMissing(1));
+        assertEquals(1, scores.getMissing().cardinality());
+        assertEquals(900, scores.combinedScore(0));
+        assertEquals(800, scores.score(0, EXPERIMENTAL));
+        assertEquals(400, scores.score(2, TEXTMINING));
+        assertEquals("duplicate pairs", 900, scores.combinedScore(3));
+        assertEquals(0, scores.combinedScore(1));
+        assertEquals(0, repository.loadPairScores(new int[0], new int[0]).size());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.string_db.IntAdjacency;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class OrthgroupRepositoryJdbcTest {
+
+    final OrthgroupRepositoryJdbc repo = CachedTestAppContext.orthgroupRepositoryJdbc;
+
+    @Test
+    public void test_loadProteinOrthgroups() throws Exception {
+        final IntAdjacency orthgroups = repo.loadProteinOrthgroups(511145);
+        assertEquals(3, orthgroups.size());
+        assertArrayEquals(new int[]{100, 101}, orthgroups.membersOf(4735233));
+        assertArrayEquals(new int[]{102}, orthgroups.membersOf(4735234));
+        assertFalse("M. pneumoniae protein", orthgroups.containsKey(2815672));
+    }
+
+    @Test
+    public void test_loadOrthgroupMembers_acrossSpecies() throws Exception {
+        final IntAdjacency members = repo.loadOrthgroupMembers(272634);
+        assertEquals(2, members.size());
+        assertArrayEquals(new int[]{2815672, 4735233}, members.membersOf(100));
+        assertArrayEquals(new int[]{2815147, 4735234}, members.membersOf(102));
+    }
+
+    @Test
+    public void test_loadOrthgroupMembers_byIds() throws Exception {
+        final IntAdjacency members = repo.loadOrthgroupMembers(ImmutableList.of(101, 103));
+        assertArrayEquals(new int[]{4735233}, members.membersOf(101));
+        assertArrayEquals(new int[]{4735235}, members.membersOf(103));
+        assertEquals(0, repo.loadOrthgroupMembers(ImmutableList.<Integer>of()).size());
+    }
+
+    @Test
+    public void test_loadOrthgroupSpecies() throws Exception {
+        final IntAdjacency species = repo.loadOrthgroupSpecies(ImmutableList.of(100, 101));
+        assertArrayEquals(new int[]{272634, 511145}, species.membersOf(100));
+        assertArrayEquals(new int[]{511145}, species.membersOf(101));
+    }
+
+    @Test
+    public void test_loadOrthgroupExternalIds() throws Exception {
+        final Map<Integer, String> ids = repo.loadOrthgroupExternalIds(272634);
+        assertEquals(2, ids.size());
+        assertEquals("COG0460", ids.get(100));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reports how a parallel load of {@code items.proteins_names} scales with the number of partitions,
+ * against the database configured in {@code /opt/stringdb/jdbc-v1.0.properties}:
+ * <pre>
+ * java ... org.string_db.jdbc.PartitionedScanBenchmark [species_id=9606] [max partitions=16] [rounds=3]
+ * </pre>
+ * Not a unit test, run it by hand.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class PartitionedScanBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int speciesId = args.length > 0 ? Integer.parseInt(args[0]) : 9606;
+        final int maxPartitions = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        final AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(AppConfig.class, DriverDataSourceConfig.class);
+        final GenericQueryProcessor queryProcessor = ctx.getBean(GenericQueryProcessor.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(maxPartitions);
+        final MapSqlParameterSource params = new MapSqlParameterSource("species_id", speciesId);
+        try {
+            long single = time(rounds, new Load() {
+                @Override
+                public int run() {
+                    return queryProcessor.selectTwoColumns("protein_id", "protein_name", "items.proteins_names",
+                            TwoColumnRowMapper.<Integer, String>multiValMapper(), "species_id = :species_id", params).size();
+                }
+            });
+            System.out.printf("species %d, single query: %d ms%n", speciesId, single);
+            for (int partitions = 1; partitions <= maxPartitions; partitions *= 2) {
+                final int p = partitions;
+                final long millis = time(rounds, new Load() {
+                    @Override
+                    public int run() {
+                        final Map<Integer, Set<String>> names = queryProcessor.selectTwoColumns("protein_id", "protein_name",
+                                "items.proteins_names", TwoColumnRowMapper.<Integer, String>multiValMapper(),
+                                "species_id = :species_id", params, p, executor);
+                        return names.size();
+                    }
+                });
+                System.out.printf("%3d partitions: %6d ms, speedup %.2f%n", partitions, millis, (double) single / millis);
+            }
+        } finally {
+            executor.shutdownNow();
+            ctx.close();
+        }
+    }
+
+    interface Load {
+        /**
+         * @return number of proteins loaded
+         */
+        int run();
+    }
+
+    /**
+     * @return best time of {@code rounds}, after one warm-up round
+     */
+    static long time(int rounds, Load load) {
+        load.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            final long start = System.nanoTime();
+            load.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1000000);
+        }
+        return Math.max(best, 1);
+    }
+}
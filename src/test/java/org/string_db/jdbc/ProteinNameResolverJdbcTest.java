@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.string_db.IntAdjacency;
+import org.string_db.ProteinNameIndex;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class ProteinNameResolverJdbcTest {
+
+    final ProteinNameResolverJdbc resolver = CachedTestAppContext.ctx.getBean(ProteinNameResolverJdbc.class);
+
+    @Test
+    public void test_resolve_caseInsensitive() throws Exception {
+        final ProteinNameIndex index = resolver.getNameIndex(272634);
+        assertArrayEquals(new int[]{2815672}, index.resolve("MPN665"));
+        assertArrayEquals(new int[]{2815672}, index.resolve("mpn665"));
+        assertArrayEquals(new int[]{2815672}, index.resolve("P23568"));
+        assertArrayEquals(new int[0], index.resolve("no such protein"));
+        assertSame("built once per species", index, resolver.getNameIndex(272634));
+    }
+
+    @Test
+    public void test_resolve_externalIdsAndPreferredNames() throws Exception {
+        final ProteinNameIndex index = resolver.getNameIndex(511145);
+        assertArrayEquals(new int[]{4735233}, index.resolve("511145.b0002"));
+        assertArrayEquals(new int[]{4735233}, index.resolve("THRA"));
+    }
+
+    @Test
+    public void test_resolveBatch() throws Exception {
+        final IntAdjacency resolved = resolver.resolve(272634, ImmutableList.of("MPN665", "unknown", "mpn660"));
+        assertEquals(2, resolved.size());
+        assertArrayEquals(new int[]{2815672}, resolved.membersOf(0));
+        assertFalse(resolved.containsKey(1));
+        assertArrayEquals(new int[]{2815667}, resolved.membersOf(2));
+    }
+
+    @Test
+    public void test_prefix() throws Exception {
+        final ProteinNameIndex index = resolver.getNameIndex(272634);
+        final int[] ids = index.resolvePrefix("mpn66");
+        assertEquals(10, ids.length);
+        assertEquals(2815667, ids[0]);
+        assertEquals(ImmutableList.of("mpn660", "mpn661"), index.completions("MPN66", 2));
+        assertEquals(10, index.completions("MPN66", Integer.MAX_VALUE).size());
+        assertTrue(index.completions("MPN66", 0).isEmpty());
+        assertArrayEquals(new int[0], index.resolvePrefix("zzzz"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_completions_negativeLimit() throws Exception {
+        resolver.getNameIndex(272634).completions("MPN66", -1);
+    }
+}
@@ -18,11 +18,16 @@
 
 package org.string_db.jdbc;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
+import org.string_db.ExternalIdIndex;
 import org.string_db.ProteinExternalId;
+import org.string_db.SequenceIndex;
 import org.string_db.UniprotAC;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -42,6 +47,18 @@ public class ProteinRepositoryJdbcTest {
         assertEquals("511145.b4687", externalIds.get(4739379).toString());
     }
 
+    @Test
+    public void test_external_id_index() throws Exception {
+        final Map<Integer, ProteinExternalId> externalIds = repo.loadExternalIds(511145);
+        final ExternalIdIndex index = repo.loadExternalIdIndex(511145);
+        assertEquals(externalIds.size(), index.size());
+        for (Map.Entry<Integer, ProteinExternalId> entry : externalIds.entrySet()) {
+            assertEquals(entry.getKey().intValue(), index.proteinId(entry.getValue()));
+        }
+        assertEquals(-1, index.proteinId("511145.b9999"));
+        assertEquals(-1, index.proteinId("9606.ENSP00000269305"));
+    }
+
     @Test
     public void test_loadProteinNames() throws Exception {
         final Map<Integer, Set<String>> ids = repo.loadProteinNames(272634);
@@ -66,6 +83,17 @@ public class ProteinRepositoryJdbcTest {
         assertEquals("MKRISTTITTTITITTGNGAG", sequences.get(4735233));
     }
 
+    @Test
+    public void test_sequence_index() throws Exception {
+        final SequenceIndex index = repo.loadSequenceIndex(511145, null);
+        assertEquals(2, index.size());
+        assertEquals("MKRISTTITTTITITTGNGAG", index.sequence(4735233));
+        assertArrayEquals(new int[]{4735233}, index.proteinsContaining("TITITTG"));
+        assertArrayEquals(new int[]{4735234}, index.proteinsContaining("GVGGVGG"));
+        assertArrayEquals(new int[]{4735233, 4735234}, index.proteinsContaining("GAG"));
+        assertTrue(index.duplicates().isEmpty());
+    }
+
     @Test
     public void test_protein_preferred_name() throws Exception {
         final Map<Integer, String> names = repo.loadProteinPreferredNames(511145);
@@ -79,6 +107,27 @@ public class ProteinRepositoryJdbcTest {
         assertEquals(new UniprotAC("P11311"), ids.get(2815147));
     }
 
+    @Test
+    public void test_resolveProteinIds() throws Exception {
+        final Map<String, Set<Integer>> ids = repo.resolveProteinIds(272634, ImmutableList.of("MPN665", "P23568", "MPN665", "no such name"));
+        assertEquals(2, ids.size());
+        assertEquals(ImmutableSet.of(2815672), ids.get("MPN665"));
+        assertEquals(ImmutableSet.of(2815672), ids.get("P23568"));
+        assertTrue(repo.resolveProteinIds(272634, ImmutableList.<String>of()).isEmpty());
+    }
+
+    @Test
+    public void test_resolveProteinIds_chunked() throws Exception {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < ProteinRepositoryJdbc.RESOLVE_CHUNK_SIZE; i++) {
+            names.add("unknown" + i);
+        }
+        names.add("MPN665");
+        final Map<String, Set<Integer>> ids = repo.resolveProteinIds(272634, names);
+        assertEquals(ImmutableSet.of(2815672), ids.get("MPN665"));
+        assertEquals(1, ids.size());
+    }
+
     @Test
     public void test_count() throws Exception {
         Integer numProteins = repo.count(511145);
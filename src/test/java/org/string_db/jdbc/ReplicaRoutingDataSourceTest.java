@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replicas are separate in-memory HSQLDB instances, each knows its own name.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class ReplicaRoutingDataSourceTest {
+    final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    final FlakyDataSource flaky = new FlakyDataSource(replica("r3"));
+    ReplicaRoutingDataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        replicas.put("r1", replica("r1"));
+        replicas.put("r2", replica("r2"));
+        replicas.put("r3", flaky);
+        dataSource = new ReplicaRoutingDataSource(replicas, 0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.close();
+    }
+
+    static DataSource replica(String name) {
+        final DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:hsqldb:mem:replica_" + name, "sa", "");
+        final JdbcTemplate template = new JdbcTemplate(ds);
+        template.execute("DROP TABLE replica IF EXISTS");
+        template.execute("CREATE TABLE replica (name VARCHAR(10))");
+        template.update("INSERT INTO replica VALUES (?)", name);
+        return ds;
+    }
+
+    static String replicaOf(Connection connection) throws SQLException {
+        return new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject("SELECT name FROM replica", String.class);
+    }
+
+    @Test
+    public void test_least_outstanding() throws Exception {
+        final List<Connection> open = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final Connection connection = dataSource.getConnection();
+            open.add(connection);
+            names.add(replicaOf(connection));
+        }
+        //each replica got two connections
+        for (String name : replicas.keySet()) {
+            assertEquals(name, 2, count(names, name));
+            assertEquals(2, dataSource.getStats().get(name).getOutstanding());
+        }
+        final String busy = replicaOf(open.get(0));
+        for (Connection connection : open) {
+            if (!replicaOf(connection).equals(busy)) connection.close();
+        }
+        //the others are idle now
+        assertFalse(busy.equals(replicaOf(dataSource.getConnection())));
+        assertEquals(2, dataSource.getStats().get(busy).getOutstanding());
+    }
+
+    private static int count(List<String> names, String name) {
+        int n = 0;
+        for (String s : names) {
+            if (s.equals(name)) n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void test_failover() throws Exception {
+        flaky.down = true;
+        for (int i = 0; i < 6; i++) {
+            try (Connection connection = dataSource.getConnection()) {
+                assertFalse("r3".equals(replicaOf(connection)));
+            }
+        }
+        final ReplicaRoutingDataSource.ReplicaStats stats = dataSource.getStats().get("r3");
+        assertFalse(stats.isHealthy());
+        assertEquals(1, stats.getFailures());
+        assertEquals(0, stats.getRequests());
+        assertEquals(0, stats.getOutstanding());
+        assertEquals(6, dataSource.getStats().get("r1").getRequests() + dataSource.getStats().get("r2").getRequests());
+
+        dataSource.checkHealth();
+        assertFalse(dataSource.getStats().get("r3").isHealthy());
+        flaky.down = false;
+        dataSource.checkHealth();
+        assertTrue(dataSource.getStats().get("r3").isHealthy());
+    }
+
+    @Test
+    public void test_all_down() throws Exception {
+        final FlakyDataSource down = new FlakyDataSource(replica("r4"));
+        down.down = true;
+        final Map<String, DataSource> one = new LinkedHashMap<>();
+        one.put("r4", down);
+        try (ReplicaRoutingDataSource ds = new ReplicaRoutingDataSource(one, 0)) {
+            try {
+                ds.getConnection();
+                fail("expected SQLException");
+            } catch (SQLException e) {
+                assertEquals("08001", e.getSQLState());
+            }
+            //marked down, but still tried when there's nothing else
+            down.down = false;
+            try (Connection connection = ds.getConnection()) {
+                assertEquals("r4", replicaOf(connection));
+            }
+            assertEquals(1, ds.getStats().get("r4").getRequests());
+        }
+    }
+
+    @Test
+    public void test_jdbcTemplate() throws Exception {
+        final JdbcTemplate template = new JdbcTemplate(dataSource);
+        for (int i = 0; i < 9; i++) {
+            assertNotNull(template.queryForObject("SELECT name FROM replica", String.class));
+        }
+        long requests = 0;
+        for (ReplicaRoutingDataSource.ReplicaStats stats : dataSource.getStats().values()) {
+            assertEquals(0, stats.getOutstanding());
+            assertTrue(stats.getMaxLatencyMillis() >= stats.getMeanLatencyMillis());
+            requests += stats.getRequests();
+        }
+        assertEquals(9, requests);
+    }
+
+    static class FlakyDataSource extends AbstractDataSource {
+        final DataSource target;
+        volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException("connection refused", "08001");
+            return target.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
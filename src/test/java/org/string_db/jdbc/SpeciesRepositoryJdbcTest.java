@@ -20,6 +20,8 @@ package org.string_db.jdbc;
 
 import com.google.common.collect.ImmutableList;
 import org.junit.Test;
+import org.string_db.SpeciesCatalog;
+import org.string_db.TaxonomyIndex;
 
 import java.util.List;
 import java.util.Map;
@@ -60,4 +62,50 @@ public class SpeciesRepositoryJdbcTest {
         assertEquals("Homo sapiens", repo.loadSpeciesName(9606));
 
     }
+
+    @Test
+    public void test_loadSpeciesCatalog() throws Exception {
+        final SpeciesCatalog catalog = repo.loadSpeciesCatalog();
+        assertEquals(repo.loadSpeciesIds().size(), catalog.size());
+        assertEquals("Homo sapiens", catalog.getOfficialName(9606));
+        assertEquals("Escherichia coli K12_MG1655", catalog.get(511145).getCompactName());
+        assertNull(catalog.get(1));
+        assertEquals(repo.loadSpeciesNames(), catalog.getOfficialNames());
+        assertTrue(catalog.getCoreSpeciesIds().containsAll(repo.loadCoreSpeciesIds()));
+        assertEquals(repo.loadCoreSpeciesIds().size(), catalog.getCoreSpeciesIds().size());
+        assertEquals(3, catalog.getByKingdom("bacteria").size());
+        assertTrue(catalog.getByKingdom("archaea").isEmpty());
+        assertEquals(1, catalog.getByType("periphery").size());
+        assertEquals(Integer.valueOf(9606), catalog.findByName("Human"));
+        assertEquals(Integer.valueOf(511145), catalog.findByName("escherichia coli k12_mg1655"));
+        assertNull("not a STRING species", catalog.findByName("rat"));
+    }
+
+    @Test
+    public void test_catalogCache() throws Exception {
+        final SpeciesCatalogCache cache = CachedTestAppContext.ctx.getBean(SpeciesCatalogCache.class);
+        final SpeciesCatalog catalog = cache.get();
+        assertSame(catalog, cache.get());
+        final SpeciesCatalog refreshed = cache.refresh();
+        assertNotSame(catalog, refreshed);
+        assertSame(refreshed, cache.get());
+    }
+
+    @Test
+    public void test_loadTaxonomy() throws Exception {
+        final TaxonomyIndex taxonomy = repo.loadTaxonomy();
+        assertEquals(17, taxonomy.size());
+        assertArrayEquals(new int[]{511145, 882, 272634}, taxonomy.speciesUnder(2));
+        assertArrayEquals("rat isn't a STRING species", new int[]{9606, 10090}, taxonomy.speciesUnder(40674));
+        assertEquals(8, taxonomy.countSpeciesUnder(1));
+        assertTrue(taxonomy.isDescendant(3702, 2759));
+        assertFalse(taxonomy.isDescendant(3702, 33208));
+    }
+
+    @Test
+    public void test_cladeSpeciesIds() throws Exception {
+        final TaxonomyCache cache = CachedTestAppContext.ctx.getBean(TaxonomyCache.class);
+        assertEquals(ImmutableList.of(7227, 9606, 10090), cache.cladeSpeciesIds(33208));
+        assertSame(cache.get(), cache.get());
+    }
 }
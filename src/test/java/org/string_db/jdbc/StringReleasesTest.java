@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 University of Zürich, SIB, and others.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.string_db.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.string_db.SpeciesCatalog;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Two releases, each in its own in-memory database. The newer one has one species more.
+ *
+ * @author Milan Simonovic <milan.simonovic@imls.uzh.ch>
+ */
+public class StringReleasesTest {
+    static final DataSource oldRelease = new EmbeddedDataSourceConfig("release_9_1").dataSource();
+    static final DataSource newRelease = new EmbeddedDataSourceConfig("release_10").dataSource();
+
+    static {
+        new JdbcTemplate(newRelease).update("INSERT INTO items.species VALUES('4896', 'Schizosaccharomyces pombe', " +
+                "'Schizosaccharomyces pombe', 'eukaryota', 'core')");
+    }
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    StringReleases releases;
+
+    @Before
+    public void setUp() throws Exception {
+        releases = new StringReleases();
+        releases.add("9_1", oldRelease);
+        releases.add("10", newRelease);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        releases.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_first_is_current() throws Exception {
+        assertEquals("9_1", releases.current().getName());
+        assertEquals(new HashSet<>(Arrays.asList("9_1", "10")), new HashSet<>(releases.getNames()));
+        assertEquals(8, releases.getSpeciesCatalog().size());
+        assertEquals(8, releases.getSpeciesRepository().loadSpeciesIds().size());
+    }
+
+    @Test
+    public void test_releases_have_own_caches() throws Exception {
+        final SpeciesCatalog old = releases.get("9_1").getSpeciesCatalog();
+        final SpeciesCatalog fresh = releases.get("10").getSpeciesCatalog();
+        assertEquals(8, old.size());
+        assertEquals(9, fresh.size());
+        assertNotSame(releases.get("9_1").getProteinRepository(), releases.get("10").getProteinRepository());
+        assertNull(old.get(4896));
+        assertEquals("Schizosaccharomyces pombe", fresh.get(4896).getOfficialName());
+    }
+
+    @Test
+    public void test_warmUpAndSwitch() throws Exception {
+        assertFalse(releases.get("10").isWarm());
+        final StringRelease previous = releases.warmUpAndSwitch("10", executor).get();
+        assertEquals("9_1", previous.getName());
+        assertTrue(releases.current().isWarm());
+        assertEquals("10", releases.current().getName());
+        assertEquals(9, releases.getSpeciesCatalog().size());
+        assertEquals("Schizosaccharomyces pombe", releases.getSpeciesRepository().loadSpeciesName(4896));
+
+        releases.retire("9_1");
+        assertEquals(Arrays.asList("10"), releases.getNames());
+    }
+
+    @Test
+    public void test_failed_warm_up_keeps_current() throws Exception {
+        final DataSource broken = new DriverManagerDataSource("jdbc:hsqldb:mem:release_empty", "sa", "");
+        releases.add("broken", broken);
+        try {
+            releases.warmUpAndSwitch("broken", executor).get();
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals("9_1", releases.current().getName());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_cannot_retire_current() throws Exception {
+        releases.retire("9_1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_unknown_release() throws Exception {
+        releases.switchTo("11");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_duplicate_release() throws Exception {
+        releases.add("10", newRelease);
+    }
+}
@@ -128,3 +128,20 @@ CREATE TABLE species_nodes (
 	"position" INTEGER NOT NULL,
 	"size" INTEGER NOT NULL
 );
+
+CREATE SCHEMA network;
+SET SCHEMA network;
+
+CREATE TABLE score_types_user_friendly (
+	score_id INTEGER NOT NULL,
+	score_type VARCHAR(100) NOT NULL
+);
+-- evidence_scores is integer[][] ({{score_id, score}, ...}) in PostgreSQL,
+-- HSQLDB has no multidimensional arrays so the pairs are flattened ({score_id, score, ...})
+CREATE TABLE node_node_links (
+	node_id_a INTEGER NOT NULL,
+	node_type_b INTEGER NOT NULL,
+	node_id_b INTEGER NOT NULL,
+	combined_score SMALLINT NOT NULL,
+	evidence_scores INTEGER ARRAY
+);
@@ -15415,3 +15415,182 @@ CREATE INDEX pi_proteins_names_name ON items.proteins_names  (protein_name);
 CREATE INDEX si_proteins_names_protein ON items.proteins_names  (protein_id);
 
 -- END of  items.proteins_names
+
+-- items.orthgroups DATA:
+SET SCHEMA items;
+INSERT INTO orthgroups VALUES('100', 'COG0460', 'Homoserine dehydrogenase', '2', '2');
+INSERT INTO orthgroups VALUES('101', 'COG0527', 'Aspartokinase', '1', '1');
+INSERT INTO orthgroups VALUES('102', 'COG0083', 'Homoserine kinase', '2', '2');
+INSERT INTO orthgroups VALUES('103', 'COG0498', 'Threonine synthase', '1', '1');
+
+-- indices after the data:
+CREATE INDEX pi_orthgroups_orthgroupid ON items.orthgroups  (orthgroup_id);
+
+-- END of  items.orthgroups
+
+-- items.proteins_orthgroups DATA:
+SET SCHEMA items;
+INSERT INTO proteins_orthgroups VALUES('100', '4735233', '511145.b0002', '511145', '1', '820', 'thrA', 'fused aspartokinase I and homoserine dehydrogenase I', NULL);
+INSERT INTO proteins_orthgroups VALUES('101', '4735233', '511145.b0002', '511145', '1', '820', 'thrA', 'fused aspartokinase I and homoserine dehydrogenase I', NULL);
+INSERT INTO proteins_orthgroups VALUES('100', '2815672', '272634.MPN665', '272634', '1', '400', 'MPN665', 'homoserine dehydrogenase', NULL);
+INSERT INTO proteins_orthgroups VALUES('102', '4735234', '511145.b0003', '511145', '1', '310', 'thrB', 'homoserine kinase', NULL);
+INSERT INTO proteins_orthgroups VALUES('102', '2815147', '272634.MPN001', '272634', '1', '300', 'MPN001', 'homoserine kinase', NULL);
+INSERT INTO proteins_orthgroups VALUES('103', '4735235', '511145.b0004', '511145', '1', '428', 'thrC', 'threonine synthase', NULL);
+
+-- indices after the data:
+CREATE INDEX pi_proteins_orthgroups_orthgroupid ON items.proteins_orthgroups  (orthgroup_id);
+CREATE INDEX si_proteins_orthgroups_proteinid ON items.proteins_orthgroups  (protein_id);
+CREATE INDEX si_proteins_orthgroups_speciesid ON items.proteins_orthgroups  (species_id);
+
+-- END of  items.proteins_orthgroups
+
+-- items.funccats DATA:
+SET SCHEMA items;
+INSERT INTO funccats VALUES('C', 'Energy production and conversion');
+INSERT INTO funccats VALUES('E', 'Amino acid transport and metabolism');
+INSERT INTO funccats VALUES('R', 'General function prediction only');
+
+-- END of  items.funccats
+
+-- items.orthgroups_funccats DATA:
+SET SCHEMA items;
+INSERT INTO orthgroups_funccats VALUES('100', 'E');
+INSERT INTO orthgroups_funccats VALUES('100', 'C');
+INSERT INTO orthgroups_funccats VALUES('101', 'E');
+INSERT INTO orthgroups_funccats VALUES('102', 'E');
+INSERT INTO orthgroups_funccats VALUES('103', 'E');
+INSERT INTO orthgroups_funccats VALUES('103', 'R');
+
+-- END of  items.orthgroups_funccats
+
+-- items.orthgroups_species DATA:
+SET SCHEMA items;
+INSERT INTO orthgroups_species VALUES('100', '511145', '1');
+INSERT INTO orthgroups_species VALUES('100', '272634', '1');
+INSERT INTO orthgroups_species VALUES('101', '511145', '1');
+INSERT INTO orthgroups_species VALUES('102', '511145', '1');
+INSERT INTO orthgroups_species VALUES('102', '272634', '1');
+INSERT INTO orthgroups_species VALUES('103', '511145', '1');
+
+-- END of  items.orthgroups_species
+
+-- items.runs DATA:
+SET SCHEMA items;
+INSERT INTO runs VALUES('1', '511145', 'NC_000913');
+INSERT INTO runs VALUES('2', '511145', 'NC_002483');
+
+-- END of  items.runs
+
+-- items.genes DATA:
+SET SCHEMA items;
+INSERT INTO genes VALUES('11', 'b0001', '190', '255', '21');
+INSERT INTO genes VALUES('12', 'b0002', '337', '2799', '820');
+INSERT INTO genes VALUES('13', 'b0003', '2801', '3733', '310');
+INSERT INTO genes VALUES('14', 'b0004', '3734', '5020', '428');
+INSERT INTO genes VALUES('15', 'b0005', '5234', '5530', '98');
+INSERT INTO genes VALUES('16', 'b0006', '6459', '5683', '258');
+INSERT INTO genes VALUES('17', 'b0007', '1000', '2000', '333');
+
+-- END of  items.genes
+
+-- items.runs_genes_proteins DATA:
+SET SCHEMA items;
+INSERT INTO runs_genes_proteins VALUES('1', '14', '4735235', '3734', '5020', 'thrC', 'threonine synthase');
+INSERT INTO runs_genes_proteins VALUES('1', '11', '4735232', '190', '255', 'thrL', 'thr operon leader peptide');
+INSERT INTO runs_genes_proteins VALUES('1', '12', '4735233', '337', '2799', 'thrA', 'fused aspartokinase I and homoserine dehydrogenase I');
+INSERT INTO runs_genes_proteins VALUES('1', '13', '4735234', '2801', '3733', 'thrB', 'homoserine kinase');
+INSERT INTO runs_genes_proteins VALUES('1', '15', '4735236', '5234', '5530', 'yaaX', 'predicted protein');
+INSERT INTO runs_genes_proteins VALUES('1', '16', '4735237', '6459', '5683', 'yaaA', 'conserved protein');
+INSERT INTO runs_genes_proteins VALUES('2', '17', '4735238', '1000', '2000', 'yaaJ', 'predicted transporter');
+
+-- END of  items.runs_genes_proteins
+
+-- items.species_names DATA:
+SET SCHEMA items;
+INSERT INTO species_names VALUES('9606', 'human', 'Homo sapiens', true);
+INSERT INTO species_names VALUES('10090', 'mouse', 'Mus musculus', true);
+INSERT INTO species_names VALUES('10116', 'rat', 'Rattus norvegicus', false);
+
+-- END of  items.species_names
+
+-- items.species_nodes DATA:
+-- nested set of the taxonomy: the subtree of a node covers positions [position, position + size)
+SET SCHEMA items;
+INSERT INTO species_nodes VALUES('1', 'root', '1', '17');
+INSERT INTO species_nodes VALUES('2', 'Bacteria', '2', '6');
+INSERT INTO species_nodes VALUES('1224', 'Proteobacteria', '3', '3');
+INSERT INTO species_nodes VALUES('511145', 'Escherichia coli K 12 substr  MG1655', '4', '1');
+INSERT INTO species_nodes VALUES('882', 'Desulfovibrio vulgaris Hildenborough', '5', '1');
+INSERT INTO species_nodes VALUES('2093', 'Mycoplasma', '6', '2');
+INSERT INTO species_nodes VALUES('272634', 'Mycoplasma pneumoniae', '7', '1');
+INSERT INTO species_nodes VALUES('2759', 'Eukaryota', '8', '10');
+INSERT INTO species_nodes VALUES('33208', 'Metazoa', '9', '6');
+INSERT INTO species_nodes VALUES('7227', 'Drosophila melanogaster', '10', '1');
+INSERT INTO species_nodes VALUES('40674', 'Mammalia', '11', '4');
+INSERT INTO species_nodes VALUES('9606', 'Homo sapiens', '12', '1');
+INSERT INTO species_nodes VALUES('10090', 'Mus musculus', '13', '1');
+INSERT INTO species_nodes VALUES('10116', 'Rattus norvegicus', '14', '1');
+INSERT INTO species_nodes VALUES('33090', 'Viridiplantae', '15', '2');
+INSERT INTO species_nodes VALUES('3702', 'Arabidopsis thaliana', '16', '1');
+INSERT INTO species_nodes VALUES('4932', 'Saccharomyces cerevisiae', '17', '1');
+
+-- END of  items.species_nodes
+
+-- items.meshterms DATA:
+SET SCHEMA items;
+INSERT INTO meshterms VALUES('1001', 'Threonine');
+INSERT INTO meshterms VALUES('1002', 'Escherichia coli Proteins');
+INSERT INTO meshterms VALUES('1003', 'Mycoplasma pneumoniae');
+
+-- END of  items.meshterms
+
+-- items.proteins_meshterms DATA:
+SET SCHEMA items;
+INSERT INTO proteins_meshterms VALUES('1001', '4735232');
+INSERT INTO proteins_meshterms VALUES('1001', '4735233');
+INSERT INTO proteins_meshterms VALUES('1001', '4735234');
+INSERT INTO proteins_meshterms VALUES('1001', '4735235');
+INSERT INTO proteins_meshterms VALUES('1002', '4735233');
+INSERT INTO proteins_meshterms VALUES('1002', '4735234');
+INSERT INTO proteins_meshterms VALUES('1002', '4735235');
+INSERT INTO proteins_meshterms VALUES('1002', '4735236');
+INSERT INTO proteins_meshterms VALUES('1002', '4735237');
+INSERT INTO proteins_meshterms VALUES('1002', '4735238');
+INSERT INTO proteins_meshterms VALUES('1002', '4735239');
+INSERT INTO proteins_meshterms VALUES('1002', '4735240');
+INSERT INTO proteins_meshterms VALUES('1001', '2815557');
+INSERT INTO proteins_meshterms VALUES('1003', '2815007');
+INSERT INTO proteins_meshterms VALUES('1003', '2815269');
+
+-- END of  items.proteins_meshterms
+
+-- network.score_types_user_friendly DATA:
+SET SCHEMA network;
+INSERT INTO score_types_user_friendly VALUES('1', 'neighbourhood');
+INSERT INTO score_types_user_friendly VALUES('2', 'neighbourhood_transferred');
+INSERT INTO score_types_user_friendly VALUES('3', 'fusion');
+INSERT INTO score_types_user_friendly VALUES('4', 'cooccurrence');
+INSERT INTO score_types_user_friendly VALUES('5', 'homology');
+INSERT INTO score_types_user_friendly VALUES('6', 'coexpression');
+INSERT INTO score_types_user_friendly VALUES('7', 'coexpression_transferred');
+INSERT INTO score_types_user_friendly VALUES('8', 'experimental');
+INSERT INTO score_types_user_friendly VALUES('9', 'experimental_transferred');
+INSERT INTO score_types_user_friendly VALUES('10', 'database');
+INSERT INTO score_types_user_friendly VALUES('11', 'database_transferred');
+INSERT INTO score_types_user_friendly VALUES('12', 'textmining');
+INSERT INTO score_types_user_friendly VALUES('13', 'textmining_transferred');
+
+-- END of  network.score_types_user_friendly
+
+-- network.node_node_links DATA:
+SET SCHEMA network;
+INSERT INTO node_node_links VALUES('4735233', '511145', '4735234', '900', ARRAY[8, 800, 12, 500]);
+INSERT INTO node_node_links VALUES('4735234', '511145', '4735233', '900', ARRAY[8, 800, 12, 500]);
+INSERT INTO node_node_links VALUES('4735233', '511145', '4735235', '700', ARRAY[8, 600, 10, 400]);
+INSERT INTO node_node_links VALUES('4735235', '511145', '4735233', '700', ARRAY[8, 600, 10, 400]);
+INSERT INTO node_node_links VALUES('4735232', '511145', '4735233', '400', ARRAY[12, 400]);
+INSERT INTO node_node_links VALUES('4735233', '511145', '4735232', '400', ARRAY[12, 400]);
+INSERT INTO node_node_links VALUES('4735234', '511145', '4735235', '250', ARRAY[1, 200, 7, 100]);
+INSERT INTO node_node_links VALUES('4735235', '511145', '4735234', '250', ARRAY[1, 200, 7, 100]);
+
+-- END of  network.node_node_links